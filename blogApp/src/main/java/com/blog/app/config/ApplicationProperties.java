@@ -1,7 +1,14 @@
 package com.blog.app.config;
 
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.InMemoryFormat;
+import io.jsonwebtoken.SignatureAlgorithm;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 /**
  * Properties specific to JHipster.
  * <p>
@@ -10,4 +17,404 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
 
+    private final Jwt jwt = new Jwt();
+
+    private final Export export = new Export();
+
+    private final Bulk bulk = new Bulk();
+
+    private final SearchIndexing searchIndexing = new SearchIndexing();
+
+    private final Cache cache = new Cache();
+
+    private final RestClient restClient = new RestClient();
+
+    public Jwt getJwt() {
+        return jwt;
+    }
+
+    public Export getExport() {
+        return export;
+    }
+
+    public Bulk getBulk() {
+        return bulk;
+    }
+
+    public SearchIndexing getSearchIndexing() {
+        return searchIndexing;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public RestClient getRestClient() {
+        return restClient;
+    }
+
+    public static class Jwt {
+
+        /**
+         * Algorithm of the tokens issued by the gateway: HS512 uses the shared secret, RS256 and ES256 are verified
+         * with the public keys fetched from the JSON Web Key Set below.
+         */
+        private SignatureAlgorithm algorithm = SignatureAlgorithm.HS512;
+
+        /**
+         * Location of the JSON Web Key Set published by the gateway.
+         */
+        private String jwkSetUri;
+
+        /**
+         * Minimum delay between two fetches of the key set, when a token with an unknown key id is received.
+         */
+        private int jwkSetMinRefreshIntervalInSeconds = 30;
+
+        private final Cache cache = new Cache();
+
+        public SignatureAlgorithm getAlgorithm() {
+            return algorithm;
+        }
+
+        public void setAlgorithm(SignatureAlgorithm algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        public String getJwkSetUri() {
+            return jwkSetUri;
+        }
+
+        public void setJwkSetUri(String jwkSetUri) {
+            this.jwkSetUri = jwkSetUri;
+        }
+
+        public int getJwkSetMinRefreshIntervalInSeconds() {
+            return jwkSetMinRefreshIntervalInSeconds;
+        }
+
+        public void setJwkSetMinRefreshIntervalInSeconds(int jwkSetMinRefreshIntervalInSeconds) {
+            this.jwkSetMinRefreshIntervalInSeconds = jwkSetMinRefreshIntervalInSeconds;
+        }
+
+        public Cache getCache() {
+            return cache;
+        }
+
+        public static class Cache {
+
+            /**
+             * Maximum number of validated tokens kept in memory, 0 disables the cache.
+             */
+            private int maxEntries = 10000;
+
+            public int getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(int maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+        }
+    }
+
+    public static class Export {
+
+        /**
+         * Number of rows fetched at once from the database cursor when streaming an export.
+         */
+        private int fetchSize = 500;
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+    }
+
+    public static class Bulk {
+
+        /**
+         * Number of items of a bulk request saved in the same transaction, and indexed in the same Elasticsearch
+         * bulk request.
+         */
+        private int batchSize = 200;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+    }
+
+    public static class SearchIndexing {
+
+        /**
+         * Maximum number of search outbox entries indexed with the same Elasticsearch bulk requests.
+         */
+        private int batchSize = 500;
+
+        /**
+         * Delay between two drains of the search outbox.
+         */
+        private long pollIntervalInMillis = 500;
+
+        /**
+         * Maximum delay before indexing again an entity whose indexing failed, the delay doubling at each attempt.
+         */
+        private long maxRetryDelayInSeconds = 300;
+
+        /**
+         * Number of documents sent in each bulk request of a full reindex.
+         */
+        private int reindexBatchSize = 1000;
+
+        /**
+         * Number of bulk requests of a full reindex sent in parallel.
+         */
+        private int reindexWorkers = 4;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getPollIntervalInMillis() {
+            return pollIntervalInMillis;
+        }
+
+        public void setPollIntervalInMillis(long pollIntervalInMillis) {
+            this.pollIntervalInMillis = pollIntervalInMillis;
+        }
+
+        public long getMaxRetryDelayInSeconds() {
+            return maxRetryDelayInSeconds;
+        }
+
+        public void setMaxRetryDelayInSeconds(long maxRetryDelayInSeconds) {
+            this.maxRetryDelayInSeconds = maxRetryDelayInSeconds;
+        }
+
+        public int getReindexBatchSize() {
+            return reindexBatchSize;
+        }
+
+        public void setReindexBatchSize(int reindexBatchSize) {
+            this.reindexBatchSize = reindexBatchSize;
+        }
+
+        public int getReindexWorkers() {
+            return reindexWorkers;
+        }
+
+        public void setReindexWorkers(int reindexWorkers) {
+            this.reindexWorkers = reindexWorkers;
+        }
+    }
+
+    public static class Cache {
+
+        /**
+         * Near caches of the Hibernate second level cache regions, by region name, for example
+         * com.example.domain.Entity or com.example.domain.Entity.collection.
+         */
+        private final Map<String, NearCache> nearCaches = new LinkedHashMap<>();
+
+        private final QueryResults queryResults = new QueryResults();
+
+        private final Discovery discovery = new Discovery();
+
+        public Map<String, NearCache> getNearCaches() {
+            return nearCaches;
+        }
+
+        public QueryResults getQueryResults() {
+            return queryResults;
+        }
+
+        public Discovery getDiscovery() {
+            return discovery;
+        }
+
+        public static class Discovery {
+
+            /**
+             * Delay before the first lookup of the members registered in the discovery service after the startup,
+             * to find the clusters formed by the nodes started at the same time.
+             */
+            private int initialDelaySeconds = 30;
+
+            /**
+             * Interval between the lookups of the members registered in the discovery service. The clusters found
+             * are merged into this one.
+             */
+            private int intervalSeconds = 30;
+
+            public int getInitialDelaySeconds() {
+                return initialDelaySeconds;
+            }
+
+            public void setInitialDelaySeconds(int initialDelaySeconds) {
+                this.initialDelaySeconds = initialDelaySeconds;
+            }
+
+            public int getIntervalSeconds() {
+                return intervalSeconds;
+            }
+
+            public void setIntervalSeconds(int intervalSeconds) {
+                this.intervalSeconds = intervalSeconds;
+            }
+        }
+
+        public static class QueryResults {
+
+            /**
+             * Maximum number of cached query result pages held by each node.
+             */
+            private int maxSize = 10000;
+
+            private int timeToLiveSeconds = 60;
+
+            public int getMaxSize() {
+                return maxSize;
+            }
+
+            public void setMaxSize(int maxSize) {
+                this.maxSize = maxSize;
+            }
+
+            public int getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(int timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+        }
+
+        public static class NearCache {
+
+            private boolean enabled = true;
+
+            /**
+             * Maximum number of entries held by each node.
+             */
+            private int maxSize = 10000;
+
+            private EvictionPolicy evictionPolicy = EvictionPolicy.LFU;
+
+            /**
+             * OBJECT keeps the deserialized entries, which saves the deserialization of each read.
+             */
+            private InMemoryFormat inMemoryFormat = InMemoryFormat.OBJECT;
+
+            /**
+             * Whether the entries are removed when they are updated on any node of the cluster.
+             */
+            private boolean invalidateOnChange = true;
+
+            /**
+             * Maximum time an entry is kept, 0 keeping it until it is evicted or invalidated.
+             */
+            private int timeToLiveSeconds = 0;
+
+            /**
+             * Maximum time an entry is kept without being read, 0 keeping it until it is evicted or invalidated.
+             */
+            private int maxIdleSeconds = 0;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getMaxSize() {
+                return maxSize;
+            }
+
+            public void setMaxSize(int maxSize) {
+                this.maxSize = maxSize;
+            }
+
+            public EvictionPolicy getEvictionPolicy() {
+                return evictionPolicy;
+            }
+
+            public void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+                this.evictionPolicy = evictionPolicy;
+            }
+
+            public InMemoryFormat getInMemoryFormat() {
+                return inMemoryFormat;
+            }
+
+            public void setInMemoryFormat(InMemoryFormat inMemoryFormat) {
+                this.inMemoryFormat = inMemoryFormat;
+            }
+
+            public boolean isInvalidateOnChange() {
+                return invalidateOnChange;
+            }
+
+            public void setInvalidateOnChange(boolean invalidateOnChange) {
+                this.invalidateOnChange = invalidateOnChange;
+            }
+
+            public int getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(int timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public int getMaxIdleSeconds() {
+                return maxIdleSeconds;
+            }
+
+            public void setMaxIdleSeconds(int maxIdleSeconds) {
+                this.maxIdleSeconds = maxIdleSeconds;
+            }
+        }
+    }
+
+    public static class RestClient {
+
+        /**
+         * Maximum time to open a connection to another service.
+         */
+        private int connectTimeoutInMillis = 1000;
+
+        /**
+         * Maximum time to wait for data from another service, once connected.
+         */
+        private int readTimeoutInMillis = 5000;
+
+        public int getConnectTimeoutInMillis() {
+            return connectTimeoutInMillis;
+        }
+
+        public void setConnectTimeoutInMillis(int connectTimeoutInMillis) {
+            this.connectTimeoutInMillis = connectTimeoutInMillis;
+        }
+
+        public int getReadTimeoutInMillis() {
+            return readTimeoutInMillis;
+        }
+
+        public void setReadTimeoutInMillis(int readTimeoutInMillis) {
+            this.readTimeoutInMillis = readTimeoutInMillis;
+        }
+    }
 }
@@ -4,11 +4,20 @@ import io.github.jhipster.config.JHipsterConstants;
 import io.github.jhipster.config.JHipsterProperties;
 
 import com.hazelcast.config.Config;
+import com.hazelcast.config.DiscoveryStrategyConfig;
+import com.hazelcast.config.JoinConfig;
 import com.hazelcast.core.HazelcastInstance;
 import com.hazelcast.core.Hazelcast;
 import com.hazelcast.config.MapConfig;
 import com.hazelcast.config.EvictionPolicy;
 import com.hazelcast.config.MaxSizeConfig;
+import com.hazelcast.config.NearCacheConfig;
+import com.blog.app.service.CarQueryResultCache;
+import com.hazelcast.core.IMap;
+import com.hazelcast.monitor.NearCacheStats;
+import com.hazelcast.spi.discovery.DiscoveryStrategyFactory;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,6 +35,8 @@ import org.springframework.context.annotation.*;
 import org.springframework.core.env.Environment;
 
 import javax.annotation.PreDestroy;
+import java.net.InetSocketAddress;
+import java.util.function.Function;
 
 @Configuration
 @EnableCaching
@@ -68,11 +79,13 @@ public class CacheConfiguration {
     }
 
     @Bean
-    public HazelcastInstance hazelcastInstance(JHipsterProperties jHipsterProperties) {
+    public HazelcastInstance hazelcastInstance(JHipsterProperties jHipsterProperties,
+            ApplicationProperties applicationProperties, MetricRegistry metricRegistry) {
         log.debug("Configuring Hazelcast");
         HazelcastInstance hazelCastInstance = Hazelcast.getHazelcastInstanceByName("blogApp");
         if (hazelCastInstance != null) {
             log.debug("Hazelcast already initialized");
+            registerNearCacheMetrics(hazelCastInstance, applicationProperties, metricRegistry);
             return hazelCastInstance;
         }
         Config config = new Config();
@@ -85,31 +98,51 @@ public class CacheConfiguration {
             String serviceId = registration.getServiceId();
             log.debug("Configuring Hazelcast clustering for instanceId: {}", serviceId);
             // In development, everything goes through 127.0.0.1, with a different port
+            Function<ServiceInstance, InetSocketAddress> memberAddress;
             if (env.acceptsProfiles(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT)) {
                 log.debug("Application is running with the \"dev\" profile, Hazelcast " +
                           "cluster will only work with localhost instances");
 
                 System.setProperty("hazelcast.local.localAddress", "127.0.0.1");
                 config.getNetworkConfig().setPort(serverProperties.getPort() + 5701);
-                config.getNetworkConfig().getJoin().getTcpIpConfig().setEnabled(true);
-                for (ServiceInstance instance : discoveryClient.getInstances(serviceId)) {
-                    String clusterMember = "127.0.0.1:" + (instance.getPort() + 5701);
-                    log.debug("Adding Hazelcast (dev) cluster member " + clusterMember);
-                    config.getNetworkConfig().getJoin().getTcpIpConfig().addMember(clusterMember);
-                }
+                memberAddress = instance -> new InetSocketAddress("127.0.0.1", instance.getPort() + 5701);
             } else { // Production configuration, one host per instance all using port 5701
                 config.getNetworkConfig().setPort(5701);
-                config.getNetworkConfig().getJoin().getTcpIpConfig().setEnabled(true);
-                for (ServiceInstance instance : discoveryClient.getInstances(serviceId)) {
-                    String clusterMember = instance.getHost() + ":5701";
-                    log.debug("Adding Hazelcast (prod) cluster member " + clusterMember);
-                    config.getNetworkConfig().getJoin().getTcpIpConfig().addMember(clusterMember);
-                }
+                memberAddress = instance -> new InetSocketAddress(instance.getHost(), 5701);
             }
+            initializeDiscovery(config, new DiscoveryClientDiscoveryStrategy.Factory(discoveryClient, serviceId,
+                memberAddress), applicationProperties.getCache().getDiscovery());
         }
         config.getMapConfigs().put("default", initializeDefaultMapConfig());
         config.getMapConfigs().put("com.blog.app.domain.*", initializeDomainMapConfig(jHipsterProperties));
-        return Hazelcast.newHazelcastInstance(config);
+        config.getMapConfigs().put(CarQueryResultCache.CACHE_NAME,
+            initializeQueryResultsMapConfig(applicationProperties.getCache().getQueryResults()));
+        applicationProperties.getCache().getNearCaches().forEach((region, nearCache) -> {
+            if (nearCache.isEnabled()) {
+                config.getMapConfigs().put(region, initializeDomainMapConfig(jHipsterProperties)
+                    .setNearCacheConfig(initializeNearCacheConfig(nearCache)));
+            }
+        });
+        hazelCastInstance = Hazelcast.newHazelcastInstance(config);
+        registerNearCacheMetrics(hazelCastInstance, applicationProperties, metricRegistry);
+        return hazelCastInstance;
+    }
+
+    /**
+     * Find the members in the discovery service, instead of a member list built once at startup. The members are
+     * looked up again at each interval, and the clusters found are merged into this one.
+     */
+    static void initializeDiscovery(Config config, DiscoveryStrategyFactory discoveryStrategyFactory,
+            ApplicationProperties.Cache.Discovery discovery) {
+        config.setProperty("hazelcast.discovery.enabled", "true");
+        config.setProperty("hazelcast.merge.first.run.delay.seconds",
+            String.valueOf(discovery.getInitialDelaySeconds()));
+        config.setProperty("hazelcast.merge.next.run.delay.seconds", String.valueOf(discovery.getIntervalSeconds()));
+        JoinConfig joinConfig = config.getNetworkConfig().getJoin();
+        joinConfig.getMulticastConfig().setEnabled(false);
+        joinConfig.getTcpIpConfig().setEnabled(false);
+        joinConfig.getDiscoveryConfig().addDiscoveryStrategyConfig(
+            new DiscoveryStrategyConfig(discoveryStrategyFactory));
     }
 
     private MapConfig initializeDefaultMapConfig() {
@@ -147,4 +180,57 @@ public class CacheConfiguration {
         mapConfig.setTimeToLiveSeconds(jHipsterProperties.getCache().getHazelcast().getTimeToLiveSeconds());
         return mapConfig;
     }
+
+    private MapConfig initializeQueryResultsMapConfig(ApplicationProperties.Cache.QueryResults queryResults) {
+        MapConfig mapConfig = new MapConfig();
+        // The query results can be computed again, they are not worth a backup
+        mapConfig.setBackupCount(0);
+        mapConfig.setTimeToLiveSeconds(queryResults.getTimeToLiveSeconds());
+        mapConfig.setEvictionPolicy(EvictionPolicy.LRU);
+        mapConfig.setMaxSizeConfig(new MaxSizeConfig(queryResults.getMaxSize(), MaxSizeConfig.MaxSizePolicy.PER_NODE));
+        return mapConfig;
+    }
+
+    /**
+     * Near cache of a second level cache region, so that reading an entity doesn't need a call to the node owning
+     * its partition. Hibernate only stores immutable disassembled entities in its regions, so the OBJECT format can
+     * share the cached instances between the reads without copying them.
+     */
+    static NearCacheConfig initializeNearCacheConfig(ApplicationProperties.Cache.NearCache nearCache) {
+        NearCacheConfig nearCacheConfig = new NearCacheConfig();
+        nearCacheConfig.setInMemoryFormat(nearCache.getInMemoryFormat());
+        nearCacheConfig.setInvalidateOnChange(nearCache.isInvalidateOnChange());
+        nearCacheConfig.setMaxSize(nearCache.getMaxSize());
+        nearCacheConfig.setEvictionPolicy(nearCache.getEvictionPolicy().name());
+        nearCacheConfig.setTimeToLiveSeconds(nearCache.getTimeToLiveSeconds());
+        nearCacheConfig.setMaxIdleSeconds(nearCache.getMaxIdleSeconds());
+        // The entries owned by this node are also cached, to save their deserialization
+        nearCacheConfig.setCacheLocalEntries(true);
+        return nearCacheConfig;
+    }
+
+    private void registerNearCacheMetrics(HazelcastInstance hazelcastInstance,
+            ApplicationProperties applicationProperties, MetricRegistry metricRegistry) {
+        applicationProperties.getCache().getNearCaches().forEach((region, nearCache) -> {
+            if (!nearCache.isEnabled()) {
+                return;
+            }
+            IMap<Object, Object> map = hazelcastInstance.getMap(region);
+            registerNearCacheGauge(metricRegistry, region, "hits", () -> getNearCacheStats(map).getHits());
+            registerNearCacheGauge(metricRegistry, region, "misses", () -> getNearCacheStats(map).getMisses());
+            registerNearCacheGauge(metricRegistry, region, "entries",
+                () -> getNearCacheStats(map).getOwnedEntryCount());
+        });
+    }
+
+    private static NearCacheStats getNearCacheStats(IMap<Object, Object> map) {
+        return map.getLocalMapStats().getNearCacheStats();
+    }
+
+    private static void registerNearCacheGauge(MetricRegistry metricRegistry, String region, String metric,
+            Gauge<Long> gauge) {
+        String name = MetricRegistry.name("hazelcast.near-cache", region, metric);
+        metricRegistry.remove(name);
+        metricRegistry.register(name, gauge);
+    }
 }
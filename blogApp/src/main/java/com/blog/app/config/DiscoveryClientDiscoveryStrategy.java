@@ -0,0 +1,101 @@
+package com.blog.app.config;
+
+import com.hazelcast.config.properties.PropertyDefinition;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.nio.Address;
+import com.hazelcast.spi.discovery.AbstractDiscoveryStrategy;
+import com.hazelcast.spi.discovery.DiscoveryNode;
+import com.hazelcast.spi.discovery.DiscoveryStrategy;
+import com.hazelcast.spi.discovery.DiscoveryStrategyFactory;
+import com.hazelcast.spi.discovery.SimpleDiscoveryNode;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Hazelcast discovery strategy finding the cluster members in the Spring Cloud discovery service.
+ * <p>
+ * The instances of the service are looked up every time Hazelcast searches for members: when the node joins the
+ * cluster, and then periodically to merge the clusters formed by nodes which did not see each other, for example the
+ * nodes started at the same time during a scale-out.
+ */
+public class DiscoveryClientDiscoveryStrategy extends AbstractDiscoveryStrategy {
+
+    private final DiscoveryClient discoveryClient;
+
+    private final String serviceId;
+
+    private final Function<ServiceInstance, InetSocketAddress> memberAddress;
+
+    public DiscoveryClientDiscoveryStrategy(ILogger logger, Map<String, Comparable> properties,
+            DiscoveryClient discoveryClient, String serviceId,
+            Function<ServiceInstance, InetSocketAddress> memberAddress) {
+        super(logger, properties);
+        this.discoveryClient = discoveryClient;
+        this.serviceId = serviceId;
+        this.memberAddress = memberAddress;
+    }
+
+    @Override
+    public Iterable<DiscoveryNode> discoverNodes() {
+        List<DiscoveryNode> nodes = new ArrayList<>();
+        for (ServiceInstance instance : discoveryClient.getInstances(serviceId)) {
+            InetSocketAddress address = memberAddress.apply(instance);
+            if (address.isUnresolved()) {
+                getLogger().warning("Cannot resolve the Hazelcast member address of " + instance.getUri());
+                continue;
+            }
+            nodes.add(new SimpleDiscoveryNode(new Address(address)));
+        }
+        getLogger().finest("Hazelcast members of " + serviceId + ": " + nodes);
+        return nodes;
+    }
+
+    /**
+     * Factory of the strategy, to set in the discovery configuration of the Hazelcast network.
+     */
+    public static class Factory implements DiscoveryStrategyFactory {
+
+        private final DiscoveryClient discoveryClient;
+
+        private final String serviceId;
+
+        private final Function<ServiceInstance, InetSocketAddress> memberAddress;
+
+        /**
+         * @param discoveryClient the discovery service client
+         * @param serviceId the id of the service, whose instances are the cluster members
+         * @param memberAddress the address of the Hazelcast member of an instance of the service
+         */
+        public Factory(DiscoveryClient discoveryClient, String serviceId,
+                Function<ServiceInstance, InetSocketAddress> memberAddress) {
+            this.discoveryClient = discoveryClient;
+            this.serviceId = serviceId;
+            this.memberAddress = memberAddress;
+        }
+
+        @Override
+        public Class<? extends DiscoveryStrategy> getDiscoveryStrategyType() {
+            return DiscoveryClientDiscoveryStrategy.class;
+        }
+
+        @Override
+        public DiscoveryStrategy newDiscoveryStrategy(DiscoveryNode discoveryNode, ILogger logger,
+                Map<String, Comparable> properties) {
+            return new DiscoveryClientDiscoveryStrategy(logger, properties, discoveryClient, serviceId,
+                memberAddress);
+        }
+
+        @Override
+        public Collection<PropertyDefinition> getConfigurationProperties() {
+            return Collections.emptyList();
+        }
+    }
+}
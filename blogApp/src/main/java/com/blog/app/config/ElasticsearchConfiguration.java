@@ -1,13 +1,26 @@
 package com.blog.app.config;
 
 import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.elasticsearch.client.Client;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.core.ElasticsearchTemplate;
 import org.springframework.data.elasticsearch.core.EntityMapper;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.util.ClassUtils;
 
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -15,9 +28,71 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 @Configuration
 public class ElasticsearchConfiguration {
 
+    private final Logger log = LoggerFactory.getLogger(ElasticsearchConfiguration.class);
+
+    private static final DateTimeFormatter INDEX_VERSION_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmssSSS")
+        .withZone(ZoneOffset.UTC);
+
+    /**
+     * @param indexName the name of the index of an entity, which is the alias of its current version
+     * @param version the creation date of the version
+     * @return the name of the version of the index
+     */
+    public static String getVersionedIndexName(String indexName, Instant version) {
+        return indexName + "_" + INDEX_VERSION_FORMAT.format(version);
+    }
+
+    @Bean
+    public EntityMapper entityMapper(Jackson2ObjectMapperBuilder jackson2ObjectMapperBuilder) {
+        return new CustomEntityMapper(jackson2ObjectMapperBuilder.createXmlMapper(false).build());
+    }
+
     @Bean
-    public ElasticsearchTemplate elasticsearchTemplate(Client client, Jackson2ObjectMapperBuilder jackson2ObjectMapperBuilder) {
-        return new ElasticsearchTemplate(client, new CustomEntityMapper(jackson2ObjectMapperBuilder.createXmlMapper(false).build()));
+    public ElasticsearchTemplate elasticsearchTemplate(Client client, EntityMapper entityMapper) {
+        ElasticsearchTemplate elasticsearchTemplate = new ElasticsearchTemplate(client, entityMapper);
+        createAliasedIndices(elasticsearchTemplate);
+        return elasticsearchTemplate;
+    }
+
+    /**
+     * Create the index of each entity as a first version behind an alias, before the repositories would create it
+     * with the name of the alias, so that rebuilding the index only moves the alias.
+     */
+    private void createAliasedIndices(ElasticsearchTemplate elasticsearchTemplate) {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Document.class));
+        for (BeanDefinition beanDefinition : scanner.findCandidateComponents("com.blog.app.domain")) {
+            createAliasedIndex(elasticsearchTemplate,
+                ClassUtils.resolveClassName(beanDefinition.getBeanClassName(), getClass().getClassLoader()));
+        }
+    }
+
+    private void createAliasedIndex(ElasticsearchTemplate elasticsearchTemplate, Class<?> entityClass) {
+        ElasticsearchPersistentEntity<?> persistentEntity = elasticsearchTemplate.getPersistentEntityFor(entityClass);
+        String alias = persistentEntity.getIndexName();
+        try {
+            if (elasticsearchTemplate.indexExists(alias)) {
+                return;
+            }
+            // The nodes starting together on an empty cluster all create the same first version
+            String indexName = getVersionedIndexName(alias, Instant.EPOCH);
+            Map<String, Object> settings = new HashMap<>();
+            settings.put("index.number_of_shards", persistentEntity.getShards());
+            settings.put("index.number_of_replicas", persistentEntity.getReplicas());
+            settings.put("index.refresh_interval", persistentEntity.getRefreshInterval());
+            try {
+                elasticsearchTemplate.createIndex(indexName, settings);
+            } catch (RuntimeException e) {
+                if (!elasticsearchTemplate.indexExists(indexName)) {
+                    throw e;
+                }
+            }
+            elasticsearchTemplate.getClient().admin().indices().prepareAliases().addAlias(indexName, alias).get();
+            log.info("Created the index {} behind the alias {}", indexName, alias);
+        } catch (RuntimeException e) {
+            // The repositories create the index with the name of the alias instead, it is replaced at its first rebuild
+            log.error("Could not create the index of {}: {}", entityClass.getSimpleName(), e.getMessage());
+        }
     }
 
     public class CustomEntityMapper implements EntityMapper {
@@ -0,0 +1,27 @@
+package com.blog.app.config;
+
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Configuration of the REST clients used to call the other services, resolved through the service registry.
+ * <p>
+ * The timeouts are infinite by default: a service accepting the connection but never answering would hold the
+ * calling thread forever, so they are bounded by the application.rest-client properties.
+ */
+@Configuration
+public class RestTemplateConfiguration {
+
+    @Bean
+    @LoadBalanced
+    public RestTemplate loadBalancedRestTemplate(ApplicationProperties applicationProperties) {
+        ApplicationProperties.RestClient restClient = applicationProperties.getRestClient();
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(restClient.getConnectTimeoutInMillis());
+        requestFactory.setReadTimeout(restClient.getReadTimeoutInMillis());
+        return new RestTemplate(requestFactory);
+    }
+}
@@ -21,7 +21,8 @@ public class Car implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "carSequenceGenerator")
+    @SequenceGenerator(name = "carSequenceGenerator", sequenceName = "car_sequence", allocationSize = 50)
     private Long id;
 
     @Column(name = "make")
@@ -1,6 +1,5 @@
 package com.blog.app.security.jwt;
 
-import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.GenericFilterBean;
@@ -29,9 +28,11 @@ public class JWTFilter extends GenericFilterBean {
         throws IOException, ServletException {
         HttpServletRequest httpServletRequest = (HttpServletRequest) servletRequest;
         String jwt = resolveToken(httpServletRequest);
-        if (StringUtils.hasText(jwt) && this.tokenProvider.validateToken(jwt)) {
-            Authentication authentication = this.tokenProvider.getAuthentication(jwt);
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+        if (StringUtils.hasText(jwt)) {
+            TokenValidationResult result = this.tokenProvider.parseToken(jwt);
+            if (result.isValid()) {
+                SecurityContextHolder.getContext().setAuthentication(result.getAuthentication());
+            }
         }
         filterChain.doFilter(servletRequest, servletResponse);
     }
@@ -0,0 +1,140 @@
+package com.blog.app.security.jwt;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
+import org.springframework.security.core.Authentication;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bounded cache of the {@link Authentication} built from already verified JWT tokens.
+ * <p>
+ * Entries expire together with the token they were built from, so a cached authentication
+ * is never served after the token "exp" claim. Reads take no lock: when a put makes the cache
+ * full, the expired entries are evicted, then the least recently used ones, by a single thread
+ * at a time, down to nine tenths of the capacity so that the eviction is not repeated on every put.
+ */
+class TokenAuthenticationCache {
+
+    private final Map<String, CachedAuthentication> entries = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final int maxEntries;
+
+    private final Meter hits;
+
+    private final Meter misses;
+
+    private final Meter evictions;
+
+    TokenAuthenticationCache(int maxEntries, MetricRegistry metricRegistry) {
+        this.maxEntries = maxEntries;
+        this.hits = metricRegistry.meter(MetricRegistry.name(TokenProvider.class, "cache", "hits"));
+        this.misses = metricRegistry.meter(MetricRegistry.name(TokenProvider.class, "cache", "misses"));
+        this.evictions = metricRegistry.meter(MetricRegistry.name(TokenProvider.class, "cache", "evictions"));
+        String hitRatioName = MetricRegistry.name(TokenProvider.class, "cache", "hit-ratio");
+        metricRegistry.remove(hitRatioName);
+        metricRegistry.register(hitRatioName, new RatioGauge() {
+            @Override
+            protected Ratio getRatio() {
+                return Ratio.of(hits.getCount(), hits.getCount() + misses.getCount());
+            }
+        });
+        String sizeName = MetricRegistry.name(TokenProvider.class, "cache", "size");
+        metricRegistry.remove(sizeName);
+        metricRegistry.register(sizeName, (Gauge<Integer>) this::size);
+    }
+
+    /**
+     * Return the cached authentication for this token, or null if it is unknown or expired.
+     */
+    Authentication get(String token) {
+        if (maxEntries <= 0) {
+            return null;
+        }
+        CachedAuthentication cached = entries.get(token);
+        if (cached != null && cached.isExpired(System.currentTimeMillis())) {
+            if (entries.remove(token, cached)) {
+                evictions.mark();
+            }
+            cached = null;
+        }
+        if (cached == null) {
+            misses.mark();
+            return null;
+        }
+        cached.lastAccessTime = System.nanoTime();
+        hits.mark();
+        return cached.authentication;
+    }
+
+    /**
+     * Cache the authentication built from a verified token, until the token expiration time.
+     */
+    void put(String token, Authentication authentication, long expirationTime) {
+        if (maxEntries <= 0) {
+            return;
+        }
+        entries.put(token, new CachedAuthentication(authentication, expirationTime));
+        if (entries.size() > maxEntries && evicting.compareAndSet(false, true)) {
+            try {
+                evict();
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+
+    private void evict() {
+        long now = System.currentTimeMillis();
+        entries.forEach((token, cached) -> {
+            if (cached.isExpired(now) && entries.remove(token, cached)) {
+                evictions.mark();
+            }
+        });
+        int targetSize = maxEntries - maxEntries / 10;
+        if (entries.size() <= targetSize) {
+            return;
+        }
+        List<Map.Entry<String, CachedAuthentication>> leastRecentlyUsed = new ArrayList<>(entries.entrySet());
+        leastRecentlyUsed.sort(Comparator.comparingLong(entry -> entry.getValue().lastAccessTime));
+        for (Map.Entry<String, CachedAuthentication> entry : leastRecentlyUsed) {
+            if (entries.size() <= targetSize) {
+                break;
+            }
+            if (entries.remove(entry.getKey(), entry.getValue())) {
+                evictions.mark();
+            }
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static class CachedAuthentication {
+
+        private final Authentication authentication;
+
+        private final long expirationTime;
+
+        private volatile long lastAccessTime = System.nanoTime();
+
+        CachedAuthentication(Authentication authentication, long expirationTime) {
+            this.authentication = authentication;
+            this.expirationTime = expirationTime;
+        }
+
+        boolean isExpired(long now) {
+            return expirationTime <= now;
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package com.blog.app.security.jwt;
 
+import com.blog.app.config.ApplicationProperties;
+
 import io.github.jhipster.config.JHipsterProperties;
 
+import java.security.Key;
 import java.util.*;
 import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
+import javax.crypto.spec.SecretKeySpec;
 
+import com.codahale.metrics.MetricRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -14,8 +19,10 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.impl.TextCodec;
 
 @Component
 public class TokenProvider {
@@ -32,8 +39,23 @@ public class TokenProvider {
 
     private final JHipsterProperties jHipsterProperties;
 
-    public TokenProvider(JHipsterProperties jHipsterProperties) {
+    private final TokenAuthenticationCache authenticationCache;
+
+    private final JwkSetKeyProvider jwkSetKeyProvider;
+
+    private final SigningKeyResolver signingKeyResolver = new SigningKeyResolverAdapter() {
+        @Override
+        public Key resolveSigningKey(JwsHeader header, Claims claims) {
+            return resolveVerificationKey(header);
+        }
+    };
+
+    public TokenProvider(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties,
+            MetricRegistry metricRegistry, JwkSetKeyProvider jwkSetKeyProvider) {
         this.jHipsterProperties = jHipsterProperties;
+        this.jwkSetKeyProvider = jwkSetKeyProvider;
+        this.authenticationCache = new TokenAuthenticationCache(
+            applicationProperties.getJwt().getCache().getMaxEntries(), metricRegistry);
     }
 
     @PostConstruct
@@ -68,12 +90,45 @@ public class TokenProvider {
             .compact();
     }
 
+    /**
+     * Tokens signed with an HMAC algorithm are verified with the shared secret, tokens signed by the gateway with
+     * the configured asymmetric algorithm are verified with the published key matching their "kid" header.
+     */
+    private Key resolveVerificationKey(JwsHeader header) {
+        SignatureAlgorithm algorithm = SignatureAlgorithm.forName(header.getAlgorithm());
+        if (algorithm.isHmac()) {
+            if (!StringUtils.hasText(secretKey)) {
+                throw new UnsupportedJwtException("HMAC signed JWT tokens are not accepted without a secret");
+            }
+            return new SecretKeySpec(TextCodec.BASE64.decode(secretKey), algorithm.getJcaName());
+        }
+        if (algorithm != jwkSetKeyProvider.getAlgorithm()) {
+            throw new UnsupportedJwtException("Unexpected JWT signature algorithm " + algorithm);
+        }
+        Key key = jwkSetKeyProvider.getKey(header.getKeyId());
+        if (key == null) {
+            throw new SignatureException("Unknown JWT key id " + header.getKeyId());
+        }
+        return key;
+    }
+
     public Authentication getAuthentication(String token) {
+        Authentication authentication = authenticationCache.get(token);
+        if (authentication != null) {
+            return authentication;
+        }
         Claims claims = Jwts.parser()
-            .setSigningKey(secretKey)
+            .setSigningKeyResolver(signingKeyResolver)
             .parseClaimsJws(token)
             .getBody();
+        return cacheAuthentication(token, claims);
+    }
 
+    /**
+     * Build the authentication from verified claims, and keep it until the token expires so that
+     * following requests with the same token are not parsed again.
+     */
+    private Authentication cacheAuthentication(String token, Claims claims) {
         Collection<? extends GrantedAuthority> authorities =
             Arrays.stream(claims.get(AUTHORITIES_KEY).toString().split(","))
                 .map(SimpleGrantedAuthority::new)
@@ -81,29 +136,56 @@ public class TokenProvider {
 
         User principal = new User(claims.getSubject(), "", authorities);
 
-        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+        Authentication authentication = new UsernamePasswordAuthenticationToken(principal, token, authorities);
+        if (claims.getExpiration() != null) {
+            authenticationCache.put(token, authentication, claims.getExpiration().getTime());
+        }
+        return authentication;
     }
 
     public boolean validateToken(String authToken) {
+        return parseToken(authToken).isValid();
+    }
+
+    /**
+     * Validate the token and build its authentication in a single pass.
+     * <p>
+     * Rejected tokens are reported through the result reason instead of exceptions, so that callers
+     * such as the {@link JWTFilter} do not need to parse the token a second time.
+     *
+     * @param authToken the compact JWT token
+     * @return the validation result, holding the authentication when the token is valid
+     */
+    public TokenValidationResult parseToken(String authToken) {
+        if (!StringUtils.hasText(authToken)) {
+            return reject(TokenValidationResult.Reason.EMPTY, null);
+        }
+        if (StringUtils.countOccurrencesOf(authToken, ".") != 2) {
+            return reject(TokenValidationResult.Reason.MALFORMED, null);
+        }
+        Authentication authentication = authenticationCache.get(authToken);
+        if (authentication != null) {
+            return TokenValidationResult.valid(authentication);
+        }
         try {
-            Jwts.parser().setSigningKey(secretKey).parseClaimsJws(authToken);
-            return true;
+            Claims claims = Jwts.parser().setSigningKeyResolver(signingKeyResolver).parseClaimsJws(authToken).getBody();
+            return TokenValidationResult.valid(cacheAuthentication(authToken, claims));
         } catch (SignatureException e) {
-            log.info("Invalid JWT signature.");
-            log.trace("Invalid JWT signature trace: {}", e);
-        } catch (MalformedJwtException e) {
-            log.info("Invalid JWT token.");
-            log.trace("Invalid JWT token trace: {}", e);
+            return reject(TokenValidationResult.Reason.INVALID_SIGNATURE, e);
+        } catch (MalformedJwtException | IllegalArgumentException e) {
+            return reject(TokenValidationResult.Reason.MALFORMED, e);
         } catch (ExpiredJwtException e) {
-            log.info("Expired JWT token.");
-            log.trace("Expired JWT token trace: {}", e);
+            return reject(TokenValidationResult.Reason.EXPIRED, e);
         } catch (UnsupportedJwtException e) {
-            log.info("Unsupported JWT token.");
-            log.trace("Unsupported JWT token trace: {}", e);
-        } catch (IllegalArgumentException e) {
-            log.info("JWT token compact of handler are invalid.");
-            log.trace("JWT token compact of handler are invalid trace: {}", e);
+            return reject(TokenValidationResult.Reason.UNSUPPORTED, e);
+        }
+    }
+
+    private TokenValidationResult reject(TokenValidationResult.Reason reason, Exception e) {
+        log.debug("Rejected JWT token: {}", reason);
+        if (e != null) {
+            log.trace("Rejected JWT token trace: {}", e);
         }
-        return false;
+        return TokenValidationResult.invalid(reason);
     }
 }
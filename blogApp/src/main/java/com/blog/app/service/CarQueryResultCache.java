@@ -0,0 +1,136 @@
+package com.blog.app.service;
+
+import com.blog.app.domain.Car;
+import com.blog.app.repository.CarRepository;
+import com.blog.app.service.dto.CarCriteria;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IAtomicLong;
+import com.hazelcast.core.IMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Cache of the pages of cars matching a {@link CarCriteria}, shared by the cluster in a Hazelcast map.
+ * <p>
+ * Only the ids of the cars are cached, the cars themselves are read from the second level cache. Every Car write
+ * increments a cluster-wide generation, which is part of the cache keys: the pages cached before the write are not
+ * read anymore, and are evicted by their time to live or by the size limit of the map. The generation is incremented
+ * once the write is committed, so that a page read meanwhile is cached under the previous generation.
+ */
+@Service
+public class CarQueryResultCache {
+
+    public static final String CACHE_NAME = "car-query-results";
+
+    private final Logger log = LoggerFactory.getLogger(CarQueryResultCache.class);
+
+    private final CarRepository carRepository;
+
+    private final IMap<String, CachedPage> pages;
+
+    private final IAtomicLong generation;
+
+    private final Meter hits;
+
+    private final Meter misses;
+
+    public CarQueryResultCache(CarRepository carRepository, HazelcastInstance hazelcastInstance,
+            MetricRegistry metricRegistry) {
+        this.carRepository = carRepository;
+        this.pages = hazelcastInstance.getMap(CACHE_NAME);
+        this.generation = hazelcastInstance.getAtomicLong(CACHE_NAME + "-generation");
+        this.hits = metricRegistry.meter(MetricRegistry.name(CarQueryResultCache.class, "hits"));
+        this.misses = metricRegistry.meter(MetricRegistry.name(CarQueryResultCache.class, "misses"));
+    }
+
+    /**
+     * Get a page of cars from the cache, or from the query if it is not cached yet.
+     *
+     * @param criteria the filters of the query
+     * @param page the page of the query
+     * @param query the query, run on a cache miss
+     * @return the page of cars
+     */
+    public Page<Car> get(CarCriteria criteria, Pageable page, Supplier<Page<Car>> query) {
+        String key = generation.get() + ":" + criteria + ":" + page.getPageNumber() + ":" + page.getPageSize() + ":" +
+            page.getSort();
+        CachedPage cachedPage = pages.get(key);
+        if (cachedPage != null) {
+            List<Car> cars = new ArrayList<>(cachedPage.ids.size());
+            for (Long id : cachedPage.ids) {
+                Car car = carRepository.findOne(id);
+                if (car == null) {
+                    // Deleted by a transaction which has not incremented the generation yet
+                    break;
+                }
+                cars.add(car);
+            }
+            if (cars.size() == cachedPage.ids.size()) {
+                hits.mark();
+                return new PageImpl<>(cars, page, cachedPage.total);
+            }
+        }
+        misses.mark();
+        Page<Car> result = query.get();
+        pages.set(key, new CachedPage(result.getContent().stream().map(Car::getId).collect(Collectors.toList()),
+            result.getTotalElements()));
+        return result;
+    }
+
+    /**
+     * Invalidate the cached pages once the current transaction is committed, or at once if there is none.
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    generation.incrementAndGet();
+                }
+            });
+        } else {
+            generation.incrementAndGet();
+        }
+    }
+
+    /**
+     * Remove all the cached pages at once.
+     */
+    public void clear() {
+        log.debug("Clearing the cached Car query results");
+        generation.incrementAndGet();
+        pages.clear();
+    }
+
+    /**
+     * The ids of the cars of a page, and the total number of matching cars.
+     */
+    private static class CachedPage implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Long> ids;
+
+        private final long total;
+
+        CachedPage(List<Long> ids, long total) {
+            this.ids = ids;
+            this.total = total;
+        }
+    }
+}
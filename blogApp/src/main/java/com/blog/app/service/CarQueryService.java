@@ -1,23 +1,41 @@
 package com.blog.app.service;
 
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
+import javax.persistence.EntityManager;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.query.Query;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specifications;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import io.github.jhipster.service.QueryService;
 
+import com.blog.app.config.ApplicationProperties;
 import com.blog.app.domain.Car;
 import com.blog.app.domain.*; // for static metamodels
 import com.blog.app.repository.CarRepository;
 import com.blog.app.repository.search.CarSearchRepository;
 import com.blog.app.service.dto.CarCriteria;
+import com.blog.app.service.dto.CarCursor;
 
 
 /**
@@ -36,9 +54,21 @@ public class CarQueryService extends QueryService<Car> {
     private final CarRepository carRepository;
 
     private final CarSearchRepository carSearchRepository;
-    public CarQueryService(CarRepository carRepository, CarSearchRepository carSearchRepository) {
+
+    private final EntityManager entityManager;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final CarQueryResultCache carQueryResultCache;
+
+    public CarQueryService(CarRepository carRepository, CarSearchRepository carSearchRepository,
+            EntityManager entityManager, ApplicationProperties applicationProperties,
+            CarQueryResultCache carQueryResultCache) {
         this.carRepository = carRepository;
         this.carSearchRepository = carSearchRepository;
+        this.entityManager = entityManager;
+        this.applicationProperties = applicationProperties;
+        this.carQueryResultCache = carQueryResultCache;
     }
 
     /**
@@ -54,7 +84,8 @@ public class CarQueryService extends QueryService<Car> {
     }
 
     /**
-     * Return a {@link Page} of {%link Car} which matches the criteria from the database
+     * Return a {@link Page} of {%link Car} which matches the criteria from the database.
+     * The ids of the page are cached by the {@link CarQueryResultCache} until the next Car write.
      * @param criteria The object which holds all the filters, which the entities should match.
      * @param page The page, which should be returned.
      * @return the matching entities.
@@ -62,8 +93,217 @@ public class CarQueryService extends QueryService<Car> {
     @Transactional(readOnly = true)
     public Page<Car> findByCriteria(CarCriteria criteria, Pageable page) {
         log.debug("find by criteria : {}, page: {}", criteria, page);
-        final Specifications<Car> specification = createSpecification(criteria);
-        return carRepository.findAll(specification, page);
+        return carQueryResultCache.get(criteria, page, () -> {
+            final Specifications<Car> specification = createSpecification(criteria);
+            return carRepository.findAll(specification, page);
+        });
+    }
+
+    /**
+     * Stream the {%link Car} which match the criteria from the database, sorted by id, to the consumer.
+     * The rows are read with a forward-only cursor, and each car is detached once consumed, so that the memory used
+     * does not depend on the number of matching cars. The export stops as soon as the consumer throws an exception.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param consumer The consumer of the matching entities.
+     * @return the number of exported entities.
+     */
+    @Transactional(readOnly = true)
+    public long exportByCriteria(CarCriteria criteria, Consumer<Car> consumer) {
+        log.debug("export by criteria : {}", criteria);
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Car> query = cb.createQuery(Car.class);
+        Root<Car> root = query.from(Car.class);
+        Predicate filters = createSpecification(criteria).toPredicate(root, query, cb);
+        if (filters != null) {
+            query.where(filters);
+        }
+        query.select(root).orderBy(cb.asc(root.get(Car_.id)));
+
+        ScrollableResults results = entityManager.createQuery(query)
+            .unwrap(Query.class)
+            .setFetchSize(applicationProperties.getExport().getFetchSize())
+            .setReadOnly(true)
+            .setCacheMode(CacheMode.IGNORE)
+            .scroll(ScrollMode.FORWARD_ONLY);
+        long count = 0;
+        try {
+            while (results.next()) {
+                Car car = (Car) results.get(0);
+                consumer.accept(car);
+                entityManager.detach(car);
+                count++;
+            }
+        } finally {
+            results.close();
+        }
+        log.debug("exported {} cars", count);
+        return count;
+    }
+
+    /**
+     * Return a {@link Slice} of {%link Car} which matches the criteria from the database, using keyset pagination:
+     * the slice starts right after the cursor, so no row of the previous pages is scanned, and no count query is run.
+     * The cars are sorted by the sort of the page, then by id. Null makes and models are sorted as empty strings.
+     * @param criteria The object which holds all the filters, which the entities should match.
+     * @param cursor The position of the last car of the previous slice, or null for the first slice.
+     * @param page The size and sort of the slice, its page number is ignored.
+     * @return the matching entities.
+     * @throws IllegalArgumentException if the sort is not supported or does not match the cursor
+     */
+    @Transactional(readOnly = true)
+    public Slice<Car> findByCriteria(CarCriteria criteria, CarCursor cursor, Pageable page) {
+        log.debug("find by criteria : {}, cursor: {}, page: {}", criteria, cursor, page);
+        List<Sort.Order> orders = getKeysetOrders(page.getSort());
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Car> query = cb.createQuery(Car.class);
+        Root<Car> root = query.from(Car.class);
+        List<Expression<?>> expressions = new ArrayList<>();
+        List<javax.persistence.criteria.Order> orderBy = new ArrayList<>();
+        for (Sort.Order order : orders) {
+            Expression<?> expression = getKeysetExpression(root, order.getProperty());
+            expressions.add(expression);
+            orderBy.add(order.isAscending() ? cb.asc(expression) : cb.desc(expression));
+        }
+
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate filters = createSpecification(criteria).toPredicate(root, query, cb);
+        if (filters != null) {
+            predicates.add(filters);
+        }
+        if (cursor != null) {
+            predicates.add(createKeysetPredicate(cb, orders, expressions, cursor));
+        }
+        query.select(root).where(predicates.toArray(new Predicate[predicates.size()])).orderBy(orderBy);
+
+        // One more car is fetched to know if there is a next slice
+        List<Car> cars = entityManager.createQuery(query)
+            .setMaxResults(page.getPageSize() + 1)
+            .getResultList();
+        boolean hasNext = cars.size() > page.getPageSize();
+        if (hasNext) {
+            cars = new ArrayList<>(cars.subList(0, page.getPageSize()));
+        }
+        return new SliceImpl<>(cars, page, hasNext);
+    }
+
+    /**
+     * Return the cursor of the slice following this one.
+     * @param slice A slice returned by {@link #findByCriteria(CarCriteria, CarCursor, Pageable)}.
+     * @return the cursor of the last car of the slice, or null if this is the last slice.
+     */
+    public CarCursor getNextCursor(Slice<Car> slice) {
+        if (!slice.hasNext() || !slice.hasContent()) {
+            return null;
+        }
+        Car last = slice.getContent().get(slice.getNumberOfElements() - 1);
+        List<Object> values = new ArrayList<>();
+        for (Sort.Order order : getKeysetOrders(slice.getSort())) {
+            values.add(getKeysetValue(last, order.getProperty()));
+        }
+        return new CarCursor(values);
+    }
+
+    /**
+     * The orders of the page, up to the id, which is added if missing so that the cars have a total order.
+     */
+    private List<Sort.Order> getKeysetOrders(Sort sort) {
+        List<Sort.Order> orders = new ArrayList<>();
+        if (sort != null) {
+            for (Sort.Order order : sort) {
+                orders.add(order);
+                if (Car_.id.getName().equals(order.getProperty())) {
+                    return orders;
+                }
+            }
+        }
+        orders.add(new Sort.Order(Sort.Direction.ASC, Car_.id.getName()));
+        return orders;
+    }
+
+    /**
+     * The raw columns, so that the (column, id) indexes serve both the keyset predicate and the order.
+     */
+    private Expression<?> getKeysetExpression(Root<Car> root, String property) {
+        switch (property) {
+            case "id":
+                return root.get(Car_.id);
+            case "make":
+                return root.get(Car_.make);
+            case "model":
+                return root.get(Car_.model);
+            case "price":
+                return root.get(Car_.price);
+            default:
+                throw new IllegalArgumentException("Unsupported sort property for keyset pagination: " + property);
+        }
+    }
+
+    private Comparable<?> getKeysetValue(Car car, String property) {
+        switch (property) {
+            case "id":
+                return car.getId();
+            case "make":
+                return car.getMake();
+            case "model":
+                return car.getModel();
+            case "price":
+                return car.getPrice();
+            default:
+                throw new IllegalArgumentException("Unsupported sort property for keyset pagination: " + property);
+        }
+    }
+
+    /**
+     * The cars after the cursor in the sort order: (a > a0) or (a = a0 and b > b0) or (a = a0 and b = b0 and id > id0)
+     * <p>
+     * Null makes and models are sorted before the other values in ascending order, and after them in descending
+     * order, as MySQL and H2 do.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Predicate createKeysetPredicate(CriteriaBuilder cb, List<Sort.Order> orders, List<Expression<?>> expressions,
+            CarCursor cursor) {
+        List<Object> values = cursor.getValues();
+        if (values.size() != orders.size()) {
+            throw new IllegalArgumentException("The cursor does not match the sort " + orders);
+        }
+        List<Predicate> alternatives = new ArrayList<>();
+        List<Predicate> equalities = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            Expression expression = expressions.get(i);
+            Comparable value = toKeysetValue(orders.get(i).getProperty(), values.get(i));
+            boolean ascending = orders.get(i).isAscending();
+            Predicate after;
+            if (value == null) {
+                after = ascending ? cb.isNotNull(expression) : null;
+            } else if (ascending) {
+                after = cb.greaterThan(expression, value);
+            } else if (isNullable(orders.get(i).getProperty())) {
+                after = cb.or(cb.lessThan(expression, value), cb.isNull(expression));
+            } else {
+                after = cb.lessThan(expression, value);
+            }
+            if (after != null) {
+                List<Predicate> alternative = new ArrayList<>(equalities);
+                alternative.add(after);
+                alternatives.add(cb.and(alternative.toArray(new Predicate[alternative.size()])));
+            }
+            equalities.add(value == null ? cb.isNull(expression) : cb.equal(expression, value));
+        }
+        return cb.or(alternatives.toArray(new Predicate[alternatives.size()]));
+    }
+
+    private static boolean isNullable(String property) {
+        return "make".equals(property) || "model".equals(property);
+    }
+
+    private Comparable<?> toKeysetValue(String property, Object value) {
+        if (("id".equals(property) || "price".equals(property)) && value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (isNullable(property) && (value == null || value instanceof String)) {
+            return (String) value;
+        }
+        throw new IllegalArgumentException("Invalid cursor value for " + property + ": " + value);
     }
 
     /**
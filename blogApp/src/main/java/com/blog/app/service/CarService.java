@@ -1,9 +1,14 @@
 package com.blog.app.service;
 
 import com.blog.app.domain.Car;
+import com.blog.app.service.dto.CarBulkOperation;
+import com.blog.app.service.dto.CarBulkResult;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Iterator;
+import java.util.List;
+
 /**
  * Service Interface for managing Car.
  */
@@ -17,6 +22,15 @@ public interface CarService {
      */
     Car save(Car car);
 
+    /**
+     * Save and delete cars in bulk: the operations are applied by batches, each in its own transaction and indexed
+     * with one Elasticsearch bulk request. A failed operation does not prevent the others from being applied.
+     *
+     * @param operations the operations, which are read as they are applied
+     * @return the result of each operation, in the same order
+     */
+    List<CarBulkResult> bulk(Iterator<CarBulkOperation> operations);
+
     /**
      *  Get all the cars.
      *
@@ -0,0 +1,55 @@
+package com.blog.app.service.dto;
+
+import com.blog.app.domain.Car;
+
+import java.io.Serializable;
+
+/**
+ * An item of a Car bulk request: a car to create or update, or the id of a car to delete.
+ * <p>
+ * For example <code>{"action": "DELETE", "car": {"id": 1001}}</code>. The action is SAVE when omitted.
+ */
+public class CarBulkOperation implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Action {
+        SAVE, DELETE
+    }
+
+    private Action action = Action.SAVE;
+
+    private Car car;
+
+    public CarBulkOperation() {
+    }
+
+    public CarBulkOperation(Action action, Car car) {
+        this.action = action;
+        this.car = car;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public void setAction(Action action) {
+        this.action = action;
+    }
+
+    public Car getCar() {
+        return car;
+    }
+
+    public void setCar(Car car) {
+        this.car = car;
+    }
+
+    @Override
+    public String toString() {
+        return "CarBulkOperation{" +
+            "action=" + action +
+            ", car=" + car +
+            "}";
+    }
+}
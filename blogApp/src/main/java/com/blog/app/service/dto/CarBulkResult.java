@@ -0,0 +1,81 @@
+package com.blog.app.service.dto;
+
+import com.blog.app.service.dto.CarBulkOperation.Action;
+
+import java.io.Serializable;
+
+/**
+ * The outcome of an item of a Car bulk request, with the HTTP status the item would have had if sent alone.
+ */
+public class CarBulkResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int index;
+
+    private final Action action;
+
+    private Long id;
+
+    private int status;
+
+    private String error;
+
+    public CarBulkResult(int index, Action action, Long id) {
+        this.index = index;
+        this.action = action;
+        this.id = id;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public CarBulkResult succeeded(int status, Long id) {
+        this.status = status;
+        this.id = id;
+        this.error = null;
+        return this;
+    }
+
+    public CarBulkResult failed(int status, String error) {
+        this.status = status;
+        this.error = error;
+        return this;
+    }
+
+    public boolean isSucceeded() {
+        return status >= 200 && status < 300;
+    }
+
+    @Override
+    public String toString() {
+        return "CarBulkResult{" +
+            "index=" + index +
+            ", action=" + action +
+            ", id=" + id +
+            ", status=" + status +
+            (error != null ? ", error='" + error + "'" : "") +
+            "}";
+    }
+}
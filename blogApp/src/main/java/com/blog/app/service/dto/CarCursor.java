@@ -0,0 +1,69 @@
+package com.blog.app.service.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Position of a Car in a sorted list of cars, used for keyset pagination: the next page starts right after this
+ * position, instead of skipping the rows of the previous pages.
+ * <p>
+ * The cursor holds the values of the sort columns of the last car of a page, followed by its id which breaks ties.
+ * It is sent to clients as an opaque Base64 URL-safe string.
+ */
+public final class CarCursor {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final List<Object> values;
+
+    public CarCursor(List<Object> values) {
+        this.values = Collections.unmodifiableList(new ArrayList<>(values));
+    }
+
+    /**
+     * @param id the id of the last car of the previous page
+     * @return the cursor of cars sorted by id only
+     */
+    public static CarCursor afterId(Long id) {
+        return new CarCursor(Collections.singletonList(id));
+    }
+
+    /**
+     * @param cursor an encoded cursor
+     * @return the decoded cursor
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public static CarCursor decode(String cursor) {
+        try {
+            Object[] values = objectMapper.readValue(Base64.getUrlDecoder().decode(cursor), Object[].class);
+            return new CarCursor(Arrays.asList(values));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed cursor " + cursor, e);
+        }
+    }
+
+    public String encode() {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(objectMapper.writeValueAsBytes(values));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the values of the sort columns, the last one being the id
+     */
+    public List<Object> getValues() {
+        return values;
+    }
+
+    @Override
+    public String toString() {
+        return "CarCursor{" +
+            "values=" + values +
+            "}";
+    }
+}
@@ -1,16 +1,32 @@
 package com.blog.app.service.impl;
 
+import com.blog.app.config.ApplicationProperties;
 import com.blog.app.service.CarService;
 import com.blog.app.domain.Car;
 import com.blog.app.repository.CarRepository;
 import com.blog.app.repository.search.CarSearchRepository;
+import com.blog.app.service.CarQueryResultCache;
+import com.blog.app.service.SearchIndexingService;
+import com.blog.app.service.dto.CarBulkOperation;
+import com.blog.app.service.dto.CarBulkResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import static org.elasticsearch.index.query.QueryBuilders.*;
 
@@ -26,9 +42,27 @@ public class CarServiceImpl implements CarService{
     private final CarRepository carRepository;
 
     private final CarSearchRepository carSearchRepository;
-    public CarServiceImpl(CarRepository carRepository, CarSearchRepository carSearchRepository) {
+
+    private final SearchIndexingService searchIndexingService;
+
+    private final CarQueryResultCache carQueryResultCache;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Validator validator;
+
+    private final ApplicationProperties applicationProperties;
+
+    public CarServiceImpl(CarRepository carRepository, CarSearchRepository carSearchRepository,
+            SearchIndexingService searchIndexingService, PlatformTransactionManager transactionManager,
+            Validator validator, ApplicationProperties applicationProperties, CarQueryResultCache carQueryResultCache) {
         this.carRepository = carRepository;
         this.carSearchRepository = carSearchRepository;
+        this.searchIndexingService = searchIndexingService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.validator = validator;
+        this.applicationProperties = applicationProperties;
+        this.carQueryResultCache = carQueryResultCache;
     }
 
     /**
@@ -41,10 +75,168 @@ public class CarServiceImpl implements CarService{
     public Car save(Car car) {
         log.debug("Request to save Car : {}", car);
         Car result = carRepository.save(car);
-        carSearchRepository.save(result);
+        searchIndexingService.scheduleIndexing(Car.class, result.getId());
+        carQueryResultCache.invalidate();
         return result;
     }
 
+    /**
+     * Save and delete cars in bulk.
+     * <p>
+     * Each batch is written in its own transaction, with JDBC batches. If the transaction fails, its operations are
+     * retried one by one so that only the faulty ones fail. Reading stops at the first malformed operation. The
+     * cars are indexed asynchronously, through the search outbox written in the same transactions.
+     *
+     * @param operations the operations, which are read as they are applied
+     * @return the result of each operation, in the same order
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<CarBulkResult> bulk(Iterator<CarBulkOperation> operations) {
+        int batchSize = applicationProperties.getBulk().getBatchSize();
+        List<CarBulkResult> results = new ArrayList<>();
+        List<BulkItem> batch = new ArrayList<>(batchSize);
+        int index = 0;
+        boolean hasNext = true;
+        while (hasNext) {
+            try {
+                hasNext = operations.hasNext();
+                if (hasNext) {
+                    batch.add(new BulkItem(index++, operations.next()));
+                }
+            } catch (RuntimeException e) {
+                log.debug("Malformed bulk operation {}: {}", index, e.getMessage());
+                hasNext = false;
+                CarBulkResult malformed = new CarBulkResult(index, null, null)
+                    .failed(HttpStatus.BAD_REQUEST.value(), "Malformed operation: " + e.getMessage());
+                bulkBatch(batch, results);
+                batch.clear();
+                results.add(malformed);
+            }
+            if (batch.size() >= batchSize || (!hasNext && !batch.isEmpty())) {
+                bulkBatch(batch, results);
+                batch.clear();
+            }
+        }
+        log.debug("Processed a bulk of {} Car operations", results.size());
+        return results;
+    }
+
+    private void bulkBatch(List<BulkItem> batch, List<CarBulkResult> results) {
+        List<BulkItem> valid = new ArrayList<>(batch.size());
+        for (BulkItem item : batch) {
+            String error = validate(item.operation);
+            if (error == null) {
+                valid.add(item);
+            } else {
+                item.result.failed(HttpStatus.BAD_REQUEST.value(), error);
+            }
+        }
+        if (valid.isEmpty()) {
+            results.addAll(batch.stream().map(item -> item.result).collect(Collectors.toList()));
+            return;
+        }
+        try {
+            transactionTemplate.execute(status -> apply(valid));
+        } catch (RuntimeException e) {
+            log.debug("Bulk batch failed, retrying its operations one by one: {}", e.getMessage());
+            for (BulkItem item : valid) {
+                try {
+                    transactionTemplate.execute(status -> apply(Collections.singletonList(item)));
+                } catch (RuntimeException itemException) {
+                    item.reset();
+                    item.result.failed(getStatus(itemException).value(), itemException.getMessage());
+                }
+            }
+        }
+        for (BulkItem item : batch) {
+            results.add(item.result);
+        }
+    }
+
+    private String validate(CarBulkOperation operation) {
+        if (operation == null || operation.getAction() == null || operation.getCar() == null) {
+            return "An action and a car are required";
+        }
+        Car car = operation.getCar();
+        if (operation.getAction() == CarBulkOperation.Action.DELETE) {
+            return car.getId() == null ? "The id of the car to delete is required" : null;
+        }
+        Set<ConstraintViolation<Car>> violations = validator.validate(car);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .collect(Collectors.joining(", "));
+    }
+
+    private Void apply(List<BulkItem> items) {
+        Set<Long> ids = new HashSet<>();
+        for (BulkItem item : items) {
+            item.reset();
+            if (item.originalId != null) {
+                ids.add(item.originalId);
+            }
+        }
+        // The updated and deleted cars are loaded with one query, which also checks that they exist
+        Map<Long, Car> existingCars = ids.isEmpty() ? Collections.emptyMap() : carRepository.findAll(ids).stream()
+            .collect(Collectors.toMap(Car::getId, Function.identity()));
+        for (BulkItem item : items) {
+            Car car = item.operation.getCar();
+            if (item.originalId != null && !existingCars.containsKey(item.originalId)) {
+                item.result.failed(HttpStatus.NOT_FOUND.value(), "Car " + item.originalId + " not found");
+            } else if (item.operation.getAction() == CarBulkOperation.Action.DELETE) {
+                carRepository.delete(existingCars.get(item.originalId));
+                searchIndexingService.scheduleIndexing(Car.class, item.originalId);
+                item.result.succeeded(HttpStatus.OK.value(), item.originalId);
+            } else {
+                Car saved = carRepository.save(car);
+                searchIndexingService.scheduleIndexing(Car.class, saved.getId());
+                item.result.succeeded(item.originalId == null ? HttpStatus.CREATED.value() : HttpStatus.OK.value(),
+                    saved.getId());
+            }
+        }
+        carRepository.flush();
+        carQueryResultCache.invalidate();
+        return null;
+    }
+
+    private static HttpStatus getStatus(RuntimeException e) {
+        if (e instanceof DataIntegrityViolationException || e instanceof ConcurrencyFailureException) {
+            return HttpStatus.CONFLICT;
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+
+    /**
+     * An operation of a bulk request, with the state needed to apply it again if its batch failed.
+     */
+    private static class BulkItem {
+
+        private final CarBulkOperation operation;
+
+        private final Long originalId;
+
+        private final CarBulkResult result;
+
+        BulkItem(int index, CarBulkOperation operation) {
+            this.operation = operation;
+            this.originalId = operation == null || operation.getCar() == null ? null : operation.getCar().getId();
+            this.result = new CarBulkResult(index, operation == null ? null : operation.getAction(), originalId);
+        }
+
+        /**
+         * Forget the outcome of a rolled back transaction, including the id assigned to a new car.
+         */
+        void reset() {
+            result.setId(originalId);
+            if (operation != null && operation.getCar() != null) {
+                operation.getCar().setId(originalId);
+            }
+        }
+    }
+
     /**
      *  Get all the cars.
      *
@@ -80,7 +272,8 @@ public class CarServiceImpl implements CarService{
     public void delete(Long id) {
         log.debug("Request to delete Car : {}", id);
         carRepository.delete(id);
-        carSearchRepository.delete(id);
+        searchIndexingService.scheduleIndexing(Car.class, id);
+        carQueryResultCache.invalidate();
     }
 
     /**
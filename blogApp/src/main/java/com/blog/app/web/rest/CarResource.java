@@ -1,24 +1,38 @@
 package com.blog.app.web.rest;
 
 import com.codahale.metrics.annotation.Timed;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.blog.app.domain.Car;
 import com.blog.app.service.CarService;
+import com.blog.app.web.rest.util.CarExportWriter;
 import com.blog.app.web.rest.util.HeaderUtil;
 import com.blog.app.web.rest.util.PaginationUtil;
+import com.blog.app.service.dto.CarBulkOperation;
+import com.blog.app.service.dto.CarBulkResult;
 import com.blog.app.service.dto.CarCriteria;
+import com.blog.app.service.dto.CarCursor;
 import com.blog.app.service.CarQueryService;
+import com.blog.app.web.rest.errors.CustomParameterizedException;
 import io.swagger.annotations.ApiParam;
 import io.github.jhipster.web.util.ResponseUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 
@@ -41,10 +55,12 @@ public class CarResource {
 
     private final CarService carService;
     private final CarQueryService carQueryService;
+    private final ObjectMapper objectMapper;
 
-    public CarResource(CarService carService, CarQueryService carQueryService) {
+    public CarResource(CarService carService, CarQueryService carQueryService, ObjectMapper objectMapper) {
         this.carService = carService;
         this.carQueryService = carQueryService;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -89,22 +105,115 @@ public class CarResource {
             .body(result);
     }
 
+    /**
+     * POST  /cars/_bulk : Create, update and delete cars in bulk.
+     * <p>
+     * The body is either a JSON array or newline-delimited JSON of operations such as
+     * <code>{"action": "SAVE", "car": {...}}</code> or <code>{"action": "DELETE", "car": {"id": 1001}}</code>.
+     * The operations are read and applied as the body is received.
+     *
+     * @param request the request, whose body holds the operations
+     * @return the ResponseEntity with status 200 (OK) and with body the result of each operation, with its own status
+     * @throws IOException if the body can't be read
+     */
+    @PostMapping(value = "/cars/_bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, "application/x-ndjson"})
+    @Timed
+    public ResponseEntity<List<CarBulkResult>> bulkCars(HttpServletRequest request) throws IOException {
+        log.debug("REST request to process a bulk of Cars");
+        try (MappingIterator<CarBulkOperation> operations =
+                 objectMapper.readerFor(CarBulkOperation.class).readValues(request.getInputStream())) {
+            List<CarBulkResult> results = carService.bulk(operations);
+            long failures = results.stream().filter(result -> !result.isSucceeded()).count();
+            return ResponseEntity.ok()
+                .headers(HeaderUtil.createAlert("A bulk of " + results.size() + " car operations was processed, " +
+                    failures + " failed", String.valueOf(results.size())))
+                .body(results);
+        }
+    }
+
     /**
      * GET  /cars : get all the cars.
+     * <p>
+     * When the "afterId" or "after" parameter is set, keyset pagination is used instead of page numbers: the cars
+     * following the given position are returned, without total count, and only a "next" link is generated. Use an
+     * empty "after" parameter to get the first slice, and "afterId" to start after a car when sorting by id.
      *
      * @param pageable the pagination information
      * @param criteria the criterias which the requested entities should match
-     * @return the ResponseEntity with status 200 (OK) and the list of cars in body
+     * @param afterId the id of the last car of the previous slice, when sorting by id
+     * @param after the cursor of the next slice, as generated in the "next" link
+     * @return the ResponseEntity with status 200 (OK) and the list of cars in body,
+     * or with status 400 (Bad Request) if the cursor is not valid for this sort
      */
     @GetMapping("/cars")
     @Timed
-    public ResponseEntity<List<Car>> getAllCars(CarCriteria criteria,@ApiParam Pageable pageable) {
+    public ResponseEntity<List<Car>> getAllCars(CarCriteria criteria,@ApiParam Pageable pageable,
+            @RequestParam(required = false) Long afterId, @RequestParam(required = false) String after) {
+        if (afterId != null || after != null) {
+            return getCarsAfter(criteria, pageable, afterId, after);
+        }
         log.debug("REST request to get Cars by criteria: {}", criteria);
         Page<Car> page = carQueryService.findByCriteria(criteria, pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/api/cars");
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
+    private ResponseEntity<List<Car>> getCarsAfter(CarCriteria criteria, Pageable pageable, Long afterId, String after) {
+        log.debug("REST request to get Cars by criteria: {}, after: {}", criteria, afterId != null ? afterId : after);
+        Slice<Car> slice;
+        try {
+            CarCursor cursor = null;
+            if (afterId != null) {
+                cursor = CarCursor.afterId(afterId);
+            } else if (!after.isEmpty()) {
+                cursor = CarCursor.decode(after);
+            }
+            slice = carQueryService.findByCriteria(criteria, cursor, pageable);
+        } catch (IllegalArgumentException e) {
+            throw new CustomParameterizedException("error.invalidCursor", e.getMessage());
+        }
+        CarCursor nextCursor = carQueryService.getNextCursor(slice);
+        HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(
+            nextCursor == null ? null : nextCursor.encode(), ServletUriComponentsBuilder.fromCurrentRequest());
+        return new ResponseEntity<>(slice.getContent(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /cars/_export : export all the cars matching the criteria.
+     * <p>
+     * The cars are streamed from the database to the response as they are read, so that exports of any size use the
+     * same memory. The export stops when the client disconnects.
+     *
+     * @param criteria the criterias which the requested entities should match
+     * @param format the export format: "ndjson" for one JSON car per line, or "csv"
+     * @param response the response the cars are written to
+     * @throws IOException if the response can't be written, for example when the client disconnected
+     */
+    @GetMapping("/cars/_export")
+    @Timed
+    public void exportCars(CarCriteria criteria, @RequestParam(defaultValue = CarExportWriter.NDJSON) String format,
+            HttpServletResponse response) throws IOException {
+        log.debug("REST request to export Cars by criteria: {}", criteria);
+        if (!CarExportWriter.NDJSON.equals(format) && !CarExportWriter.CSV.equals(format)) {
+            throw new CustomParameterizedException("error.invalidExportFormat", format);
+        }
+        response.setContentType(CarExportWriter.getContentType(format));
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=cars." + format);
+        try (CarExportWriter writer = CarExportWriter.of(format, response.getOutputStream(), objectMapper)) {
+            long count = carQueryService.exportByCriteria(criteria, car -> {
+                try {
+                    writer.write(car);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            log.debug("Exported {} cars", count);
+        } catch (UncheckedIOException e) {
+            log.debug("Car export cancelled: {}", e.getMessage());
+            throw e.getCause();
+        }
+    }
+
     /**
      * GET  /cars/:id : get the "id" car.
      *
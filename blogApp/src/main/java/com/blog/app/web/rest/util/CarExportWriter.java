@@ -0,0 +1,140 @@
+package com.blog.app.web.rest.util;
+
+import com.blog.app.domain.Car;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes exported cars to an output stream, one line per car, in a buffer flushed every few cars so that the
+ * response is sent in chunks while the export goes on.
+ */
+public abstract class CarExportWriter implements Closeable {
+
+    public static final String NDJSON = "ndjson";
+
+    public static final String CSV = "csv";
+
+    private static final int FLUSH_SIZE = 500;
+
+    private int unflushed;
+
+    /**
+     * @param format the export format, "ndjson" or "csv"
+     * @param out the output stream, which is not closed by the writer
+     * @param objectMapper the mapper of the NDJSON export
+     * @return the writer
+     * @throws IllegalArgumentException if the format is not supported
+     */
+    public static CarExportWriter of(String format, OutputStream out, ObjectMapper objectMapper) throws IOException {
+        if (NDJSON.equals(format)) {
+            return new NdjsonWriter(out, objectMapper);
+        }
+        if (CSV.equals(format)) {
+            return new CsvWriter(out);
+        }
+        throw new IllegalArgumentException("Unsupported export format " + format);
+    }
+
+    public static String getContentType(String format) {
+        return CSV.equals(format) ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8";
+    }
+
+    /**
+     * Write a car, and flush the output if enough cars are buffered.
+     *
+     * @param car the car
+     * @throws IOException if the output is closed, for example when the client disconnected
+     */
+    public void write(Car car) throws IOException {
+        writeLine(car);
+        if (++unflushed >= FLUSH_SIZE) {
+            flush();
+            unflushed = 0;
+        }
+    }
+
+    protected abstract void writeLine(Car car) throws IOException;
+
+    protected abstract void flush() throws IOException;
+
+    private static class NdjsonWriter extends CarExportWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonWriter(OutputStream out, ObjectMapper objectMapper) throws IOException {
+            this.generator = objectMapper.getFactory().createGenerator(out);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Cars are separated by line breaks instead of spaces
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        protected void writeLine(Car car) throws IOException {
+            generator.writeObject(car);
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        protected void flush() throws IOException {
+            generator.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static class CsvWriter extends CarExportWriter {
+
+        private final Writer writer;
+
+        CsvWriter(OutputStream out) throws IOException {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            this.writer.write("id,make,model,price\r\n");
+        }
+
+        @Override
+        protected void writeLine(Car car) throws IOException {
+            writer.write(String.valueOf(car.getId()));
+            writer.write(',');
+            writeField(car.getMake());
+            writer.write(',');
+            writeField(car.getModel());
+            writer.write(',');
+            writer.write(String.valueOf(car.getPrice()));
+            writer.write("\r\n");
+        }
+
+        /**
+         * Quote the field as defined by RFC 4180 when it contains a separator, a quote or a line break.
+         */
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+            } else {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            }
+        }
+
+        @Override
+        protected void flush() throws IOException {
+            writer.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // The output stream is left open, only the buffered characters are written
+            writer.flush();
+        }
+    }
+}
@@ -42,6 +42,28 @@ public final class PaginationUtil {
         return headers;
     }
 
+    /**
+     * Generate the headers of a keyset pagination, in which only the next slice can be linked, as the total count
+     * and the position of the previous and last slices are unknown.
+     *
+     * @param nextCursor the cursor of the next slice, or null if this is the last slice
+     * @param uriBuilder the URI of the current request, whose filter, sort and size parameters are kept
+     * @return the headers
+     */
+    public static HttpHeaders generateKeysetPaginationHttpHeaders(String nextCursor, UriComponentsBuilder uriBuilder) {
+        HttpHeaders headers = new HttpHeaders();
+        if (nextCursor != null) {
+            String next = uriBuilder
+                .replaceQueryParam("page")
+                .replaceQueryParam("afterId")
+                .replaceQueryParam("after", nextCursor)
+                .build()
+                .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+
     private static String generateUri(String baseUrl, int page, int size) {
         return UriComponentsBuilder.fromUriString(baseUrl).queryParam("page", page).queryParam("size", size).toUriString();
     }
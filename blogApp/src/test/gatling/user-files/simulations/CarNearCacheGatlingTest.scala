@@ -0,0 +1,81 @@
+import _root_.io.gatling.core.scenario.Simulation
+import ch.qos.logback.classic.{Level, LoggerContext}
+import io.gatling.core.Predef._
+import io.gatling.http.Predef._
+import org.slf4j.LoggerFactory
+
+import scala.concurrent.duration._
+
+/**
+ * Latency test of GET /api/cars/{id}, served by the Hibernate second level cache.
+ *
+ * Start two blogApp instances so that their Hazelcast members form a cluster, then run this simulation twice: once
+ * with the default near cache of the com.blog.app.domain.Car region, and once with the instances started with
+ * --application.cache.near-caches[com.blog.app.domain.Car].enabled=false. Without the near cache, about half of
+ * the reads need a call to the other member, which owns the partition of the car.
+ */
+class CarNearCacheGatlingTest extends Simulation {
+
+    val context: LoggerContext = LoggerFactory.getILoggerFactory.asInstanceOf[LoggerContext]
+    // Log all HTTP requests
+    //context.getLogger("io.gatling.http").setLevel(Level.valueOf("TRACE"))
+    // Log failed HTTP requests
+    //context.getLogger("io.gatling.http").setLevel(Level.valueOf("DEBUG"))
+
+    val baseURL = Option(System.getProperty("baseURL")) getOrElse """http://127.0.0.1:8080"""
+
+    val cars = Integer.getInteger("cars", 100)
+
+    val httpConf = http
+        .baseURL(baseURL)
+        .acceptHeader("*/*")
+        .acceptEncodingHeader("gzip, deflate")
+        .connectionHeader("keep-alive")
+
+    val headers_http_authentication = Map(
+        "Content-Type" -> """application/json""",
+        "Accept" -> """application/json"""
+    )
+
+    val headers_http_authenticated = Map(
+        "Accept" -> """application/json""",
+        "Authorization" -> "${access_token}"
+    )
+
+    val authenticate = exec(http("Authentication")
+        .post("/api/authenticate")
+        .headers(headers_http_authentication)
+        .body(StringBody("""{"username":"admin", "password":"admin"}""")).asJSON
+        .check(header.get("Authorization").saveAs("access_token"))).exitHereIfFailed
+
+    val setup = scenario("Create the cars")
+        .exec(authenticate)
+        .repeat(cars) {
+            exec(http("Create car")
+            .post("/blogapp/api/cars")
+            .headers(headers_http_authenticated)
+            .body(StringBody("""{"id":null, "make":"NEAR_CACHE", "model":"SAMPLE_TEXT", "price":1}""")).asJSON
+            .check(status.is(201)))
+        }
+
+    val reads = scenario("Read the cars")
+        .exec(authenticate)
+        .exec(http("Find cars")
+        .get("/blogapp/api/cars?make.equals=NEAR_CACHE&size=" + cars)
+        .headers(headers_http_authenticated)
+        .check(jsonPath("$[*].id").findAll.saveAs("car_ids"))).exitHereIfFailed
+        .during(Integer.getInteger("duration", 60) seconds) {
+            foreach("${car_ids}", "car_id") {
+                exec(http("Get car")
+                .get("/blogapp/api/cars/${car_id}")
+                .headers(headers_http_authenticated)
+                .check(status.is(200)))
+            }
+        }
+
+    setUp(
+        setup.inject(atOnceUsers(1)),
+        reads.inject(nothingFor(Integer.getInteger("warmup", 30) seconds),
+            rampUsers(Integer.getInteger("users", 20)) over (10 seconds))
+    ).protocols(httpConf)
+}
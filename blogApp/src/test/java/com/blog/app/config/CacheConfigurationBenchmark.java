@@ -0,0 +1,94 @@
+package com.blog.app.config;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the reads behind GET /api/cars/{id} on a two-member local cluster, from a second level cache
+ * region with the near cache of the {@link CacheConfiguration}, and from a region without near cache.
+ * <p>
+ * It is not run by the tests, run its main method from the IDE, or with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheConfigurationBenchmark {
+
+    private static final String REGION = "com.blog.app.domain.Car";
+
+    private static final String UNCACHED_REGION = "com.blog.app.domain.Uncached";
+
+    private static final int ENTRIES = 1000;
+
+    private HazelcastInstance owner;
+
+    private HazelcastInstance reader;
+
+    private IMap<Long, String> cachedMap;
+
+    private IMap<Long, String> uncachedMap;
+
+    private long nextId;
+
+    @Setup
+    public void setup() {
+        owner = Hazelcast.newHazelcastInstance(createConfig("near-cache-benchmark-owner"));
+        reader = Hazelcast.newHazelcastInstance(createConfig("near-cache-benchmark-reader"));
+        for (long id = 0; id < ENTRIES; id++) {
+            owner.getMap(REGION).put(id, "car " + id);
+            owner.getMap(UNCACHED_REGION).put(id, "car " + id);
+        }
+        cachedMap = reader.getMap(REGION);
+        uncachedMap = reader.getMap(UNCACHED_REGION);
+    }
+
+    @TearDown
+    public void destroy() {
+        reader.shutdown();
+        owner.shutdown();
+    }
+
+    private Config createConfig(String instanceName) {
+        Config config = new Config();
+        config.setInstanceName(instanceName);
+        config.getGroupConfig().setName("near-cache-benchmark");
+        config.getNetworkConfig().setPort(15801);
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getTcpIpConfig().setEnabled(true).addMember("127.0.0.1:15801");
+        ApplicationProperties.Cache.NearCache nearCache = new ApplicationProperties.Cache.NearCache();
+        config.getMapConfigs().put(REGION,
+            new MapConfig(REGION).setNearCacheConfig(CacheConfiguration.initializeNearCacheConfig(nearCache)));
+        return config;
+    }
+
+    @Benchmark
+    public String nearCache() {
+        return cachedMap.get(nextId());
+    }
+
+    @Benchmark
+    public String noNearCache() {
+        return uncachedMap.get(nextId());
+    }
+
+    private long nextId() {
+        nextId = (nextId + 1) % ENTRIES;
+        return nextId;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CacheConfigurationBenchmark.class.getSimpleName()).build()).run();
+    }
+}
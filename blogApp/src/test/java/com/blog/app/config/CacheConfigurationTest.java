@@ -0,0 +1,83 @@
+package com.blog.app.config;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the near caches of the second level cache regions on a two-member local cluster. The latency of the reads
+ * with and without the near cache is compared by the {@link CacheConfigurationBenchmark}.
+ */
+public class CacheConfigurationTest {
+
+    private static final String REGION = "com.blog.app.domain.Car";
+
+    private HazelcastInstance owner;
+
+    private HazelcastInstance reader;
+
+    @Before
+    public void setup() {
+        owner = Hazelcast.newHazelcastInstance(createConfig("near-cache-test-owner"));
+        reader = Hazelcast.newHazelcastInstance(createConfig("near-cache-test-reader"));
+    }
+
+    @After
+    public void destroy() {
+        reader.shutdown();
+        owner.shutdown();
+    }
+
+    private Config createConfig(String instanceName) {
+        Config config = new Config();
+        config.setInstanceName(instanceName);
+        config.getGroupConfig().setName("near-cache-test");
+        config.getNetworkConfig().setPort(15701);
+        config.getNetworkConfig().getJoin().getMulticastConfig().setEnabled(false);
+        config.getNetworkConfig().getJoin().getTcpIpConfig().setEnabled(true).addMember("127.0.0.1:15701");
+        ApplicationProperties.Cache.NearCache nearCache = new ApplicationProperties.Cache.NearCache();
+        config.getMapConfigs().put(REGION,
+            new MapConfig(REGION).setNearCacheConfig(CacheConfiguration.initializeNearCacheConfig(nearCache)));
+        return config;
+    }
+
+    @Test
+    public void reads_are_served_by_the_near_cache() {
+        assertThat(reader.getCluster().getMembers()).hasSize(2);
+        IMap<Long, String> ownerMap = owner.getMap(REGION);
+        IMap<Long, String> readerMap = reader.getMap(REGION);
+        ownerMap.put(1L, "car");
+
+        assertThat(readerMap.get(1L)).isEqualTo("car");
+        assertThat(readerMap.get(1L)).isEqualTo("car");
+
+        assertThat(readerMap.getLocalMapStats().getNearCacheStats().getHits()).isEqualTo(1);
+        assertThat(readerMap.getLocalMapStats().getNearCacheStats().getMisses()).isEqualTo(1);
+    }
+
+    @Test
+    public void updates_invalidate_the_near_cache_of_the_other_members() throws Exception {
+        IMap<Long, String> ownerMap = owner.getMap(REGION);
+        IMap<Long, String> readerMap = reader.getMap(REGION);
+        ownerMap.put(1L, "car");
+        assertThat(readerMap.get(1L)).isEqualTo("car");
+
+        ownerMap.put(1L, "updated car");
+
+        // Invalidations are sent asynchronously
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!"updated car".equals(readerMap.get(1L)) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(readerMap.get(1L)).isEqualTo("updated car");
+    }
+}
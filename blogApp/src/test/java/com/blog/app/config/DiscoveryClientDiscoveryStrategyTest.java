@@ -0,0 +1,108 @@
+package com.blog.app.config;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the Hazelcast members discovery on a local cluster, with a stub discovery service where the nodes register
+ * once they have started, like the applications in the registry.
+ *
+ * @see DiscoveryClientDiscoveryStrategy
+ */
+public class DiscoveryClientDiscoveryStrategyTest {
+
+    private static final String SERVICE_ID = "blogapp";
+
+    private static final int FIRST_PORT = 15801;
+
+    private final List<ServiceInstance> registeredInstances = new CopyOnWriteArrayList<>();
+
+    private final List<HazelcastInstance> members = new ArrayList<>();
+
+    private DiscoveryClient discoveryClient;
+
+    @Before
+    public void setup() {
+        discoveryClient = mock(DiscoveryClient.class);
+        when(discoveryClient.getInstances(SERVICE_ID)).thenAnswer(invocation -> new ArrayList<>(registeredInstances));
+    }
+
+    @After
+    public void destroy() {
+        members.forEach(HazelcastInstance::shutdown);
+    }
+
+    private HazelcastInstance startMember(int index) {
+        Config config = new Config();
+        config.setInstanceName("discovery-test-" + index);
+        config.getGroupConfig().setName("discovery-test");
+        config.getNetworkConfig().setPort(FIRST_PORT + index).setPortAutoIncrement(false);
+        config.getNetworkConfig().getInterfaces().setEnabled(true).addInterface("127.0.0.1");
+        config.setProperty("hazelcast.wait.seconds.before.join", "0");
+        config.setProperty("hazelcast.max.join.seconds", "5");
+        ApplicationProperties.Cache.Discovery discovery = new ApplicationProperties.Cache.Discovery();
+        discovery.setInitialDelaySeconds(2);
+        discovery.setIntervalSeconds(2);
+        CacheConfiguration.initializeDiscovery(config, new DiscoveryClientDiscoveryStrategy.Factory(discoveryClient,
+            SERVICE_ID, instance -> new InetSocketAddress("127.0.0.1", instance.getPort())), discovery);
+        HazelcastInstance member = Hazelcast.newHazelcastInstance(config);
+        members.add(member);
+        return member;
+    }
+
+    private void register(int index) {
+        registeredInstances.add(new DefaultServiceInstance(SERVICE_ID, "127.0.0.1", FIRST_PORT + index, false));
+    }
+
+    @Test
+    public void membersStartedLaterJoinTheRegisteredMembers() {
+        HazelcastInstance first = startMember(0);
+        register(0);
+        HazelcastInstance second = startMember(1);
+        register(1);
+
+        assertThat(first.getCluster().getMembers()).hasSize(2);
+        assertThat(second.getCluster().getMembers()).hasSize(2);
+    }
+
+    @Test
+    public void clustersStartedAtTheSameTimeAreMerged() throws Exception {
+        // None of the members is registered yet when the others start, so each forms its own cluster
+        HazelcastInstance first = startMember(0);
+        HazelcastInstance second = startMember(1);
+        HazelcastInstance third = startMember(2);
+        assertThat(first.getCluster().getMembers()).hasSize(1);
+        assertThat(second.getCluster().getMembers()).hasSize(1);
+        assertThat(third.getCluster().getMembers()).hasSize(1);
+
+        register(0);
+        register(1);
+        register(2);
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (members.stream().anyMatch(member -> member.getCluster().getMembers().size() < 3) &&
+            System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        assertThat(first.getCluster().getMembers()).hasSize(3);
+        assertThat(second.getCluster().getMembers()).hasSize(3);
+        assertThat(third.getCluster().getMembers()).hasSize(3);
+    }
+}
@@ -0,0 +1,163 @@
+package com.blog.app.service;
+
+import com.blog.app.BlogApp;
+import com.blog.app.config.ApplicationProperties;
+import com.blog.app.domain.Car;
+import com.blog.app.domain.SearchOutboxEntry;
+import com.blog.app.repository.CarRepository;
+import com.blog.app.repository.SearchOutboxRepository;
+import com.blog.app.repository.search.CarSearchRepository;
+import com.codahale.metrics.MetricRegistry;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ILock;
+import org.elasticsearch.client.transport.NoNodeAvailableException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.elasticsearch.core.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.EntityMapper;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Test class for the SearchIndexingService, draining the search outbox to the test Elasticsearch node.
+ * <p>
+ * Not transactional, as the outbox is read and updated in separate transactions.
+ *
+ * @see SearchIndexingService
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = BlogApp.class)
+public class SearchIndexingServiceIntTest {
+
+    @Autowired
+    private SearchOutboxRepository searchOutboxRepository;
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private CarSearchRepository carSearchRepository;
+
+    @Autowired
+    private ElasticsearchTemplate elasticsearchTemplate;
+
+    @Autowired
+    private EntityMapper entityMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    private ApplicationProperties applicationProperties;
+
+    private MetricRegistry metricRegistry;
+
+    private final List<Car> cars = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        searchOutboxRepository.deleteAll();
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getSearchIndexing().setBatchSize(2);
+        metricRegistry = new MetricRegistry();
+    }
+
+    @After
+    public void destroy() {
+        searchOutboxRepository.deleteAll();
+        cars.forEach(car -> {
+            carRepository.delete(car.getId());
+            carSearchRepository.delete(car.getId());
+        });
+    }
+
+    private SearchIndexingService createService(ElasticsearchTemplate elasticsearchTemplate) {
+        return new SearchIndexingService(searchOutboxRepository, elasticsearchTemplate, entityMapper,
+            transactionManager, metricRegistry, applicationProperties, hazelcastInstance, carRepository);
+    }
+
+    private Car saveCar(String make) {
+        Car car = carRepository.save(new Car().make(make).price(1L));
+        cars.add(car);
+        searchOutboxRepository.save(new SearchOutboxEntry(Car.class.getSimpleName(), car.getId(), Instant.now()));
+        return car;
+    }
+
+    @Test
+    public void testIndexAllThePendingEntries() {
+        Car car = saveCar("indexed");
+        saveCar("indexed");
+        saveCar("indexed");
+        // The entry of a car which no longer exists removes its document
+        searchOutboxRepository.save(new SearchOutboxEntry(Car.class.getSimpleName(), Long.MAX_VALUE, Instant.now()));
+
+        createService(elasticsearchTemplate).indexPendingEntries();
+
+        assertThat(searchOutboxRepository.count()).isZero();
+        assertThat(carSearchRepository.findOne(car.getId())).isEqualToComparingFieldByField(car);
+        assertThat(metricRegistry.meter(MetricRegistry.name(SearchIndexingService.class, "indexed")).getCount())
+            .isEqualTo(3);
+        assertThat(metricRegistry.meter(MetricRegistry.name(SearchIndexingService.class, "removed")).getCount())
+            .isEqualTo(1);
+        // The outbox is drained in batches of two entries
+        assertThat(metricRegistry.timer(MetricRegistry.name(SearchIndexingService.class, "batches")).getCount())
+            .isEqualTo(2);
+    }
+
+    @Test
+    public void testRetryWhenElasticsearchIsDown() {
+        Car car = saveCar("retried");
+        ElasticsearchTemplate failingTemplate = mock(ElasticsearchTemplate.class);
+        doReturn(elasticsearchTemplate.getPersistentEntityFor(Car.class)).when(failingTemplate)
+            .getPersistentEntityFor(Car.class);
+        doThrow(new NoNodeAvailableException("down")).when(failingTemplate).bulkIndex(anyListOf(IndexQuery.class));
+        SearchIndexingService searchIndexingService = createService(failingTemplate);
+        Instant beforeIndexing = Instant.now();
+
+        searchIndexingService.indexPendingEntries();
+
+        List<SearchOutboxEntry> entries = searchOutboxRepository.findAll();
+        assertThat(entries).hasSize(1).extracting("attempts").containsOnly(1);
+        assertThat(entries.get(0).getNextAttemptDate()).isAfter(beforeIndexing.plusSeconds(1));
+        assertThat(metricRegistry.meter(MetricRegistry.name(SearchIndexingService.class, "failed")).getCount())
+            .isEqualTo(1);
+
+        // Not retried before the backoff delay
+        createService(elasticsearchTemplate).indexPendingEntries();
+        assertThat(searchOutboxRepository.findAll()).extracting("attempts").containsOnly(1);
+        assertThat(carSearchRepository.findOne(car.getId())).isNull();
+    }
+
+    @Test
+    public void testSkipWhenAnotherNodeIsIndexing() throws Exception {
+        saveCar("locked");
+        ILock lock = hazelcastInstance.getLock("search-outbox");
+        Thread otherNode = new Thread(lock::lock);
+        otherNode.start();
+        otherNode.join();
+        try {
+            createService(elasticsearchTemplate).indexPendingEntries();
+
+            assertThat(searchOutboxRepository.count()).isEqualTo(1);
+        } finally {
+            lock.forceUnlock();
+        }
+    }
+}
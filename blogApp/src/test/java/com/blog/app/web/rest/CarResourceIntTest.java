@@ -9,26 +9,38 @@ import com.blog.app.repository.search.CarSearchRepository;
 import com.blog.app.web.rest.errors.ExceptionTranslator;
 import com.blog.app.service.dto.CarCriteria;
 import com.blog.app.service.CarQueryService;
+import com.blog.app.service.CarQueryResultCache;
+import com.blog.app.service.SearchIndexingService;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.elasticsearch.core.ElasticsearchTemplate;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -62,6 +74,18 @@ public class CarResourceIntTest {
     @Autowired
     private CarQueryService carQueryService;
 
+    @Autowired
+    private ElasticsearchTemplate elasticsearchTemplate;
+
+    @Autowired
+    private SearchIndexingService searchIndexingService;
+
+    @Autowired
+    private CarQueryResultCache carQueryResultCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Autowired
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -81,7 +105,7 @@ public class CarResourceIntTest {
     @Before
     public void setup() {
         MockitoAnnotations.initMocks(this);
-        final CarResource carResource = new CarResource(carService, carQueryService);
+        final CarResource carResource = new CarResource(carService, carQueryService, objectMapper);
         this.restCarMockMvc = MockMvcBuilders.standaloneSetup(carResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
             .setControllerAdvice(exceptionTranslator)
@@ -105,6 +129,8 @@ public class CarResourceIntTest {
     @Before
     public void initTest() {
         carSearchRepository.deleteAll();
+        // The cars of the other tests were rolled back without invalidating the cache
+        carQueryResultCache.clear();
         car = createEntity(em);
     }
 
@@ -128,6 +154,7 @@ public class CarResourceIntTest {
         assertThat(testCar.getPrice()).isEqualTo(DEFAULT_PRICE);
 
         // Validate the Car in Elasticsearch
+        searchIndexingService.indexPendingEntries();
         Car carEs = carSearchRepository.findOne(testCar.getId());
         assertThat(carEs).isEqualToComparingFieldByField(testCar);
     }
@@ -345,6 +372,37 @@ public class CarResourceIntTest {
     }
 
 
+    /**
+     * Not transactional, as the cache is only invalidated once the Car writes are committed.
+     */
+    @Test
+    public void getAllCarsIsCachedUntilACarIsSaved() throws Exception {
+        try {
+            carRepository.saveAndFlush(createEntity(em).make("cached"));
+            restCarMockMvc.perform(get("/api/cars?make.equals=cached"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"));
+
+            // Saved without the service, so the cache is not invalidated
+            carRepository.saveAndFlush(createEntity(em).make("cached"));
+            restCarMockMvc.perform(get("/api/cars?make.equals=cached"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(jsonPath("$", hasSize(1)));
+
+            carService.save(createEntity(em).make("cached"));
+            restCarMockMvc.perform(get("/api/cars?make.equals=cached"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "3"))
+                .andExpect(jsonPath("$", hasSize(3)));
+        } finally {
+            carRepository.findAll().stream()
+                .filter(car -> "cached".equals(car.getMake()))
+                .forEach(carRepository::delete);
+            searchIndexingService.indexPendingEntries();
+        }
+    }
+
     /**
      * Executes the search, and checks that the default entity is returned
      */
@@ -370,6 +428,178 @@ public class CarResourceIntTest {
     }
 
 
+    @Test
+    @Transactional
+    public void getAllCarsWithKeysetPagination() throws Exception {
+        // Initialize the database
+        carRepository.saveAndFlush(car);
+        Car otherCar = createEntity(em).price(UPDATED_PRICE);
+        carRepository.saveAndFlush(otherCar);
+
+        // Get the first slice, sorted by price then id
+        MvcResult result = restCarMockMvc.perform(get("/api/cars?sort=price,desc&size=1&price.in=1,2&after="))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(jsonPath("$.[*].id").value(contains(otherCar.getId().intValue())))
+            .andReturn();
+        String link = result.getResponse().getHeader(HttpHeaders.LINK);
+        assertThat(link).endsWith(">; rel=\"next\"").contains("price.in=1,2");
+
+        // Follow the next link
+        restCarMockMvc.perform(get(link.substring(1, link.indexOf('>'))))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.LINK))
+            .andExpect(jsonPath("$.[*].id").value(contains(car.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    public void getAllCarsWithKeysetPaginationOnNullableColumn() throws Exception {
+        // Initialize the database
+        carRepository.saveAndFlush(car);
+        Car carWithoutMake = createEntity(em).make(null);
+        carRepository.saveAndFlush(carWithoutMake);
+        Car otherCarWithoutMake = createEntity(em).make(null);
+        carRepository.saveAndFlush(otherCarWithoutMake);
+
+        // The cars without make come first in ascending order, and last in descending order
+        String filter = "id.in=" + car.getId() + "," + carWithoutMake.getId() + "," + otherCarWithoutMake.getId();
+        assertThat(getAllCarIdsBySlicesOfOne("make,asc", filter)).containsExactly(
+            carWithoutMake.getId(), otherCarWithoutMake.getId(), car.getId());
+        assertThat(getAllCarIdsBySlicesOfOne("make,desc", filter)).containsExactly(
+            car.getId(), carWithoutMake.getId(), otherCarWithoutMake.getId());
+    }
+
+    private List<Long> getAllCarIdsBySlicesOfOne(String sort, String filter) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String url = "/api/cars?size=1&after=&sort=" + sort + "&" + filter;
+        while (url != null) {
+            MvcResult result = restCarMockMvc.perform(get(url))
+                .andExpect(status().isOk())
+                .andReturn();
+            JsonNode cars = new ObjectMapper().readTree(result.getResponse().getContentAsString());
+            cars.forEach(slicedCar -> ids.add(slicedCar.path("id").asLong()));
+            String link = result.getResponse().getHeader(HttpHeaders.LINK);
+            url = link == null ? null : link.substring(1, link.indexOf('>'));
+        }
+        return ids;
+    }
+
+    @Test
+    @Transactional
+    public void getAllCarsAfterId() throws Exception {
+        // Initialize the database
+        carRepository.saveAndFlush(car);
+
+        restCarMockMvc.perform(get("/api/cars?afterId=" + (car.getId() - 1)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(hasItem(car.getId().intValue())));
+
+        restCarMockMvc.perform(get("/api/cars?afterId=" + car.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(car.getId().intValue()))));
+    }
+
+    @Test
+    @Transactional
+    public void getAllCarsAfterIdWithAnotherSort() throws Exception {
+        restCarMockMvc.perform(get("/api/cars?sort=make,asc&afterId=1"))
+            .andExpect(status().isBadRequest());
+
+        restCarMockMvc.perform(get("/api/cars?after=notacursor"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    public void exportCarsAsNdjson() throws Exception {
+        // Initialize the database
+        carRepository.saveAndFlush(car);
+        carRepository.saveAndFlush(createEntity(em).price(UPDATED_PRICE));
+
+        String content = restCarMockMvc.perform(get("/api/cars/_export?price.equals=" + DEFAULT_PRICE))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+            .andReturn().getResponse().getContentAsString();
+
+        String[] lines = content.split("\n");
+        assertThat(lines).hasSize(1);
+        Car exportedCar = objectMapper.readValue(lines[0], Car.class);
+        assertThat(exportedCar.getId()).isEqualTo(car.getId());
+        assertThat(exportedCar.getMake()).isEqualTo(DEFAULT_MAKE);
+    }
+
+    @Test
+    @Transactional
+    public void exportCarsAsCsv() throws Exception {
+        // Initialize the database
+        carRepository.saveAndFlush(car.make("Make, \"quoted\""));
+
+        restCarMockMvc.perform(get("/api/cars/_export?format=csv&id.equals=" + car.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("text/csv"))
+            .andExpect(content().string("id,make,model,price\r\n" +
+                car.getId() + ",\"Make, \"\"quoted\"\"\"," + DEFAULT_MODEL + "," + DEFAULT_PRICE + "\r\n"));
+    }
+
+    @Test
+    @Transactional
+    public void exportCarsWithUnknownFormat() throws Exception {
+        restCarMockMvc.perform(get("/api/cars/_export?format=xml"))
+            .andExpect(status().isBadRequest());
+    }
+
+    /**
+     * Not transactional, as each batch of a bulk request is committed in its own transaction.
+     */
+    @Test
+    public void bulkCars() throws Exception {
+        Car existingCar = carRepository.saveAndFlush(createEntity(em));
+        try {
+            String operations = "[" +
+                "{\"car\":{\"make\":\"bulk\",\"price\":3}}," +
+                "{\"car\":{\"make\":\"bulk\"}}," +
+                "{\"action\":\"DELETE\",\"car\":{\"id\":" + existingCar.getId() + "}}," +
+                "{\"action\":\"DELETE\",\"car\":{\"id\":" + Long.MAX_VALUE + "}}" +
+                "]";
+            restCarMockMvc.perform(post("/api/cars/_bulk")
+                .contentType(TestUtil.APPLICATION_JSON_UTF8)
+                .content(operations))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].index").value(contains(0, 1, 2, 3)))
+                .andExpect(jsonPath("$.[*].status").value(contains(201, 400, 200, 404)));
+
+            assertThat(carRepository.findOne(existingCar.getId())).isNull();
+            List<Car> bulkCars = carRepository.findAll().stream()
+                .filter(car -> "bulk".equals(car.getMake()))
+                .collect(Collectors.toList());
+            assertThat(bulkCars).hasSize(1);
+            searchIndexingService.indexPendingEntries();
+            assertThat(carSearchRepository.findOne(bulkCars.get(0).getId())).isNotNull();
+        } finally {
+            carRepository.findAll().stream()
+                .filter(car -> "bulk".equals(car.getMake()) || car.getId().equals(existingCar.getId()))
+                .forEach(carRepository::delete);
+            searchIndexingService.indexPendingEntries();
+        }
+    }
+
+    @Test
+    public void bulkCarsAsNdjson() throws Exception {
+        try {
+            restCarMockMvc.perform(post("/api/cars/_bulk")
+                .contentType("application/x-ndjson")
+                .content("{\"car\":{\"make\":\"bulk\",\"price\":3}}\n{\"car\":{\"make\":\"bulk\",\"price\":4}}\nnot json\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].status").value(contains(201, 201, 400)));
+        } finally {
+            carRepository.findAll().stream()
+                .filter(car -> "bulk".equals(car.getMake()))
+                .forEach(carRepository::delete);
+            searchIndexingService.indexPendingEntries();
+        }
+    }
+
     @Test
     @Transactional
     public void getNonExistingCar() throws Exception {
@@ -407,6 +637,7 @@ public class CarResourceIntTest {
         assertThat(testCar.getPrice()).isEqualTo(UPDATED_PRICE);
 
         // Validate the Car in Elasticsearch
+        searchIndexingService.indexPendingEntries();
         Car carEs = carSearchRepository.findOne(testCar.getId());
         assertThat(carEs).isEqualToComparingFieldByField(testCar);
     }
@@ -443,6 +674,7 @@ public class CarResourceIntTest {
             .andExpect(status().isOk());
 
         // Validate Elasticsearch is empty
+        searchIndexingService.indexPendingEntries();
         boolean carExistsInEs = carSearchRepository.exists(car.getId());
         assertThat(carExistsInEs).isFalse();
 
@@ -456,6 +688,8 @@ public class CarResourceIntTest {
     public void searchCar() throws Exception {
         // Initialize the database
         carService.save(car);
+        searchIndexingService.indexPendingEntries();
+        elasticsearchTemplate.refresh(Car.class);
 
         // Search the car
         restCarMockMvc.perform(get("/api/_search/cars?query=id:" + car.getId()))
@@ -0,0 +1,153 @@
+package com.blog.app.web.rest;
+
+import com.blog.app.BlogApp;
+import com.blog.app.config.ApplicationProperties;
+import com.blog.app.domain.Car;
+import com.blog.app.repository.CarRepository;
+import com.blog.app.repository.search.CarSearchRepository;
+import com.blog.app.service.SearchIndexingService;
+import com.blog.app.service.SearchReindexService;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.elasticsearch.core.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.EntityMapper;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for the SearchReindexResource REST controller.
+ * <p>
+ * Not transactional, as the reindex reads the committed entities. The reindex runs in the calling thread.
+ *
+ * @see SearchReindexResource
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = BlogApp.class)
+public class SearchReindexResourceIntTest {
+
+    @Autowired
+    private CarRepository carRepository;
+
+    @Autowired
+    private CarSearchRepository carSearchRepository;
+
+    @Autowired
+    private SearchIndexingService searchIndexingService;
+
+    @Autowired
+    private ElasticsearchTemplate elasticsearchTemplate;
+
+    @Autowired
+    private EntityMapper entityMapper;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MetricRegistry metricRegistry;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private MappingJackson2HttpMessageConverter jacksonMessageConverter;
+
+    private MockMvc restSearchReindexMockMvc;
+
+    @Before
+    public void setup() {
+        SearchReindexService searchReindexService = new SearchReindexService(searchIndexingService,
+            elasticsearchTemplate, entityMapper, em, transactionManager, metricRegistry, applicationProperties,
+            Runnable::run);
+        SearchReindexResource searchReindexResource = new SearchReindexResource(searchReindexService);
+        this.restSearchReindexMockMvc = MockMvcBuilders.standaloneSetup(searchReindexResource)
+            .setMessageConverters(jacksonMessageConverter).build();
+    }
+
+    @Test
+    public void reindexCars() throws Exception {
+        Car car = carRepository.saveAndFlush(new Car().make("reindex").price(1L));
+        try {
+            restSearchReindexMockMvc.perform(post("/management/search-reindex/Car"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.entityType").value("Car"))
+                .andExpect(jsonPath("$.state").value("COMPLETED"))
+                .andExpect(jsonPath("$.failed").value(0));
+
+            assertThat(carSearchRepository.findOne(car.getId())).isNotNull();
+            List<String> firstIndices = getAliasedIndices("car");
+            assertThat(firstIndices).hasSize(1);
+
+            // The next reindex replaces the previous versioned index
+            restSearchReindexMockMvc.perform(post("/management/search-reindex/Car"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.state").value("COMPLETED"));
+
+            List<String> secondIndices = getAliasedIndices("car");
+            assertThat(secondIndices).hasSize(1).doesNotContainAnyElementsOf(firstIndices);
+            assertThat(elasticsearchTemplate.indexExists(firstIndices.get(0))).isFalse();
+            assertThat(carSearchRepository.findOne(car.getId())).isNotNull();
+
+            restSearchReindexMockMvc.perform(get("/management/search-reindex"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[0].indexName").value(secondIndices.get(0)));
+        } finally {
+            carRepository.delete(car);
+            carSearchRepository.delete(car.getId());
+        }
+    }
+
+    @Test
+    public void reindexReplacesAnIndexNamedAfterTheAlias() throws Exception {
+        // The index created by the repository before the first version of the index was created at startup
+        getAliasedIndices("car").forEach(elasticsearchTemplate::deleteIndex);
+        elasticsearchTemplate.createIndex(Car.class);
+        elasticsearchTemplate.putMapping(Car.class);
+        Car car = carRepository.saveAndFlush(new Car().make("reindex").price(1L));
+        try {
+            restSearchReindexMockMvc.perform(post("/management/search-reindex/Car"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.state").value("COMPLETED"));
+
+            assertThat(getAliasedIndices("car")).hasSize(1);
+            assertThat(carSearchRepository.findOne(car.getId())).isNotNull();
+        } finally {
+            carRepository.delete(car);
+            carSearchRepository.delete(car.getId());
+        }
+    }
+
+    @Test
+    public void reindexUnknownEntity() throws Exception {
+        restSearchReindexMockMvc.perform(post("/management/search-reindex/Unknown"))
+            .andExpect(status().isNotFound());
+    }
+
+    private List<String> getAliasedIndices(String alias) {
+        List<String> indices = new ArrayList<>();
+        elasticsearchTemplate.getClient().admin().indices().prepareGetAliases(alias).get().getAliases().keysIt()
+            .forEachRemaining(indices::add);
+        return indices;
+    }
+}
@@ -1,7 +1,15 @@
 package com.gateway.app.config;
 
+import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.InMemoryFormat;
+import io.jsonwebtoken.SignatureAlgorithm;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Properties specific to JHipster.
  * <p>
@@ -10,4 +18,817 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
 
+    private final Jwt jwt = new Jwt();
+
+    private final Gateway gateway = new Gateway();
+
+    private final SearchIndexing searchIndexing = new SearchIndexing();
+
+    private final Cache cache = new Cache();
+
+    private final PasswordHashing passwordHashing = new PasswordHashing();
+
+    private final NotActivatedUsers notActivatedUsers = new NotActivatedUsers();
+
+    private final Mail mail = new Mail();
+
+    private final Audit audit = new Audit();
+
+    public Jwt getJwt() {
+        return jwt;
+    }
+
+    public Gateway getGateway() {
+        return gateway;
+    }
+
+    public SearchIndexing getSearchIndexing() {
+        return searchIndexing;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public PasswordHashing getPasswordHashing() {
+        return passwordHashing;
+    }
+
+    public NotActivatedUsers getNotActivatedUsers() {
+        return notActivatedUsers;
+    }
+
+    public Mail getMail() {
+        return mail;
+    }
+
+    public Audit getAudit() {
+        return audit;
+    }
+
+    public static class Jwt {
+
+        /**
+         * Algorithm used to sign tokens: HS512 uses the shared secret, RS256 and ES256 use the key store below.
+         */
+        private SignatureAlgorithm algorithm = SignatureAlgorithm.HS512;
+
+        /**
+         * Location of the key store holding the signing key pairs, a key pair is generated at startup if not set.
+         */
+        private String keyStore;
+
+        private String keyStorePassword;
+
+        private String keyStoreType = "PKCS12";
+
+        /**
+         * Alias of the key used to sign new tokens, the other keys of the key store are only used for verification.
+         */
+        private String keyAlias;
+
+        private final Cache cache = new Cache();
+
+        public SignatureAlgorithm getAlgorithm() {
+            return algorithm;
+        }
+
+        public void setAlgorithm(SignatureAlgorithm algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        public String getKeyStore() {
+            return keyStore;
+        }
+
+        public void setKeyStore(String keyStore) {
+            this.keyStore = keyStore;
+        }
+
+        public String getKeyStorePassword() {
+            return keyStorePassword;
+        }
+
+        public void setKeyStorePassword(String keyStorePassword) {
+            this.keyStorePassword = keyStorePassword;
+        }
+
+        public String getKeyStoreType() {
+            return keyStoreType;
+        }
+
+        public void setKeyStoreType(String keyStoreType) {
+            this.keyStoreType = keyStoreType;
+        }
+
+        public String getKeyAlias() {
+            return keyAlias;
+        }
+
+        public void setKeyAlias(String keyAlias) {
+            this.keyAlias = keyAlias;
+        }
+
+        public Cache getCache() {
+            return cache;
+        }
+
+        public static class Cache {
+
+            /**
+             * Maximum number of validated tokens kept in memory, 0 disables the cache.
+             */
+            private int maxEntries = 10000;
+
+            public int getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(int maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+        }
+    }
+
+    public static class Gateway {
+
+        private final RateLimiting rateLimiting = new RateLimiting();
+
+        private final ApiDocs apiDocs = new ApiDocs();
+
+        private final RestClient restClient = new RestClient();
+
+        public RateLimiting getRateLimiting() {
+            return rateLimiting;
+        }
+
+        public ApiDocs getApiDocs() {
+            return apiDocs;
+        }
+
+        public RestClient getRestClient() {
+            return restClient;
+        }
+
+        public static class RestClient {
+
+            /**
+             * Maximum time to open a connection to a microservice.
+             */
+            private int connectTimeoutInMillis = 1000;
+
+            /**
+             * Maximum time to wait for data from a microservice, once connected.
+             */
+            private int readTimeoutInMillis = 5000;
+
+            public int getConnectTimeoutInMillis() {
+                return connectTimeoutInMillis;
+            }
+
+            public void setConnectTimeoutInMillis(int connectTimeoutInMillis) {
+                this.connectTimeoutInMillis = connectTimeoutInMillis;
+            }
+
+            public int getReadTimeoutInMillis() {
+                return readTimeoutInMillis;
+            }
+
+            public void setReadTimeoutInMillis(int readTimeoutInMillis) {
+                this.readTimeoutInMillis = readTimeoutInMillis;
+            }
+        }
+
+        public static class ApiDocs {
+
+            /**
+             * Time after which the aggregated Swagger document is fetched again from the microservices, even if
+             * the routes did not change.
+             */
+            private long refreshIntervalInMillis = 300000;
+
+            /**
+             * Maximum time to fetch the documents of all the microservices, the ones still missing are left out
+             * until the next refresh.
+             */
+            private long refreshTimeoutInMillis = 10000;
+
+            /**
+             * Number of documents fetched at the same time.
+             */
+            private int fetchThreads = 4;
+
+            public long getRefreshIntervalInMillis() {
+                return refreshIntervalInMillis;
+            }
+
+            public void setRefreshIntervalInMillis(long refreshIntervalInMillis) {
+                this.refreshIntervalInMillis = refreshIntervalInMillis;
+            }
+
+            public long getRefreshTimeoutInMillis() {
+                return refreshTimeoutInMillis;
+            }
+
+            public void setRefreshTimeoutInMillis(long refreshTimeoutInMillis) {
+                this.refreshTimeoutInMillis = refreshTimeoutInMillis;
+            }
+
+            public int getFetchThreads() {
+                return fetchThreads;
+            }
+
+            public void setFetchThreads(int fetchThreads) {
+                this.fetchThreads = fetchThreads;
+            }
+        }
+
+        public static class RateLimiting {
+
+            /**
+             * Maximum number of tokens taken at once from the distributed bucket of a client, and then spent locally.
+             * This is also the maximum number of tokens a gateway instance can hold unspent for one client.
+             */
+            private long leaseSize = 10;
+
+            /**
+             * Time after which the unspent tokens of a lease are given back to the distributed bucket.
+             */
+            private long leaseDurationInMillis = 1000;
+
+            /**
+             * Limits of the callers of a route, by route id. They replace the default limit on this route.
+             */
+            private Map<String, List<Limit>> routes = new LinkedHashMap<>();
+
+            /**
+             * Limits of the callers granted an authority, by authority. They replace the route and default limits,
+             * and if a caller has several of these authorities, the first one configured is used.
+             */
+            private Map<String, List<Limit>> authorities = new LinkedHashMap<>();
+
+            public long getLeaseSize() {
+                return leaseSize;
+            }
+
+            public void setLeaseSize(long leaseSize) {
+                this.leaseSize = leaseSize;
+            }
+
+            public long getLeaseDurationInMillis() {
+                return leaseDurationInMillis;
+            }
+
+            public void setLeaseDurationInMillis(long leaseDurationInMillis) {
+                this.leaseDurationInMillis = leaseDurationInMillis;
+            }
+
+            public Map<String, List<Limit>> getRoutes() {
+                return routes;
+            }
+
+            public void setRoutes(Map<String, List<Limit>> routes) {
+                this.routes = routes;
+            }
+
+            public Map<String, List<Limit>> getAuthorities() {
+                return authorities;
+            }
+
+            public void setAuthorities(Map<String, List<Limit>> authorities) {
+                this.authorities = authorities;
+            }
+
+            /**
+             * A bandwidth of a rate limit policy, for example a burst limit and a sustained limit.
+             */
+            public static class Limit {
+
+                private long limit;
+
+                private long durationInSeconds;
+
+                public long getLimit() {
+                    return limit;
+                }
+
+                public void setLimit(long limit) {
+                    this.limit = limit;
+                }
+
+                public long getDurationInSeconds() {
+                    return durationInSeconds;
+                }
+
+                public void setDurationInSeconds(long durationInSeconds) {
+                    this.durationInSeconds = durationInSeconds;
+                }
+            }
+        }
+    }
+
+    public static class SearchIndexing {
+
+        /**
+         * Maximum number of search outbox entries indexed with the same Elasticsearch bulk requests.
+         */
+        private int batchSize = 500;
+
+        /**
+         * Delay between two drains of the search outbox.
+         */
+        private long pollIntervalInMillis = 500;
+
+        /**
+         * Maximum delay before indexing again an entity whose indexing failed, the delay doubling at each attempt.
+         */
+        private long maxRetryDelayInSeconds = 300;
+
+        /**
+         * Number of documents sent in each bulk request of a full reindex.
+         */
+        private int reindexBatchSize = 1000;
+
+        /**
+         * Number of bulk requests of a full reindex sent in parallel.
+         */
+        private int reindexWorkers = 4;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getPollIntervalInMillis() {
+            return pollIntervalInMillis;
+        }
+
+        public void setPollIntervalInMillis(long pollIntervalInMillis) {
+            this.pollIntervalInMillis = pollIntervalInMillis;
+        }
+
+        public long getMaxRetryDelayInSeconds() {
+            return maxRetryDelayInSeconds;
+        }
+
+        public void setMaxRetryDelayInSeconds(long maxRetryDelayInSeconds) {
+            this.maxRetryDelayInSeconds = maxRetryDelayInSeconds;
+        }
+
+        public int getReindexBatchSize() {
+            return reindexBatchSize;
+        }
+
+        public void setReindexBatchSize(int reindexBatchSize) {
+            this.reindexBatchSize = reindexBatchSize;
+        }
+
+        public int getReindexWorkers() {
+            return reindexWorkers;
+        }
+
+        public void setReindexWorkers(int reindexWorkers) {
+            this.reindexWorkers = reindexWorkers;
+        }
+    }
+
+    public static class Cache {
+
+        /**
+         * Near caches of the Hibernate second level cache regions, by region name, for example
+         * com.example.domain.Entity or com.example.domain.Entity.collection.
+         */
+        private final Map<String, NearCache> nearCaches = new LinkedHashMap<>();
+
+        private final Discovery discovery = new Discovery();
+
+        private final UserDetails userDetails = new UserDetails();
+
+        public Map<String, NearCache> getNearCaches() {
+            return nearCaches;
+        }
+
+        public UserDetails getUserDetails() {
+            return userDetails;
+        }
+
+        public Discovery getDiscovery() {
+            return discovery;
+        }
+
+        public static class UserDetails {
+
+            /**
+             * Maximum number of cached user details held by each node.
+             */
+            private int maxSize = 10000;
+
+            /**
+             * Time to live of the cached user details, bounding how long a change made outside of UserService is
+             * ignored by the authentication.
+             */
+            private int timeToLiveSeconds = 3600;
+
+            public int getMaxSize() {
+                return maxSize;
+            }
+
+            public void setMaxSize(int maxSize) {
+                this.maxSize = maxSize;
+            }
+
+            public int getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(int timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+        }
+
+        public static class Discovery {
+
+            /**
+             * Delay before the first lookup of the members registered in the discovery service after the startup,
+             * to find the clusters formed by the nodes started at the same time.
+             */
+            private int initialDelaySeconds = 30;
+
+            /**
+             * Interval between the lookups of the members registered in the discovery service. The clusters found
+             * are merged into this one.
+             */
+            private int intervalSeconds = 30;
+
+            public int getInitialDelaySeconds() {
+                return initialDelaySeconds;
+            }
+
+            public void setInitialDelaySeconds(int initialDelaySeconds) {
+                this.initialDelaySeconds = initialDelaySeconds;
+            }
+
+            public int getIntervalSeconds() {
+                return intervalSeconds;
+            }
+
+            public void setIntervalSeconds(int intervalSeconds) {
+                this.intervalSeconds = intervalSeconds;
+            }
+        }
+
+        public static class NearCache {
+
+            private boolean enabled = true;
+
+            /**
+             * Maximum number of entries held by each node.
+             */
+            private int maxSize = 10000;
+
+            private EvictionPolicy evictionPolicy = EvictionPolicy.LFU;
+
+            /**
+             * OBJECT keeps the deserialized entries, which saves the deserialization of each read.
+             */
+            private InMemoryFormat inMemoryFormat = InMemoryFormat.OBJECT;
+
+            /**
+             * Whether the entries are removed when they are updated on any node of the cluster.
+             */
+            private boolean invalidateOnChange = true;
+
+            /**
+             * Maximum time an entry is kept, 0 keeping it until it is evicted or invalidated.
+             */
+            private int timeToLiveSeconds = 0;
+
+            /**
+             * Maximum time an entry is kept without being read, 0 keeping it until it is evicted or invalidated.
+             */
+            private int maxIdleSeconds = 0;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getMaxSize() {
+                return maxSize;
+            }
+
+            public void setMaxSize(int maxSize) {
+                this.maxSize = maxSize;
+            }
+
+            public EvictionPolicy getEvictionPolicy() {
+                return evictionPolicy;
+            }
+
+            public void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+                this.evictionPolicy = evictionPolicy;
+            }
+
+            public InMemoryFormat getInMemoryFormat() {
+                return inMemoryFormat;
+            }
+
+            public void setInMemoryFormat(InMemoryFormat inMemoryFormat) {
+                this.inMemoryFormat = inMemoryFormat;
+            }
+
+            public boolean isInvalidateOnChange() {
+                return invalidateOnChange;
+            }
+
+            public void setInvalidateOnChange(boolean invalidateOnChange) {
+                this.invalidateOnChange = invalidateOnChange;
+            }
+
+            public int getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(int timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public int getMaxIdleSeconds() {
+                return maxIdleSeconds;
+            }
+
+            public void setMaxIdleSeconds(int maxIdleSeconds) {
+                this.maxIdleSeconds = maxIdleSeconds;
+            }
+        }
+    }
+
+    public static class PasswordHashing {
+
+        /**
+         * BCrypt log rounds, each increment doubles the hashing time.
+         */
+        private int strength = 10;
+
+        /**
+         * Number of passwords hashed at the same time.
+         */
+        private int poolSize = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Number of hashes waiting for a thread of the pool, the next ones are rejected with a 503 status.
+         */
+        private int queueCapacity = 100;
+
+        /**
+         * Value of the Retry-After header of the rejected requests.
+         */
+        private long retryAfterSeconds = 1;
+
+        public int getStrength() {
+            return strength;
+        }
+
+        public void setStrength(int strength) {
+            this.strength = strength;
+        }
+
+        public int getPoolSize() {
+            return poolSize;
+        }
+
+        public void setPoolSize(int poolSize) {
+            this.poolSize = poolSize;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public long getRetryAfterSeconds() {
+            return retryAfterSeconds;
+        }
+
+        public void setRetryAfterSeconds(long retryAfterSeconds) {
+            this.retryAfterSeconds = retryAfterSeconds;
+        }
+    }
+
+    public static class NotActivatedUsers {
+
+        /**
+         * Number of not activated users removed in each transaction by the nightly job.
+         */
+        private int chunkSize = 500;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    public static class Mail {
+
+        /**
+         * Maximum number of emails sent through the same SMTP connection.
+         */
+        private int batchSize = 50;
+
+        /**
+         * Delay between two drains of the mail outbox.
+         */
+        private long pollIntervalInMillis = 1000;
+
+        /**
+         * Maximum delay before sending again an email which could not be sent, the delay doubling at each attempt.
+         */
+        private long maxRetryDelayInSeconds = 3600;
+
+        /**
+         * Number of attempts after which an email which could not be sent is dropped.
+         */
+        private int maxAttempts = 15;
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getPollIntervalInMillis() {
+            return pollIntervalInMillis;
+        }
+
+        public void setPollIntervalInMillis(long pollIntervalInMillis) {
+            this.pollIntervalInMillis = pollIntervalInMillis;
+        }
+
+        public long getMaxRetryDelayInSeconds() {
+            return maxRetryDelayInSeconds;
+        }
+
+        public void setMaxRetryDelayInSeconds(long maxRetryDelayInSeconds) {
+            this.maxRetryDelayInSeconds = maxRetryDelayInSeconds;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+    }
+
+    public static class Audit {
+
+        /**
+         * Maximum number of audit events waiting to be written, the next ones are handled by the overflow policy.
+         */
+        private int queueCapacity = 10000;
+
+        /**
+         * Number of audit events written in the same JDBC batch, a batch is written as soon as it is full.
+         */
+        private int batchSize = 100;
+
+        /**
+         * Maximum delay before writing the audit events of a batch which is not full.
+         */
+        private long flushIntervalInMillis = 1000;
+
+        private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+        /**
+         * Maximum time the BLOCK overflow policy waits for room in the queue, the event is then spilled.
+         */
+        private long blockTimeoutInMillis = 100;
+
+        /**
+         * Local file of the audit events spilled by the SPILL overflow policy, or by the BLOCK overflow policy after
+         * its timeout, written to the database later.
+         */
+        private String spillFile = "audit-events.spill";
+
+        /**
+         * Number of days the audit events are kept, the older daily partitions are dropped every night.
+         */
+        private int retentionDays = 90;
+
+        /**
+         * Number of days ahead for which the daily partitions are created.
+         */
+        private int partitionsAheadDays = 7;
+
+        /**
+         * Number of audit events read by each query of an export.
+         */
+        private int exportChunkSize = 1000;
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public long getFlushIntervalInMillis() {
+            return flushIntervalInMillis;
+        }
+
+        public void setFlushIntervalInMillis(long flushIntervalInMillis) {
+            this.flushIntervalInMillis = flushIntervalInMillis;
+        }
+
+        public OverflowPolicy getOverflowPolicy() {
+            return overflowPolicy;
+        }
+
+        public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+            this.overflowPolicy = overflowPolicy;
+        }
+
+        public long getBlockTimeoutInMillis() {
+            return blockTimeoutInMillis;
+        }
+
+        public void setBlockTimeoutInMillis(long blockTimeoutInMillis) {
+            this.blockTimeoutInMillis = blockTimeoutInMillis;
+        }
+
+        public String getSpillFile() {
+            return spillFile;
+        }
+
+        public void setSpillFile(String spillFile) {
+            this.spillFile = spillFile;
+        }
+
+        public int getRetentionDays() {
+            return retentionDays;
+        }
+
+        public void setRetentionDays(int retentionDays) {
+            this.retentionDays = retentionDays;
+        }
+
+        public int getPartitionsAheadDays() {
+            return partitionsAheadDays;
+        }
+
+        public void setPartitionsAheadDays(int partitionsAheadDays) {
+            this.partitionsAheadDays = partitionsAheadDays;
+        }
+
+        public int getExportChunkSize() {
+            return exportChunkSize;
+        }
+
+        public void setExportChunkSize(int exportChunkSize) {
+            this.exportChunkSize = exportChunkSize;
+        }
+
+        /**
+         * What to do with an audit event when the queue is full.
+         */
+        public enum OverflowPolicy {
+            /**
+             * Wait for room in the queue up to the block timeout, slowing down the authentications, and then append
+             * the audit event to the spill file.
+             */
+            BLOCK,
+            /**
+             * Drop the audit event, counted by the audit.events.dropped meter.
+             */
+            DROP,
+            /**
+             * Append the audit event to the spill file.
+             */
+            SPILL
+        }
+    }
 }
@@ -0,0 +1,69 @@
+package com.gateway.app.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+
+import javax.servlet.*;
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+
+/**
+ * Filter handing the requests of the UI to the Hazelcast clustered HTTP session filter, and letting the stateless
+ * requests through without looking up their session.
+ * <p>
+ * The requests authenticated by a Bearer token and the API calls, including the ones routed to the microservices,
+ * don't use the HTTP session: looking it up in the clustered session map would only add calls to Hazelcast.
+ */
+public class ClusteredHttpSessionFilter implements Filter {
+
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private static final String[] STATELESS_PATTERNS = { "/api/**", "/*/api/**" };
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    private final Filter sessionFilter;
+
+    public ClusteredHttpSessionFilter(Filter sessionFilter) {
+        this.sessionFilter = sessionFilter;
+    }
+
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        sessionFilter.init(filterConfig);
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        if (isStateless((HttpServletRequest) request)) {
+            chain.doFilter(request, response);
+        } else {
+            sessionFilter.doFilter(request, response, chain);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        sessionFilter.destroy();
+    }
+
+    /**
+     * @param request the request
+     * @return true if the request doesn't need an HTTP session
+     */
+    boolean isStateless(HttpServletRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.regionMatches(true, 0, BEARER_PREFIX, 0, BEARER_PREFIX.length())) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (String pattern : STATELESS_PATTERNS) {
+            if (pathMatcher.match(pattern, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,5 +1,7 @@
 package com.gateway.app.config;
 
+import com.gateway.app.repository.AuditEventBuffer;
+
 import io.github.jhipster.config.JHipsterProperties;
 import io.github.jhipster.config.metrics.SpectatorLogMetricWriter;
 
@@ -40,6 +42,7 @@ public class MetricsConfiguration extends MetricsConfigurerAdapter {
     private static final String PROP_METRIC_REG_JVM_FILES = "jvm.files";
     private static final String PROP_METRIC_REG_JVM_BUFFERS = "jvm.buffers";
     private static final String PROP_METRIC_REG_JVM_ATTRIBUTE_SET = "jvm.attributes";
+    private static final String PROP_METRIC_REG_AUDIT_EVENTS = "audit.events";
     private final Logger log = LoggerFactory.getLogger(MetricsConfiguration.class);
 
     private MetricRegistry metricRegistry = new MetricRegistry();
@@ -50,6 +53,8 @@ public class MetricsConfiguration extends MetricsConfigurerAdapter {
 
     private HikariDataSource hikariDataSource;
 
+    private AuditEventBuffer auditEventBuffer;
+
     public MetricsConfiguration(JHipsterProperties jHipsterProperties) {
         this.jHipsterProperties = jHipsterProperties;
     }
@@ -59,6 +64,11 @@ public class MetricsConfiguration extends MetricsConfigurerAdapter {
         this.hikariDataSource = hikariDataSource;
     }
 
+    @Autowired(required = false)
+    public void setAuditEventBuffer(AuditEventBuffer auditEventBuffer) {
+        this.auditEventBuffer = auditEventBuffer;
+    }
+
     @Override
     @Bean
     public MetricRegistry getMetricRegistry() {
@@ -84,6 +94,10 @@ public class MetricsConfiguration extends MetricsConfigurerAdapter {
             log.debug("Monitoring the datasource");
             hikariDataSource.setMetricRegistry(metricRegistry);
         }
+        if (auditEventBuffer != null) {
+            log.debug("Monitoring the audit event buffer");
+            metricRegistry.register(PROP_METRIC_REG_AUDIT_EVENTS, auditEventBuffer);
+        }
         if (jHipsterProperties.getMetrics().getJmx().isEnabled()) {
             log.debug("Initializing Metrics JMX reporting");
             JmxReporter jmxReporter = JmxReporter.forRegistry(metricRegistry).build();
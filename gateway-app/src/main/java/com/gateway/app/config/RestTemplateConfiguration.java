@@ -0,0 +1,36 @@
+package com.gateway.app.config;
+
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Configuration of the REST clients used to call the microservices, resolved through the service registry.
+ * <p>
+ * The timeouts are infinite by default: a microservice accepting the connection but never answering would hold the
+ * calling thread forever, so they are bounded by the application.gateway.rest-client properties.
+ */
+@Configuration
+public class RestTemplateConfiguration {
+
+    @Bean
+    @LoadBalanced
+    public RestTemplate loadBalancedRestTemplate(ApplicationProperties applicationProperties) {
+        return new RestTemplate(createRequestFactory(applicationProperties));
+    }
+
+    /**
+     * @param applicationProperties the properties holding the timeouts
+     * @return a request factory with the timeouts of the calls to the microservices
+     */
+    public static ClientHttpRequestFactory createRequestFactory(ApplicationProperties applicationProperties) {
+        ApplicationProperties.Gateway.RestClient restClient = applicationProperties.getGateway().getRestClient();
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(restClient.getConnectTimeoutInMillis());
+        requestFactory.setReadTimeout(restClient.getReadTimeoutInMillis());
+        return requestFactory;
+    }
+}
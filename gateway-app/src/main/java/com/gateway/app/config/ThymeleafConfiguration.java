@@ -3,6 +3,7 @@ package com.gateway.app.config;
 import org.apache.commons.lang3.CharEncoding;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafProperties;
 import org.springframework.context.annotation.*;
 import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
 
@@ -14,12 +15,13 @@ public class ThymeleafConfiguration {
 
     @Bean
     @Description("Thymeleaf template resolver serving HTML 5 emails")
-    public ClassLoaderTemplateResolver emailTemplateResolver() {
+    public ClassLoaderTemplateResolver emailTemplateResolver(ThymeleafProperties thymeleafProperties) {
         ClassLoaderTemplateResolver emailTemplateResolver = new ClassLoaderTemplateResolver();
         emailTemplateResolver.setPrefix("mails/");
         emailTemplateResolver.setSuffix(".html");
         emailTemplateResolver.setTemplateMode("HTML5");
         emailTemplateResolver.setCharacterEncoding(CharEncoding.UTF_8);
+        emailTemplateResolver.setCacheable(thymeleafProperties.isCache());
         emailTemplateResolver.setOrder(1);
         return emailTemplateResolver;
     }
@@ -4,6 +4,7 @@ import io.github.jhipster.config.JHipsterConstants;
 import io.github.jhipster.config.JHipsterProperties;
 import io.github.jhipster.web.filter.CachingHttpHeadersFilter;
 
+import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.servlet.InstrumentedFilter;
 import com.codahale.metrics.servlets.MetricsServlet;
@@ -68,13 +69,16 @@ public class WebConfigurer implements ServletContextInitializer, EmbeddedServlet
     }
 
     /**
-     * Initializes the Clustered Http Session filter
+     * Initializes the Clustered Http Session filter, only used by the UI: the requests authenticated by a Bearer token
+     * and the API calls don't look up the clustered session. The operations on the session map are reported by the
+     * hazelcast.clustered-http-sessions.* gauges.
      */
     private void initClusteredHttpSessionFilter(ServletContext servletContext, EnumSet<DispatcherType> disps) {
         log.debug("Registering Clustered Http Session Filter");
         servletContext.addListener(new SessionListener());
 
-        FilterRegistration.Dynamic hazelcastWebFilter = servletContext.addFilter("hazelcastWebFilter", new SpringAwareWebFilter());
+        FilterRegistration.Dynamic hazelcastWebFilter = servletContext.addFilter("hazelcastWebFilter",
+            new ClusteredHttpSessionFilter(new SpringAwareWebFilter()));
         Map<String, String> parameters = new HashMap<>();
         parameters.put("instance-name", hazelcastInstance.getName());
         // Name of the distributed map storing your web session objects
@@ -108,6 +112,18 @@ public class WebConfigurer implements ServletContextInitializer, EmbeddedServlet
         hazelcastWebFilter.setInitParameters(parameters);
         hazelcastWebFilter.addMappingForUrlPatterns(disps, true, "/*");
         hazelcastWebFilter.setAsyncSupported(true);
+
+        if (metricRegistry != null) {
+            metricRegistry.remove("hazelcast.clustered-http-sessions.gets");
+            metricRegistry.register("hazelcast.clustered-http-sessions.gets", (Gauge<Long>) () ->
+                hazelcastInstance.getMap("clustered-http-sessions").getLocalMapStats().getGetOperationCount());
+            metricRegistry.remove("hazelcast.clustered-http-sessions.puts");
+            metricRegistry.register("hazelcast.clustered-http-sessions.puts", (Gauge<Long>) () ->
+                hazelcastInstance.getMap("clustered-http-sessions").getLocalMapStats().getPutOperationCount());
+            metricRegistry.remove("hazelcast.clustered-http-sessions.entries");
+            metricRegistry.register("hazelcast.clustered-http-sessions.entries", (Gauge<Long>) () ->
+                hazelcastInstance.getMap("clustered-http-sessions").getLocalMapStats().getOwnedEntryCount());
+        }
     }
 
     /**
@@ -0,0 +1,52 @@
+package com.gateway.app.config.apidoc;
+
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A serialized aggregated Swagger document, kept both as is and gzipped, with its ETag.
+ */
+public final class AggregatedApiDocs {
+
+    private final byte[] content;
+
+    private final byte[] gzippedContent;
+
+    private final String etag;
+
+    private AggregatedApiDocs(byte[] content, byte[] gzippedContent, String etag) {
+        this.content = content;
+        this.gzippedContent = gzippedContent;
+        this.etag = etag;
+    }
+
+    /**
+     * @param content the UTF-8 JSON document
+     * @return the document, gzipped once and for all
+     */
+    public static AggregatedApiDocs of(byte[] content) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 4 + 64);
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(content);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new AggregatedApiDocs(content, out.toByteArray(), "\"" + DigestUtils.md5DigestAsHex(content) + "\"");
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+
+    public byte[] getGzippedContent() {
+        return gzippedContent;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+}
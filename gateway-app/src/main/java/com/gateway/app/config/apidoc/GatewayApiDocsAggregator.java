@@ -0,0 +1,314 @@
+package com.gateway.app.config.apidoc;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import com.gateway.app.config.ApplicationProperties;
+import com.gateway.app.config.RestTemplateConfiguration;
+
+import io.github.jhipster.config.JHipsterConstants;
+import io.github.jhipster.config.JHipsterProperties;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.cloud.netflix.zuul.RoutesRefreshedEvent;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import springfox.documentation.swagger2.web.Swagger2Controller;
+
+import javax.annotation.PreDestroy;
+
+/**
+ * Merges the Swagger documents of all the routed microservices into a single document.
+ * <p>
+ * The paths of each microservice are prefixed with the path of its route, so that they can be called through the
+ * gateway. The document is built in the background when the routes change and at a fixed interval, and it is then
+ * served from memory: users reading the API documentation no longer call every microservice. Until the first
+ * document is built, there is no document to serve, request threads never wait for a refresh.
+ * <p>
+ * The documents of the routes are fetched in parallel, and a refresh never lasts longer than its timeout: the
+ * microservices which did not answer by then are left out of the document until the next refresh.
+ */
+@Component
+@Profile(JHipsterConstants.SPRING_PROFILE_SWAGGER)
+public class GatewayApiDocsAggregator {
+
+    private static final String DEFINITION_REF_PREFIX = "#/definitions/";
+
+    private final Logger log = LoggerFactory.getLogger(GatewayApiDocsAggregator.class);
+
+    private final RouteLocator routeLocator;
+
+    private final RestTemplate loadBalancedRestTemplate;
+
+    private final RestTemplate restTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final ApplicationProperties.Gateway.ApiDocs properties;
+
+    private final Executor taskExecutor;
+
+    private final ExecutorService fetchExecutor;
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile String routesSignature;
+
+    private volatile AggregatedApiDocs apiDocs;
+
+    public GatewayApiDocsAggregator(RouteLocator routeLocator,
+            @Qualifier("loadBalancedRestTemplate") RestTemplate loadBalancedRestTemplate,
+            ObjectMapper objectMapper, JHipsterProperties jHipsterProperties,
+            ApplicationProperties applicationProperties, @Qualifier("taskExecutor") Executor taskExecutor) {
+        this.routeLocator = routeLocator;
+        this.loadBalancedRestTemplate = loadBalancedRestTemplate;
+        this.restTemplate = new RestTemplate(RestTemplateConfiguration.createRequestFactory(applicationProperties));
+        this.objectMapper = objectMapper;
+        this.jHipsterProperties = jHipsterProperties;
+        this.properties = applicationProperties.getGateway().getApiDocs();
+        this.taskExecutor = taskExecutor;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.fetchExecutor = Executors.newFixedThreadPool(properties.getFetchThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "api-docs-fetch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        fetchExecutor.shutdownNow();
+    }
+
+    /**
+     * Return the aggregated document, or null if no refresh has completed yet: a refresh is then requested, but it is
+     * not waited for.
+     *
+     * @return the aggregated document, or null
+     */
+    public AggregatedApiDocs getApiDocs() {
+        AggregatedApiDocs current = apiDocs;
+        if (current == null) {
+            requestRefresh();
+            current = apiDocs;
+        }
+        return current;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        requestRefresh();
+    }
+
+    /**
+     * Discovered routes are updated on heartbeats, so the document is only rebuilt when the routes actually changed.
+     */
+    @EventListener({RoutesRefreshedEvent.class, HeartbeatEvent.class})
+    public void onRoutesRefreshed() {
+        String signature = getRoutesSignature(routeLocator.getRoutes());
+        if (!signature.equals(routesSignature)) {
+            log.debug("Routes changed, refreshing the aggregated Swagger document");
+            requestRefresh();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${application.gateway.api-docs.refresh-interval-in-millis:300000}",
+        fixedDelayString = "${application.gateway.api-docs.refresh-interval-in-millis:300000}")
+    public void onRefreshInterval() {
+        requestRefresh();
+    }
+
+    private void requestRefresh() {
+        if (refreshing.compareAndSet(false, true)) {
+            try {
+                taskExecutor.execute(() -> {
+                    try {
+                        refresh();
+                    } finally {
+                        refreshing.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                log.warn("Could not schedule the refresh of the aggregated Swagger document: {}", e.getMessage());
+                refreshing.set(false);
+            }
+        }
+    }
+
+    /**
+     * Fetch the documents of all the routes and merge them. A microservice which can't be reached, or which did not
+     * answer before the refresh timeout, is left out of the document until the next refresh.
+     */
+    AggregatedApiDocs refresh() {
+        List<Route> routes = routeLocator.getRoutes();
+        Map<Route, Future<JsonNode>> fetches = new LinkedHashMap<>();
+        for (Route route : routes) {
+            try {
+                fetches.put(route, fetchExecutor.submit(() -> fetch(route)));
+            } catch (RejectedExecutionException e) {
+                log.warn("Could not fetch the Swagger document of route {}: {}", route.getId(), e.getMessage());
+            }
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getRefreshTimeoutInMillis());
+        Map<String, JsonNode> documents = new LinkedHashMap<>();
+        for (Map.Entry<Route, Future<JsonNode>> fetch : fetches.entrySet()) {
+            JsonNode document = await(fetch.getKey(), fetch.getValue(), deadline);
+            if (document != null) {
+                documents.put(getRoutePrefix(fetch.getKey()), document);
+            }
+        }
+        try {
+            AggregatedApiDocs aggregated = AggregatedApiDocs.of(objectMapper.writeValueAsBytes(merge(documents)));
+            apiDocs = aggregated;
+            routesSignature = getRoutesSignature(routes);
+            log.debug("Aggregated the Swagger documents of {} routes out of {}", documents.size(), routes.size());
+            return aggregated;
+        } catch (IOException e) {
+            log.error("Could not serialize the aggregated Swagger document", e);
+            return apiDocs;
+        }
+    }
+
+    private JsonNode await(Route route, Future<JsonNode> fetch, long deadline) {
+        try {
+            return fetch.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Swagger document of route {} not fetched before the refresh timeout", route.getId());
+            fetch.cancel(true);
+        } catch (ExecutionException e) {
+            log.warn("Could not fetch the Swagger document of route {}: {}", route.getId(), e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fetch.cancel(true);
+        }
+        return null;
+    }
+
+    private JsonNode fetch(Route route) {
+        String location = route.getLocation();
+        if (location == null) {
+            return null;
+        }
+        try {
+            if (location.contains("://")) {
+                return restTemplate.getForObject(location + Swagger2Controller.DEFAULT_URL, JsonNode.class);
+            }
+            // Routes of discovered services are located by service id, which is resolved by the load balancer
+            return loadBalancedRestTemplate.getForObject("http://" + location + Swagger2Controller.DEFAULT_URL,
+                JsonNode.class);
+        } catch (RestClientException | IllegalStateException e) {
+            log.warn("Could not fetch the Swagger document of route {}: {}", route.getId(), e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Merge the documents, by route path prefix, into one document whose base path is the root of the gateway.
+     * <p>
+     * A definition which differs from an already merged definition of the same name is renamed with the prefix of its
+     * route, for example "shopapp.Order", and the references of its document are rewritten to the new name.
+     */
+    ObjectNode merge(Map<String, JsonNode> documents) {
+        ObjectNode merged = objectMapper.createObjectNode();
+        merged.put("swagger", "2.0");
+        JHipsterProperties.Swagger swagger = jHipsterProperties.getSwagger();
+        merged.putObject("info")
+            .put("title", swagger.getTitle())
+            .put("description", swagger.getDescription())
+            .put("version", swagger.getVersion());
+        merged.put("basePath", "/");
+        ArrayNode tags = merged.putArray("tags");
+        ObjectNode paths = merged.putObject("paths");
+        ObjectNode securityDefinitions = merged.putObject("securityDefinitions");
+        ObjectNode definitions = merged.putObject("definitions");
+        Set<String> tagNames = new HashSet<>();
+
+        documents.forEach((prefix, routeDocument) -> {
+            Map<String, String> renamedDefinitions = new HashMap<>();
+            routeDocument.path("definitions").fields().forEachRemaining(definition -> {
+                JsonNode existing = definitions.get(definition.getKey());
+                if (existing != null && !existing.equals(definition.getValue())) {
+                    String renamed = getDefinitionNamespace(prefix) + "." + definition.getKey();
+                    log.debug("Swagger definition {} of {} differs from an already aggregated one, renamed to {}",
+                        definition.getKey(), prefix, renamed);
+                    renamedDefinitions.put(definition.getKey(), renamed);
+                }
+            });
+            JsonNode document = routeDocument;
+            if (!renamedDefinitions.isEmpty()) {
+                document = routeDocument.deepCopy();
+                renameReferences(document, renamedDefinitions);
+            }
+            String basePath = document.path("basePath").asText("/");
+            String pathPrefix = prefix + (basePath.endsWith("/") ? basePath.substring(0, basePath.length() - 1) : basePath);
+            document.path("paths").fields().forEachRemaining(path ->
+                paths.set(pathPrefix + path.getKey(), path.getValue()));
+            for (JsonNode tag : document.path("tags")) {
+                if (tagNames.add(tag.path("name").asText())) {
+                    tags.add(tag);
+                }
+            }
+            document.path("securityDefinitions").fields().forEachRemaining(securityDefinition -> {
+                if (!securityDefinitions.has(securityDefinition.getKey())) {
+                    securityDefinitions.set(securityDefinition.getKey(), securityDefinition.getValue());
+                }
+            });
+            document.path("definitions").fields().forEachRemaining(definition ->
+                definitions.set(renamedDefinitions.getOrDefault(definition.getKey(), definition.getKey()),
+                    definition.getValue()));
+        });
+        return merged;
+    }
+
+    private static void renameReferences(JsonNode node, Map<String, String> renamedDefinitions) {
+        JsonNode ref = node.get("$ref");
+        if (node.isObject() && ref != null && ref.asText().startsWith(DEFINITION_REF_PREFIX)) {
+            String renamed = renamedDefinitions.get(ref.asText().substring(DEFINITION_REF_PREFIX.length()));
+            if (renamed != null) {
+                ((ObjectNode) node).put("$ref", DEFINITION_REF_PREFIX + renamed);
+            }
+        }
+        for (JsonNode child : node) {
+            renameReferences(child, renamedDefinitions);
+        }
+    }
+
+    private static String getDefinitionNamespace(String routePrefix) {
+        return routePrefix.replaceAll("^/+", "").replace('/', '.');
+    }
+
+    private static String getRoutePrefix(Route route) {
+        String fullPath = route.getFullPath();
+        return fullPath.endsWith("/**") ? fullPath.substring(0, fullPath.length() - 3) : fullPath;
+    }
+
+    private static String getRoutesSignature(List<Route> routes) {
+        StringBuilder signature = new StringBuilder();
+        for (Route route : routes) {
+            signature.append(route.getId()).append('|').append(route.getFullPath()).append('|')
+                .append(route.getLocation()).append('\n');
+        }
+        return signature.toString();
+    }
+}
@@ -44,6 +44,9 @@ public class GatewaySwaggerResourcesProvider implements SwaggerResourcesProvider
         //Add the default swagger resource that correspond to the gateway's own swagger doc
         resources.add(swaggerResource("default", "/v2/api-docs"));
 
+        //Add the swagger doc of all the microservices, merged and cached by the gateway
+        resources.add(swaggerResource("aggregated", "/v2/api-docs/aggregated"));
+
         //Add the registered microservices swagger docs as additional swagger resources
         List<Route> routes = routeLocator.getRoutes();
         routes.forEach(route -> {
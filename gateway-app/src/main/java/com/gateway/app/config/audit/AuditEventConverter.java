@@ -44,19 +44,17 @@ public class AuditEventConverter {
 
     /**
      * Internal conversion. This is needed to support the current SpringBoot actuator AuditEventRepository interface
+     * <p>
+     * The data is not copied, so it is only decoded if the caller reads it.
      *
      * @param data the data to convert
-     * @return a map of String, Object
+     * @return a read-only view of the data, as a map of String, Object
      */
     public Map<String, Object> convertDataToObjects(Map<String, String> data) {
-        Map<String, Object> results = new HashMap<>();
-
-        if (data != null) {
-            for (Map.Entry<String, String> entry : data.entrySet()) {
-                results.put(entry.getKey(), entry.getValue());
-            }
+        if (data == null) {
+            return new HashMap<>();
         }
-        return results;
+        return Collections.unmodifiableMap(data);
     }
 
     /**
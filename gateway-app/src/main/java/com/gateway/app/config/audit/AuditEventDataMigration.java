@@ -0,0 +1,114 @@
+package com.gateway.app.config.audit;
+
+import com.gateway.app.domain.AuditEventData;
+
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Liquibase change copying the rows of the jhi_persistent_audit_evt_data table into the event_data column of their
+ * audit event, as the JSON object read by {@link AuditEventData}.
+ * <p>
+ * The events are migrated by chunks of event ids, each chunk written with a JDBC batch and committed on its own, so
+ * that the migration never holds a transaction over the whole table: its changeset is not run in a transaction. If
+ * the migration is interrupted, the changeset is run again from the first event, which only writes the same data
+ * again.
+ */
+public class AuditEventDataMigration implements CustomTaskChange {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private int migratedEvents;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        Connection connection = ((JdbcConnection) database.getConnection()).getUnderlyingConnection();
+        try (PreparedStatement selectIds = connection.prepareStatement(
+                "SELECT DISTINCT event_id FROM jhi_persistent_audit_evt_data WHERE event_id > ? ORDER BY event_id");
+            PreparedStatement selectData = connection.prepareStatement(
+                "SELECT event_id, name, value FROM jhi_persistent_audit_evt_data " +
+                    "WHERE event_id >= ? AND event_id <= ? ORDER BY event_id");
+            PreparedStatement update = connection.prepareStatement(
+                "UPDATE jhi_persistent_audit_event SET event_data = ? WHERE event_id = ?")) {
+
+            selectIds.setMaxRows(CHUNK_SIZE);
+            long afterId = 0;
+            List<Long> ids;
+            do {
+                ids = findIds(selectIds, afterId);
+                if (!ids.isEmpty()) {
+                    afterId = ids.get(ids.size() - 1);
+                    migrateChunk(selectData, update, ids.get(0), afterId);
+                    database.commit();
+                    migratedEvents += ids.size();
+                }
+            } while (ids.size() == CHUNK_SIZE);
+        } catch (SQLException | DatabaseException e) {
+            throw new CustomChangeException("Could not migrate the audit event data", e);
+        }
+    }
+
+    private static List<Long> findIds(PreparedStatement selectIds, long afterId) throws SQLException {
+        selectIds.setLong(1, afterId);
+        List<Long> ids = new ArrayList<>(CHUNK_SIZE);
+        try (ResultSet rs = selectIds.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getLong(1));
+            }
+        }
+        return ids;
+    }
+
+    private static void migrateChunk(PreparedStatement selectData, PreparedStatement update, long firstId, long lastId)
+            throws SQLException {
+        Map<Long, Map<String, String>> dataByEvent = new LinkedHashMap<>();
+        selectData.setLong(1, firstId);
+        selectData.setLong(2, lastId);
+        try (ResultSet rs = selectData.executeQuery()) {
+            while (rs.next()) {
+                dataByEvent.computeIfAbsent(rs.getLong(1), id -> new LinkedHashMap<>())
+                    .put(rs.getString(2), rs.getString(3));
+            }
+        }
+        for (Map.Entry<Long, Map<String, String>> entry : dataByEvent.entrySet()) {
+            update.setString(1, new AuditEventData(entry.getValue()).encode());
+            update.setLong(2, entry.getKey());
+            update.addBatch();
+        }
+        update.executeBatch();
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Migrated the data of " + migratedEvents + " audit events";
+    }
+
+    @Override
+    public void setUp() {
+        // Nothing to set up
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+        // No resource is read
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        return new ValidationErrors();
+    }
+}
@@ -0,0 +1,132 @@
+package com.gateway.app.domain;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.AbstractMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Data of an audit event, stored as a JSON object of strings in a single column.
+ * <p>
+ * The JSON is decoded only when the data is read, and stored again as is when the data was not read.
+ */
+public class AuditEventData extends AbstractMap<String, String> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final String encoded;
+
+    private Map<String, String> decoded;
+
+    /**
+     * @param encoded the JSON object, or null for no data
+     */
+    public AuditEventData(String encoded) {
+        this.encoded = encoded;
+    }
+
+    public AuditEventData(Map<String, String> data) {
+        this.encoded = null;
+        this.decoded = new LinkedHashMap<>(data);
+    }
+
+    /**
+     * @return true if the JSON object has been decoded
+     */
+    public boolean isDecoded() {
+        return decoded != null;
+    }
+
+    /**
+     * @return the JSON object, or null for no data
+     */
+    public String encode() {
+        if (decoded == null) {
+            return encoded;
+        }
+        StringWriter writer = new StringWriter(16 + decoded.size() * 32);
+        try (JsonGenerator generator = JSON_FACTORY.createGenerator(writer)) {
+            generator.writeStartObject();
+            for (Map.Entry<String, String> entry : decoded.entrySet()) {
+                generator.writeStringField(entry.getKey(), entry.getValue());
+            }
+            generator.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    private Map<String, String> decoded() {
+        if (decoded == null) {
+            decoded = decode(encoded);
+        }
+        return decoded;
+    }
+
+    private static Map<String, String> decode(String encoded) {
+        Map<String, String> data = new LinkedHashMap<>();
+        if (encoded == null) {
+            return data;
+        }
+        try (JsonParser parser = JSON_FACTORY.createParser(encoded)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalStateException("Audit event data is not a JSON object: " + encoded);
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                data.put(name, parser.getValueAsString());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return data;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return decoded().entrySet();
+    }
+
+    @Override
+    public int size() {
+        return decoded().size();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return decoded().containsKey(key);
+    }
+
+    @Override
+    public String get(Object key) {
+        return decoded().get(key);
+    }
+
+    @Override
+    public String put(String key, String value) {
+        return decoded().put(key, value);
+    }
+
+    @Override
+    public String remove(Object key) {
+        return decoded().remove(key);
+    }
+
+    @Override
+    public void clear() {
+        decoded().clear();
+    }
+}
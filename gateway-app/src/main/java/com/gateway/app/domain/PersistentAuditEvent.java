@@ -4,7 +4,6 @@ import javax.persistence.*;
 import javax.validation.constraints.NotNull;
 import java.io.Serializable;
 import java.time.Instant;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -16,7 +15,9 @@ import java.util.Map;
 public class PersistentAuditEvent implements Serializable {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "persistentAuditEventSequenceGenerator")
+    @SequenceGenerator(name = "persistentAuditEventSequenceGenerator",
+        sequenceName = "jhi_persistent_audit_event_sequence", allocationSize = 50)
     @Column(name = "event_id")
     private Long id;
 
@@ -29,11 +30,15 @@ public class PersistentAuditEvent implements Serializable {
     @Column(name = "event_type")
     private String auditEventType;
 
-    @ElementCollection
-    @MapKeyColumn(name = "name")
-    @Column(name = "value")
-    @CollectionTable(name = "jhi_persistent_audit_evt_data", joinColumns=@JoinColumn(name="event_id"))
-    private Map<String, String> data = new HashMap<>();
+    /**
+     * The data, as a JSON object read with the event instead of a table of its own, see {@link AuditEventData}.
+     */
+    @Lob
+    @Column(name = "event_data")
+    private String encodedData;
+
+    @Transient
+    private AuditEventData data;
 
     public Long getId() {
         return id;
@@ -67,11 +72,32 @@ public class PersistentAuditEvent implements Serializable {
         this.auditEventType = auditEventType;
     }
 
+    /**
+     * @return the data, decoded when it is first read
+     */
     public Map<String, String> getData() {
+        if (data == null) {
+            data = new AuditEventData(encodedData);
+        }
         return data;
     }
 
     public void setData(Map<String, String> data) {
-        this.data = data;
+        this.data = new AuditEventData(data);
+    }
+
+    /**
+     * @return the data as a JSON object, or null for no data, without decoding it
+     */
+    public String getEncodedData() {
+        return data == null ? encodedData : data.encode();
+    }
+
+    @PrePersist
+    @PreUpdate
+    private void encodeData() {
+        if (data != null && data.isDecoded()) {
+            encodedData = data.encode();
+        }
     }
 }
@@ -2,13 +2,13 @@ package com.gateway.app.gateway.accesscontrol;
 
 import io.github.jhipster.config.JHipsterProperties;
 
-import java.util.List;
-import java.util.Map;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.cloud.netflix.zuul.RoutesRefreshedEvent;
 import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.HttpStatus;
 
 import com.netflix.zuul.ZuulFilter;
@@ -16,6 +16,9 @@ import com.netflix.zuul.context.RequestContext;
 
 /**
  * Zuul filter for restricting access to backend micro-services endpoints.
+ * <p>
+ * The routes and their authorized endpoints are compiled into {@link AccessControlRules}, which are only rebuilt
+ * when the routes change.
  */
 public class AccessControlFilter extends ZuulFilter {
 
@@ -25,6 +28,10 @@ public class AccessControlFilter extends ZuulFilter {
 
     private final JHipsterProperties jHipsterProperties;
 
+    private volatile AccessControlRules accessControlRules;
+
+    private volatile boolean dirty = true;
+
     public AccessControlFilter(RouteLocator routeLocator, JHipsterProperties jHipsterProperties) {
         this.routeLocator = routeLocator;
         this.jHipsterProperties = jHipsterProperties;
@@ -48,43 +55,30 @@ public class AccessControlFilter extends ZuulFilter {
         String requestUri = RequestContext.getCurrentContext().getRequest().getRequestURI();
 
         // If the request Uri does not start with the path of the authorized endpoints, we block the request
-        for (Route route : routeLocator.getRoutes()) {
-            String serviceUrl = route.getFullPath();
-            String serviceName = route.getId();
-
-            // If this route correspond to the current request URI
-            // We do a substring to remove the "**" at the end of the route URL
-            if (requestUri.startsWith(serviceUrl.substring(0, serviceUrl.length() - 2))) {
-				return !isAuthorizedRequest(serviceUrl, serviceName, requestUri);
-            }
-        }
-        return true;
+        return !getAccessControlRules().isAuthorized(requestUri);
+    }
+
+    /**
+     * Rebuild the access control rules on the next request, as the routes have changed.
+     * <p>
+     * These are the events on which Zuul refreshes its routes: if the rules are rebuilt before Zuul is done, the
+     * next heartbeat will rebuild them again.
+     */
+    @EventListener({RoutesRefreshedEvent.class, HeartbeatEvent.class, RefreshScopeRefreshedEvent.class})
+    public void onRoutesRefreshed() {
+        this.dirty = true;
     }
 
-    private boolean isAuthorizedRequest(String serviceUrl, String serviceName, String requestUri) {
-        Map<String, List<String>> authorizedMicroservicesEndpoints = jHipsterProperties.getGateway()
-            .getAuthorizedMicroservicesEndpoints();
-
-        // If the authorized endpoints list was left empty for this route, all access are allowed
-        if (authorizedMicroservicesEndpoints.get(serviceName) == null) {
-            log.debug("Access Control: allowing access for {}, as no access control policy has been set up for " +
-                "service: {}", requestUri, serviceName);
-            return true;
-        } else {
-            List<String> authorizedEndpoints = authorizedMicroservicesEndpoints.get(serviceName);
-
-            // Go over the authorized endpoints to control that the request URI matches it
-            for (String endpoint : authorizedEndpoints) {
-                // We do a substring to remove the "**/" at the end of the route URL
-                String gatewayEndpoint = serviceUrl.substring(0, serviceUrl.length() - 3) + endpoint;
-                if (requestUri.startsWith(gatewayEndpoint)) {
-                    log.debug("Access Control: allowing access for {}, as it matches the following authorized " +
-                        "microservice endpoint: {}", requestUri, gatewayEndpoint);
-                    return true;
-                }
-            }
+    private AccessControlRules getAccessControlRules() {
+        AccessControlRules rules = accessControlRules;
+        if (dirty || rules == null) {
+            dirty = false;
+            log.debug("Access Control: building the access control rules of the routes");
+            rules = AccessControlRules.build(routeLocator.getRoutes(),
+                jHipsterProperties.getGateway().getAuthorizedMicroservicesEndpoints());
+            accessControlRules = rules;
         }
-        return false;
+        return rules;
     }
 
     @Override
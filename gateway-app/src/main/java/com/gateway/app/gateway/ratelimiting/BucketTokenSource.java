@@ -0,0 +1,29 @@
+package com.gateway.app.gateway.ratelimiting;
+
+import io.github.bucket4j.Bucket;
+
+/**
+ * Source of the local leases backed by a distributed Bucket4j bucket.
+ */
+class BucketTokenSource implements LocalRateLimiter.TokenSource {
+
+    private final Bucket bucket;
+
+    BucketTokenSource(Bucket bucket) {
+        this.bucket = bucket;
+    }
+
+    @Override
+    public long take(long tokens) {
+        if (tokens <= 1) {
+            return bucket.tryConsume(1) ? 1 : 0;
+        }
+        return bucket.tryConsumeAsMuchAsPossible(tokens);
+    }
+
+    @Override
+    public void giveBack(long tokens) {
+        // The bucket is not refilled above its capacity
+        bucket.addTokens(tokens);
+    }
+}
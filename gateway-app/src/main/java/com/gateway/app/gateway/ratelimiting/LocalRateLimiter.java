@@ -0,0 +1,156 @@
+package com.gateway.app.gateway.ratelimiting;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Node-local tier of the rate limiter, holding leases of tokens taken from the distributed buckets.
+ * <p>
+ * Each lease is a batch of tokens already consumed from the distributed bucket of a client, which are then spent
+ * locally with a lock-free decrement. The distributed store is only called once per lease instead of once per
+ * request, and as tokens are consumed there before being spent here, the cluster-wide limit is never exceeded:
+ * a node can at most hold "lease size" unspent tokens per client, which are given back to the distributed bucket
+ * when the lease expires.
+ * <p>
+ * Leases are sized from the rate of the client: a client starts with single tokens, its lease doubles each time it
+ * is spent before expiring, up to the lease size, and shrinks to the number of tokens it spent when it expires.
+ * A client sending less than one request per lease duration therefore takes one token per request.
+ */
+public class LocalRateLimiter {
+
+    /**
+     * Distributed bucket of a client.
+     */
+    public interface TokenSource {
+
+        /**
+         * Consume up to the requested number of tokens.
+         *
+         * @param tokens the number of requested tokens
+         * @return the number of tokens actually consumed
+         */
+        long take(long tokens);
+
+        /**
+         * Give back unspent tokens.
+         *
+         * @param tokens the number of tokens
+         */
+        void giveBack(long tokens);
+    }
+
+    private final ConcurrentMap<String, Lease> leases = new ConcurrentHashMap<>();
+
+    private final long leaseSize;
+
+    private final long leaseDurationInMillis;
+
+    public LocalRateLimiter(long leaseSize, long leaseDurationInMillis) {
+        this.leaseSize = leaseSize;
+        this.leaseDurationInMillis = leaseDurationInMillis;
+    }
+
+    /**
+     * Try to consume one token for this client.
+     *
+     * @param id the client id
+     * @param tokenSource the distributed bucket of the client
+     * @return true if a token was consumed, false if the limit is exceeded
+     */
+    public boolean tryConsume(String id, TokenSource tokenSource) {
+        long now = System.currentTimeMillis();
+        Lease current = leases.get(id);
+        if (current != null && current.tryConsume(now)) {
+            return true;
+        }
+        long size = nextLeaseSize(current, now);
+        if (current != null) {
+            giveBack(current);
+        }
+        long granted = tokenSource.take(size);
+        if (granted <= 0) {
+            return false;
+        }
+        Lease lease = new Lease(tokenSource, granted, now + leaseDurationInMillis);
+        boolean installed = current == null ? leases.putIfAbsent(id, lease) == null :
+            leases.replace(id, current, lease);
+        if (!installed) {
+            // Another request of this client installed its own lease meanwhile
+            giveBack(lease);
+        }
+        return true;
+    }
+
+    private long nextLeaseSize(Lease current, long now) {
+        if (current == null) {
+            return 1;
+        }
+        if (!current.isExpired(now)) {
+            return Math.max(1, Math.min(leaseSize, current.size * 2));
+        }
+        return Math.max(1, Math.min(leaseSize, current.size - current.availableTokens.get()));
+    }
+
+    /**
+     * Remove the expired leases, and give their unspent tokens back to the distributed buckets.
+     */
+    public void expireLeases() {
+        long now = System.currentTimeMillis();
+        leases.forEach((id, lease) -> {
+            if (lease.isExpired(now) && leases.remove(id, lease)) {
+                giveBack(lease);
+            }
+        });
+    }
+
+    int getLeaseCount() {
+        return leases.size();
+    }
+
+    private static void giveBack(Lease lease) {
+        long unspent = lease.availableTokens.getAndSet(0);
+        if (unspent > 0) {
+            lease.tokenSource.giveBack(unspent);
+        }
+    }
+
+    private static class Lease {
+
+        private final TokenSource tokenSource;
+
+        private final long size;
+
+        private final AtomicLong availableTokens;
+
+        private final long expirationTime;
+
+        /**
+         * @param size the number of tokens of the lease, one of them being spent by the request taking the lease
+         */
+        Lease(TokenSource tokenSource, long size, long expirationTime) {
+            this.tokenSource = tokenSource;
+            this.size = size;
+            this.availableTokens = new AtomicLong(size - 1);
+            this.expirationTime = expirationTime;
+        }
+
+        boolean isExpired(long now) {
+            return expirationTime <= now;
+        }
+
+        boolean tryConsume(long now) {
+            if (isExpired(now)) {
+                return false;
+            }
+            long available = availableTokens.get();
+            while (available > 0) {
+                if (availableTokens.compareAndSet(available, available - 1)) {
+                    return true;
+                }
+                available = availableTokens.get();
+            }
+            return false;
+        }
+    }
+}
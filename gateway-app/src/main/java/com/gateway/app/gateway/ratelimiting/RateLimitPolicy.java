@@ -0,0 +1,72 @@
+package com.gateway.app.gateway.ratelimiting;
+
+import com.gateway.app.config.ApplicationProperties;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket4j;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConfigurationBuilder;
+
+/**
+ * A precompiled rate limit policy: the bucket configuration shared by all the buckets of this policy, and the delay
+ * after which an over-limit client can retry.
+ */
+public class RateLimitPolicy {
+
+    private final String name;
+
+    private final BucketConfiguration bucketConfiguration;
+
+    private final Supplier<BucketConfiguration> bucketConfigurationSupplier;
+
+    private final long retryAfterSeconds;
+
+    private RateLimitPolicy(String name, BucketConfiguration bucketConfiguration, long retryAfterSeconds) {
+        this.name = name;
+        this.bucketConfiguration = bucketConfiguration;
+        this.bucketConfigurationSupplier = () -> bucketConfiguration;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Build a policy from its bandwidths, all of which must be respected.
+     *
+     * @param name the policy name, which prefixes the ids of its buckets
+     * @param limits the bandwidths of the policy
+     * @return the policy
+     */
+    public static RateLimitPolicy of(String name, List<ApplicationProperties.Gateway.RateLimiting.Limit> limits) {
+        if (limits == null || limits.isEmpty()) {
+            throw new IllegalArgumentException("The rate limit policy " + name + " has no limit");
+        }
+        ConfigurationBuilder builder = Bucket4j.configurationBuilder();
+        long retryAfterSeconds = 1;
+        for (ApplicationProperties.Gateway.RateLimiting.Limit limit : limits) {
+            builder.addLimit(Bandwidth.simple(limit.getLimit(), Duration.ofSeconds(limit.getDurationInSeconds())));
+            // The bandwidths are refilled greedily, so one token is back after duration / limit
+            long refillSeconds = (limit.getDurationInSeconds() + limit.getLimit() - 1) / Math.max(limit.getLimit(), 1);
+            retryAfterSeconds = Math.max(retryAfterSeconds, refillSeconds);
+        }
+        return new RateLimitPolicy(name, builder.buildConfiguration(), retryAfterSeconds);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public BucketConfiguration getBucketConfiguration() {
+        return bucketConfiguration;
+    }
+
+    public Supplier<BucketConfiguration> getBucketConfigurationSupplier() {
+        return bucketConfigurationSupplier;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
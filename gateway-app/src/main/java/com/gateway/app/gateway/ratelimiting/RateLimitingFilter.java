@@ -1,9 +1,12 @@
 package com.gateway.app.gateway.ratelimiting;
 
+import com.gateway.app.config.ApplicationProperties;
 import com.gateway.app.security.SecurityUtils;
 
-import java.time.Duration;
-import java.util.function.Supplier;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import javax.cache.CacheManager;
 import javax.cache.Caching;
 import javax.cache.configuration.CompleteConfiguration;
@@ -13,7 +16,13 @@ import javax.servlet.http.HttpServletRequest;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.cloud.netflix.zuul.filters.support.FilterConstants;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 
 import com.netflix.zuul.ZuulFilter;
 import com.netflix.zuul.context.RequestContext;
@@ -26,6 +35,13 @@ import io.github.jhipster.config.JHipsterProperties;
 
 /**
  * Zuul filter for limiting the number of HTTP calls per client.
+ * <p>
+ * Tokens are taken from the distributed buckets by leases, which are then spent locally by the
+ * {@link LocalRateLimiter}, so that most requests do not need a call to the distributed cache.
+ * <p>
+ * The limits of a request are given by the {@link RateLimitPolicy} of the first configured authority granted to the
+ * caller, or else by the policy of the requested route, or else by the default JHipster limit. All policies are
+ * built once, when the filter is created.
  *
  * See the Bucket4j documentation at https://github.com/vladimir-bukhtoyarov/bucket4j
  * https://github.com/vladimir-bukhtoyarov/bucket4j/blob/master/doc-pages/jcache-usage
@@ -37,14 +53,31 @@ public class RateLimitingFilter extends ZuulFilter {
 
     public final static String GATEWAY_RATE_LIMITING_CACHE_NAME = "gateway-rate-limiting";
 
+    public final static String RATE_LIMIT_REMAINING_HEADER = "X-RateLimit-Remaining";
+
     private final JHipsterProperties jHipsterProperties;
 
     private javax.cache.Cache<String, GridBucketState> cache;
 
     private ProxyManager<String> buckets;
 
-    public RateLimitingFilter(JHipsterProperties jHipsterProperties) {
+    private final LocalRateLimiter localRateLimiter;
+
+    private final RateLimitPolicy defaultPolicy;
+
+    private final Map<String, RateLimitPolicy> routePolicies;
+
+    private final Map<String, RateLimitPolicy> authorityPolicies;
+
+    public RateLimitingFilter(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
         this.jHipsterProperties = jHipsterProperties;
+        ApplicationProperties.Gateway.RateLimiting rateLimitingProperties =
+            applicationProperties.getGateway().getRateLimiting();
+        this.localRateLimiter = new LocalRateLimiter(rateLimitingProperties.getLeaseSize(),
+            rateLimitingProperties.getLeaseDurationInMillis());
+        this.defaultPolicy = createDefaultPolicy();
+        this.routePolicies = createPolicies("route", rateLimitingProperties.getRoutes());
+        this.authorityPolicies = createPolicies("authority", rateLimitingProperties.getAuthorities());
 
         CachingProvider cachingProvider = Caching.getCachingProvider();
         CacheManager cacheManager = cachingProvider.getCacheManager();
@@ -75,37 +108,82 @@ public class RateLimitingFilter extends ZuulFilter {
 
     @Override
     public Object run() {
-        String bucketId = getId(RequestContext.getCurrentContext().getRequest());
-        Bucket bucket = buckets.getProxy(bucketId, getConfigSupplier());
-        if (bucket.tryConsume(1)) {
+        RequestContext ctx = RequestContext.getCurrentContext();
+        RateLimitPolicy policy = resolvePolicy(ctx);
+        String bucketId = getBucketId(policy, getId(ctx.getRequest()));
+        Bucket bucket = buckets.getProxy(bucketId, policy.getBucketConfigurationSupplier());
+        if (localRateLimiter.tryConsume(bucketId, new BucketTokenSource(bucket))) {
             // the limit is not exceeded
             log.debug("API rate limit OK for {}", bucketId);
         } else {
             // limit is exceeded
             log.info("API rate limit exceeded for {}", bucketId);
-            apiLimitExceeded();
+            apiLimitExceeded(policy);
         }
         return null;
     }
 
-    private Supplier<BucketConfiguration> getConfigSupplier() {
-        return () -> {
-            JHipsterProperties.Gateway.RateLimiting rateLimitingProperties =
-                jHipsterProperties.getGateway().getRateLimiting();
+    /**
+     * Give the unspent tokens of the expired leases back to the distributed buckets, so that they can be spent
+     * by the other gateway instances.
+     */
+    @Scheduled(fixedDelayString = "${application.gateway.rate-limiting.lease-duration-in-millis:1000}")
+    public void expireLeases() {
+        localRateLimiter.expireLeases();
+    }
+
+    private RateLimitPolicy resolvePolicy(RequestContext ctx) {
+        if (!authorityPolicies.isEmpty()) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null) {
+                for (Map.Entry<String, RateLimitPolicy> authorityPolicy : authorityPolicies.entrySet()) {
+                    for (GrantedAuthority grantedAuthority : authentication.getAuthorities()) {
+                        if (authorityPolicy.getKey().equals(grantedAuthority.getAuthority())) {
+                            return authorityPolicy.getValue();
+                        }
+                    }
+                }
+            }
+        }
+        Object routeId = ctx.get(FilterConstants.PROXY_KEY);
+        RateLimitPolicy routePolicy = routeId == null ? null : routePolicies.get(routeId);
+        return routePolicy != null ? routePolicy : defaultPolicy;
+    }
+
+    /**
+     * Buckets of the default policy are identified by the client id only, the others are prefixed by their policy.
+     */
+    private String getBucketId(RateLimitPolicy policy, String id) {
+        if (policy == defaultPolicy) {
+            return id;
+        }
+        return policy.getName() + ":" + id;
+    }
+
+    private RateLimitPolicy createDefaultPolicy() {
+        JHipsterProperties.Gateway.RateLimiting rateLimitingProperties =
+            jHipsterProperties.getGateway().getRateLimiting();
+        ApplicationProperties.Gateway.RateLimiting.Limit limit = new ApplicationProperties.Gateway.RateLimiting.Limit();
+        limit.setLimit(rateLimitingProperties.getLimit());
+        limit.setDurationInSeconds(rateLimitingProperties.getDurationInSeconds());
+        return RateLimitPolicy.of("default", Collections.singletonList(limit));
+    }
 
-            return Bucket4j.configurationBuilder()
-                .addLimit(Bandwidth.simple(rateLimitingProperties.getLimit(),
-                    Duration.ofSeconds(rateLimitingProperties.getDurationInSeconds())))
-                .buildConfiguration();
-        };
+    private static Map<String, RateLimitPolicy> createPolicies(String type,
+            Map<String, List<ApplicationProperties.Gateway.RateLimiting.Limit>> limits) {
+        Map<String, RateLimitPolicy> policies = new LinkedHashMap<>();
+        limits.forEach((key, policyLimits) -> policies.put(key, RateLimitPolicy.of(type + ":" + key, policyLimits)));
+        return Collections.unmodifiableMap(policies);
     }
 
     /**
      * Create a Zuul response error when the API limit is exceeded.
      */
-    private void apiLimitExceeded() {
+    private void apiLimitExceeded(RateLimitPolicy policy) {
         RequestContext ctx = RequestContext.getCurrentContext();
         ctx.setResponseStatusCode(HttpStatus.TOO_MANY_REQUESTS.value());
+        ctx.getResponse().setHeader(RATE_LIMIT_REMAINING_HEADER, "0");
+        ctx.getResponse().setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(policy.getRetryAfterSeconds()));
         if (ctx.getResponseBody() == null) {
             ctx.setResponseBody("API rate limit exceeded");
             ctx.setSendZuulResponse(false);
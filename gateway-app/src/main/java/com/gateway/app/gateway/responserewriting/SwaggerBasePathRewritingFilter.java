@@ -1,27 +1,42 @@
 package com.gateway.app.gateway.responserewriting;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.netflix.util.Pair;
 import com.netflix.zuul.context.RequestContext;
-import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cloud.netflix.zuul.filters.post.SendResponseFilter;
+import org.springframework.http.HttpHeaders;
 import springfox.documentation.swagger2.web.Swagger2Controller;
 
-import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
-import java.util.LinkedHashMap;
+import java.io.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Zuul filter to rewrite micro-services Swagger URL Base Path.
+ * <p>
+ * The Swagger document is streamed token by token, and only its top-level "basePath" field is replaced, so the
+ * document is never deserialized. When the micro-service returns an ETag, the rewritten document is kept for this
+ * route until the ETag changes.
  */
 public class SwaggerBasePathRewritingFilter extends SendResponseFilter {
 
     private final Logger log = LoggerFactory.getLogger(SwaggerBasePathRewritingFilter.class);
 
-    private ObjectMapper mapper = new ObjectMapper();
+    private static final String BASE_PATH_FIELD = "basePath";
+
+    private static final int MAX_CACHED_DOCUMENTS = 100;
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    private final Map<String, RewrittenDocument> rewrittenDocuments = new ConcurrentHashMap<>();
 
     @Override
     public String filterType() {
@@ -44,35 +59,137 @@ public class SwaggerBasePathRewritingFilter extends SendResponseFilter {
     @Override
     public Object run() {
         RequestContext context = RequestContext.getCurrentContext();
+        context.getResponse().setCharacterEncoding("UTF-8");
 
-        if (!context.getResponseGZipped()) {
-            context.getResponse().setCharacterEncoding("UTF-8");
+        String requestUri = context.getRequest().getRequestURI();
+        String basePath = requestUri.replace(Swagger2Controller.DEFAULT_URL, "");
+        try {
+            RewrittenDocument document = getRewrittenDocument(context, basePath);
+            if (document == null) {
+                return null;
+            }
+            byte[] body;
+            if (isGzipRequested(context)) {
+                body = document.getGzippedContent();
+                context.setResponseGZipped(true);
+            } else {
+                body = document.getContent();
+                context.setResponseGZipped(false);
+            }
+            context.setOriginContentLength((long) body.length);
+            context.setResponseDataStream(new ByteArrayInputStream(body));
+        } catch (IOException e) {
+            log.error("Swagger-docs filter error", e);
         }
-
-        String rewrittenResponse = rewriteBasePath(context);
-        context.setResponseBody(rewrittenResponse);
         return null;
     }
 
-    private String rewriteBasePath(RequestContext context) {
+    private RewrittenDocument getRewrittenDocument(RequestContext context, String basePath) throws IOException {
         InputStream responseDataStream = context.getResponseDataStream();
-        String requestUri = RequestContext.getCurrentContext().getRequest().getRequestURI();
-        try {
-            if (context.getResponseGZipped()) {
-                responseDataStream = new GZIPInputStream(context.getResponseDataStream());
+        if (responseDataStream == null) {
+            return null;
+        }
+        String etag = getOriginETag(context);
+        RewrittenDocument cachedDocument = rewrittenDocuments.get(basePath);
+        if (etag != null && cachedDocument != null && etag.equals(cachedDocument.etag)) {
+            log.debug("Swagger-docs: using the cached document of {} for ETag {}", basePath, etag);
+            responseDataStream.close();
+            return cachedDocument;
+        }
+        if (context.getResponseGZipped()) {
+            responseDataStream = new GZIPInputStream(responseDataStream);
+        }
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try (InputStream in = responseDataStream) {
+            rewriteBasePath(in, content, basePath);
+        }
+        log.debug("Swagger-docs: rewritten Base URL with correct micro-service route: {}", basePath);
+        RewrittenDocument document = new RewrittenDocument(etag, content.toByteArray());
+        if (etag != null) {
+            if (rewrittenDocuments.size() >= MAX_CACHED_DOCUMENTS) {
+                rewrittenDocuments.clear();
             }
-            String response = IOUtils.toString(responseDataStream, StandardCharsets.UTF_8);
-            if (response != null) {
-                LinkedHashMap<String, Object> map = this.mapper.readValue(response, LinkedHashMap.class);
-
-                String basePath = requestUri.replace(Swagger2Controller.DEFAULT_URL,"");
-                map.put("basePath",basePath);
-                log.debug("Swagger-docs: rewritten Base URL with correct micro-service route: {}", basePath);
-                return mapper.writeValueAsString(map);
+            rewrittenDocuments.put(basePath, document);
+        }
+        return document;
+    }
+
+    /**
+     * Copy the JSON document token by token, replacing or adding its top-level "basePath" field.
+     */
+    void rewriteBasePath(InputStream in, OutputStream out, String basePath) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(in);
+             JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("The Swagger document is not a JSON object");
+            }
+            generator.writeStartObject();
+            boolean basePathWritten = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                parser.nextToken();
+                if (BASE_PATH_FIELD.equals(fieldName)) {
+                    parser.skipChildren();
+                    generator.writeStringField(BASE_PATH_FIELD, basePath);
+                    basePathWritten = true;
+                } else {
+                    generator.writeFieldName(fieldName);
+                    generator.copyCurrentStructure(parser);
+                }
+            }
+            if (!basePathWritten) {
+                generator.writeStringField(BASE_PATH_FIELD, basePath);
+            }
+            generator.writeEndObject();
+        }
+    }
+
+    private static String getOriginETag(RequestContext context) {
+        for (Pair<String, String> header : context.getZuulResponseHeaders()) {
+            if (HttpHeaders.ETAG.equalsIgnoreCase(header.first())) {
+                return header.second();
             }
-        } catch (IOException e) {
-            log.error("Swagger-docs filter error", e);
         }
         return null;
     }
+
+    private static boolean isGzipRequested(RequestContext context) {
+        String acceptEncoding = context.getRequest().getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+    }
+
+    /**
+     * A rewritten Swagger document, gzipped on demand.
+     */
+    private static class RewrittenDocument {
+
+        private final String etag;
+
+        private final byte[] content;
+
+        private volatile byte[] gzippedContent;
+
+        RewrittenDocument(String etag, byte[] content) {
+            this.etag = etag;
+            this.content = content;
+        }
+
+        byte[] getContent() {
+            return content;
+        }
+
+        byte[] getGzippedContent() throws IOException {
+            byte[] gzipped = gzippedContent;
+            if (gzipped == null) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 4 + 64);
+                try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+                    gzipOut.write(content);
+                }
+                gzipped = out.toByteArray();
+                gzippedContent = gzipped;
+            }
+            return gzipped;
+        }
+    }
 }
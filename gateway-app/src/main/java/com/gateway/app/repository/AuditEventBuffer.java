@@ -0,0 +1,358 @@
+package com.gateway.app.repository;
+
+import com.gateway.app.config.ApplicationProperties;
+import com.gateway.app.domain.PersistentAuditEvent;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricSet;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded queue of the audit events, written to the database in JDBC batches by a background thread.
+ * <p>
+ * A batch is written as soon as it is full, or when the flush interval is elapsed, and the remaining events are
+ * written on shutdown. When the queue is full, the events are handled by the overflow policy: the caller waits for a
+ * bounded time, or the event is dropped, or it is appended to a local spill file, written to the database once the
+ * queue is empty. The events for which the caller waited in vain are spilled too, so that a database outage never
+ * holds the authentications.
+ * A batch which could not be written is retried at the next flush.
+ */
+@Component
+public class AuditEventBuffer implements MetricSet {
+
+    private static final long SHUTDOWN_TIMEOUT_IN_MILLIS = 10000;
+
+    private final Logger log = LoggerFactory.getLogger(AuditEventBuffer.class);
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationProperties.Audit properties;
+
+    private final BlockingQueue<PersistentAuditEvent> queue;
+
+    private final Path spillFile;
+
+    private final Path replayedSpillFile;
+
+    private final Object signal = new Object();
+
+    private final Object spillLock = new Object();
+
+    private final Meter queued = new Meter();
+
+    private final Meter dropped = new Meter();
+
+    private final Meter spilled = new Meter();
+
+    private final Meter blockTimeouts = new Meter();
+
+    private final Meter written = new Meter();
+
+    private final Meter failed = new Meter();
+
+    private final Timer flushes = new Timer();
+
+    private volatile List<PersistentAuditEvent> pending = Collections.emptyList();
+
+    private Thread writer;
+
+    private volatile boolean running;
+
+    public AuditEventBuffer(EntityManager entityManager, PlatformTransactionManager transactionManager,
+            ObjectMapper objectMapper, ApplicationProperties applicationProperties) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.properties = applicationProperties.getAudit();
+        this.queue = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        this.spillFile = Paths.get(properties.getSpillFile());
+        this.replayedSpillFile = Paths.get(properties.getSpillFile() + ".replayed");
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        writer = new Thread(this::writeEvents, "audit-event-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stop the background thread, and write the remaining events.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+        writer.join(SHUTDOWN_TIMEOUT_IN_MILLIS);
+        flush();
+        int lost = pending.size() + queue.size();
+        if (lost > 0) {
+            if (properties.getOverflowPolicy() == ApplicationProperties.Audit.OverflowPolicy.SPILL) {
+                List<PersistentAuditEvent> events = new ArrayList<>(pending);
+                queue.drainTo(events);
+                spill(events);
+            } else {
+                log.error("{} audit events could not be written on shutdown", lost);
+            }
+        }
+    }
+
+    /**
+     * Queue an audit event, the caller may wait up to the block timeout if the queue is full and the overflow policy
+     * is BLOCK.
+     */
+    public void add(PersistentAuditEvent event) {
+        if (queue.offer(event)) {
+            queued.mark();
+            if (queue.size() >= properties.getBatchSize()) {
+                synchronized (signal) {
+                    signal.notifyAll();
+                }
+            }
+            return;
+        }
+        switch (properties.getOverflowPolicy()) {
+            case BLOCK:
+                block(event);
+                break;
+            case SPILL:
+                spill(Collections.singletonList(event));
+                break;
+            default:
+                log.warn("Audit event queue full, the event of {} is dropped", event.getPrincipal());
+                dropped.mark();
+        }
+    }
+
+    private void block(PersistentAuditEvent event) {
+        try {
+            if (queue.offer(event, properties.getBlockTimeoutInMillis(), TimeUnit.MILLISECONDS)) {
+                queued.mark();
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while queuing the audit event of {}, the event is dropped", event.getPrincipal());
+            dropped.mark();
+            return;
+        }
+        log.warn("Audit event queue still full after {} ms, the event of {} is spilled",
+            properties.getBlockTimeoutInMillis(), event.getPrincipal());
+        blockTimeouts.mark();
+        spill(Collections.singletonList(event));
+    }
+
+    /**
+     * Write all the queued events, and then the spilled events.
+     *
+     * @return the number of events written
+     */
+    public synchronized int flush() {
+        int count = 0;
+        if (!pending.isEmpty()) {
+            if (!write(pending)) {
+                return count;
+            }
+            count += pending.size();
+            pending = Collections.emptyList();
+        }
+        List<PersistentAuditEvent> batch = new ArrayList<>(properties.getBatchSize());
+        while (queue.drainTo(batch, properties.getBatchSize()) > 0) {
+            if (!write(batch)) {
+                pending = batch;
+                return count;
+            }
+            count += batch.size();
+            batch = new ArrayList<>(properties.getBatchSize());
+        }
+        return count + replaySpilledEvents();
+    }
+
+    private void writeEvents() {
+        while (running) {
+            long deadline = System.currentTimeMillis() + properties.getFlushIntervalInMillis();
+            synchronized (signal) {
+                long remaining = properties.getFlushIntervalInMillis();
+                // A full batch is written at once, unless the previous batch failed
+                while (running && remaining > 0 &&
+                    (queue.size() < properties.getBatchSize() || !pending.isEmpty())) {
+                    try {
+                        signal.wait(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    remaining = deadline - System.currentTimeMillis();
+                }
+            }
+            if (!running) {
+                return;
+            }
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                log.error("Audit events could not be flushed", e);
+            }
+        }
+    }
+
+    /**
+     * Insert the events in a single transaction, with JDBC batches as large as the batch.
+     *
+     * @return true if the events are written, false if they must be retried
+     */
+    private boolean write(List<PersistentAuditEvent> events) {
+        Timer.Context time = flushes.time();
+        try {
+            transactionTemplate.execute(status -> {
+                Session session = entityManager.unwrap(Session.class);
+                Integer jdbcBatchSize = session.getJdbcBatchSize();
+                session.setJdbcBatchSize(properties.getBatchSize());
+                try {
+                    events.forEach(entityManager::persist);
+                    entityManager.flush();
+                } finally {
+                    session.setJdbcBatchSize(jdbcBatchSize);
+                }
+                return null;
+            });
+            written.mark(events.size());
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("{} audit events could not be written, they will be retried: {}", events.size(),
+                e.getMessage());
+            failed.mark(events.size());
+            // The ids allocated by the rolled back transaction are not used
+            events.forEach(event -> event.setId(null));
+            return false;
+        } finally {
+            time.stop();
+        }
+    }
+
+    private void spill(List<PersistentAuditEvent> events) {
+        synchronized (spillLock) {
+            try (BufferedWriter out = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (PersistentAuditEvent event : events) {
+                    Map<String, Object> line = new LinkedHashMap<>();
+                    line.put("principal", event.getPrincipal());
+                    line.put("type", event.getAuditEventType());
+                    line.put("date", event.getAuditEventDate().toString());
+                    line.put("data", event.getData());
+                    out.write(objectMapper.writeValueAsString(line));
+                    out.newLine();
+                }
+                spilled.mark(events.size());
+            } catch (IOException e) {
+                log.error("{} audit events could not be spilled to {}, they are dropped", events.size(),
+                    spillFile, e);
+                dropped.mark(events.size());
+            }
+        }
+    }
+
+    /**
+     * Write the events of the spill file, the ones which could not be written are spilled again.
+     */
+    @SuppressWarnings("unchecked")
+    private int replaySpilledEvents() {
+        synchronized (spillLock) {
+            // A file left by a replay interrupted by a crash is replayed first
+            if (!Files.exists(replayedSpillFile)) {
+                if (!Files.exists(spillFile)) {
+                    return 0;
+                }
+                try {
+                    Files.move(spillFile, replayedSpillFile);
+                } catch (IOException e) {
+                    log.error("Audit event spill file {} cannot be replayed", spillFile, e);
+                    return 0;
+                }
+            }
+        }
+        int count = 0;
+        List<PersistentAuditEvent> batch = new ArrayList<>(properties.getBatchSize());
+        try (BufferedReader in = Files.newBufferedReader(replayedSpillFile, StandardCharsets.UTF_8)) {
+            String line;
+            boolean writing = true;
+            while ((line = in.readLine()) != null) {
+                Map<String, Object> values = objectMapper.readValue(line, Map.class);
+                PersistentAuditEvent event = new PersistentAuditEvent();
+                event.setPrincipal((String) values.get("principal"));
+                event.setAuditEventType((String) values.get("type"));
+                event.setAuditEventDate(Instant.parse((String) values.get("date")));
+                event.setData(new HashMap<>((Map<String, String>) values.get("data")));
+                batch.add(event);
+                if (batch.size() >= properties.getBatchSize()) {
+                    writing = writing && write(batch);
+                    if (writing) {
+                        count += batch.size();
+                    } else {
+                        spill(batch);
+                    }
+                    batch = new ArrayList<>(properties.getBatchSize());
+                }
+            }
+            if (!batch.isEmpty()) {
+                if (writing && write(batch)) {
+                    count += batch.size();
+                } else {
+                    spill(batch);
+                }
+            }
+            Files.delete(replayedSpillFile);
+        } catch (IOException e) {
+            log.error("Audit event spill file {} could not be replayed", replayedSpillFile, e);
+        }
+        log.info("Replayed {} spilled audit events", count);
+        return count;
+    }
+
+    @Override
+    public Map<String, Metric> getMetrics() {
+        Map<String, Metric> metrics = new HashMap<>();
+        metrics.put("queue-depth", (Gauge<Integer>) () -> queue.size() + pending.size());
+        metrics.put("queued", queued);
+        metrics.put("dropped", dropped);
+        metrics.put("spilled", spilled);
+        metrics.put("block-timeouts", blockTimeouts);
+        metrics.put("written", written);
+        metrics.put("failed", failed);
+        metrics.put("flushes", flushes);
+        return metrics;
+    }
+}
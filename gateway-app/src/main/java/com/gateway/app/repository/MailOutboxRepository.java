@@ -0,0 +1,26 @@
+package com.gateway.app.repository;
+
+import com.gateway.app.domain.MailOutboxEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Spring Data JPA repository for the MailOutboxEntry entity.
+ */
+@Repository
+public interface MailOutboxRepository extends JpaRepository<MailOutboxEntry, Long> {
+
+    List<MailOutboxEntry> findAllByNextAttemptDateLessThanEqualOrderByIdAsc(Instant date, Pageable pageable);
+
+    @Modifying
+    @Query("delete from MailOutboxEntry entry where entry.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -1,9 +1,10 @@
 package com.gateway.app.repository;
 
 import com.gateway.app.domain.PersistentAuditEvent;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.Instant;
 import java.util.List;
@@ -21,5 +22,15 @@ public interface PersistenceAuditEventRepository extends JpaRepository<Persisten
 
     List<PersistentAuditEvent> findByPrincipalAndAuditEventDateAfterAndAuditEventType(String principle, Instant after, String type);
 
-    Page<PersistentAuditEvent> findAllByAuditEventDateBetween(Instant fromDate, Instant toDate, Pageable pageable);
+    /**
+     * Keyset page of the events of a time period, ordered by date and id, following the given event: unlike an
+     * offset, the position of the page doesn't make the database read the previous events.
+     */
+    @Query("select e from PersistentAuditEvent e " +
+        "where e.auditEventDate >= :fromDate and e.auditEventDate < :toDate " +
+        "and (e.auditEventDate > :afterDate or (e.auditEventDate = :afterDate and e.id > :afterId)) " +
+        "order by e.auditEventDate asc, e.id asc")
+    List<PersistentAuditEvent> findPageByAuditEventDateBetween(@Param("fromDate") Instant fromDate,
+        @Param("toDate") Instant toDate, @Param("afterDate") Instant afterDate, @Param("afterId") Long afterId,
+        Pageable pageable);
 }
@@ -0,0 +1,28 @@
+package com.gateway.app.repository;
+
+import com.gateway.app.domain.SearchOutboxEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Spring Data JPA repository for the SearchOutboxEntry entity.
+ */
+@Repository
+public interface SearchOutboxRepository extends JpaRepository<SearchOutboxEntry, Long> {
+
+    List<SearchOutboxEntry> findAllByNextAttemptDateLessThanEqualOrderByIdAsc(Instant date, Pageable pageable);
+
+    SearchOutboxEntry findFirstByOrderByIdAsc();
+
+    @Modifying
+    @Query("delete from SearchOutboxEntry entry where entry.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -5,7 +5,11 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.time.Instant;
@@ -20,6 +24,15 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     List<User> findAllByActivatedIsFalseAndCreatedDateBefore(Instant dateTime);
 
+    @Query("select user.id from User user where user.activated = false and user.createdDate < :dateTime " +
+        "and user.id > :afterId order by user.id")
+    List<Long> findIdsByActivatedIsFalseAndCreatedDateBeforeAndIdGreaterThan(@Param("dateTime") Instant dateTime,
+        @Param("afterId") Long afterId, Pageable pageable);
+
+    @Modifying
+    @Query("delete from User user where user.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+
     Optional<User> findOneByResetKey(String resetKey);
 
     Optional<User> findOneByEmail(String email);
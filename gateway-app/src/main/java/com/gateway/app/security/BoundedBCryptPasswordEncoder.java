@@ -0,0 +1,111 @@
+package com.gateway.app.security;
+
+import com.gateway.app.config.ApplicationProperties;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BCrypt password encoder hashing on a dedicated pool of threads, with a bounded queue.
+ * <p>
+ * At most as many hashes as there are threads in the pool are computed at the same time, so that a login spike
+ * doesn't take all the CPU needed by the other requests. When the queue is full, the hashing is rejected with a
+ * {@link PasswordHashingUnavailableException} at once, instead of keeping more request threads waiting.
+ */
+public class BoundedBCryptPasswordEncoder implements PasswordEncoder {
+
+    private final Logger log = LoggerFactory.getLogger(BoundedBCryptPasswordEncoder.class);
+
+    private final BCryptPasswordEncoder bCryptPasswordEncoder;
+
+    private final ThreadPoolExecutor executor;
+
+    private final long retryAfterSeconds;
+
+    private final Timer encodeTimer;
+
+    private final Timer matchesTimer;
+
+    private final Meter rejected;
+
+    public BoundedBCryptPasswordEncoder(ApplicationProperties.PasswordHashing passwordHashing,
+            MetricRegistry metricRegistry) {
+        this(new BCryptPasswordEncoder(passwordHashing.getStrength()),
+            new ThreadPoolExecutor(passwordHashing.getPoolSize(), passwordHashing.getPoolSize(),
+                0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(passwordHashing.getQueueCapacity()),
+                new CustomizableThreadFactory("password-hashing-")),
+            passwordHashing.getRetryAfterSeconds(), metricRegistry);
+    }
+
+    BoundedBCryptPasswordEncoder(BCryptPasswordEncoder bCryptPasswordEncoder, ThreadPoolExecutor executor,
+            long retryAfterSeconds, MetricRegistry metricRegistry) {
+        this.bCryptPasswordEncoder = bCryptPasswordEncoder;
+        this.executor = executor;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.encodeTimer = metricRegistry.timer(MetricRegistry.name(BoundedBCryptPasswordEncoder.class, "encode"));
+        this.matchesTimer = metricRegistry.timer(MetricRegistry.name(BoundedBCryptPasswordEncoder.class, "matches"));
+        this.rejected = metricRegistry.meter(MetricRegistry.name(BoundedBCryptPasswordEncoder.class, "rejected"));
+        String queueDepth = MetricRegistry.name(BoundedBCryptPasswordEncoder.class, "queue-depth");
+        metricRegistry.remove(queueDepth);
+        metricRegistry.register(queueDepth, (Gauge<Integer>) () -> executor.getQueue().size());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return hash(encodeTimer, () -> bCryptPasswordEncoder.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return hash(matchesTimer, () -> bCryptPasswordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    private <T> T hash(Timer timer, Callable<T> hashing) {
+        Future<T> result;
+        try {
+            result = executor.submit(() -> {
+                try (Timer.Context ignored = timer.time()) {
+                    return hashing.call();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.mark();
+            log.warn("Password hashing rejected, {} hashes are waiting", executor.getQueue().size());
+            throw new PasswordHashingUnavailableException("Too many password hashing requests", retryAfterSeconds);
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    /**
+     * Stop the hashing threads, called when the application context is closed.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
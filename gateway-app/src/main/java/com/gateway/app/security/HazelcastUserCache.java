@@ -0,0 +1,84 @@
+package com.gateway.app.security;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.RatioGauge;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.IMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cache of the user details used by the authentication, by login, shared by the cluster in a Hazelcast map.
+ * <p>
+ * The map stores serialized copies of the user details, so erasing the credentials of an authenticated user doesn't
+ * change the cached entry.
+ */
+@Component
+public class HazelcastUserCache implements UserCache {
+
+    public static final String CACHE_NAME = "user-details-by-login";
+
+    private final Logger log = LoggerFactory.getLogger(HazelcastUserCache.class);
+
+    private final IMap<String, UserDetails> users;
+
+    private final Meter hits;
+
+    private final Meter misses;
+
+    public HazelcastUserCache(HazelcastInstance hazelcastInstance, MetricRegistry metricRegistry) {
+        this.users = hazelcastInstance.getMap(CACHE_NAME);
+        this.hits = metricRegistry.meter(MetricRegistry.name(HazelcastUserCache.class, "hits"));
+        this.misses = metricRegistry.meter(MetricRegistry.name(HazelcastUserCache.class, "misses"));
+        String hitRatio = MetricRegistry.name(HazelcastUserCache.class, "hit-ratio");
+        metricRegistry.remove(hitRatio);
+        metricRegistry.register(hitRatio, new RatioGauge() {
+            @Override
+            protected Ratio getRatio() {
+                return Ratio.of(hits.getOneMinuteRate(), hits.getOneMinuteRate() + misses.getOneMinuteRate());
+            }
+        });
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        UserDetails user = users.get(username);
+        if (user == null) {
+            misses.mark();
+        } else {
+            hits.mark();
+        }
+        return user;
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        users.set(user.getUsername(), user);
+    }
+
+    /**
+     * Remove the user details from the cache at once, and again once the current transaction is committed: a login
+     * happening before the commit reads the previous state of the user, and caches it again.
+     *
+     * @param username the login of the user
+     */
+    @Override
+    public void removeUserFromCache(String username) {
+        log.debug("Removing the cached details of user {}", username);
+        users.delete(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    users.delete(username);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.gateway.app.security.jwt;
+
+import com.gateway.app.config.ApplicationProperties;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.security.*;
+import java.security.cert.Certificate;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.*;
+
+/**
+ * Key pairs used to sign and verify tokens when an asymmetric algorithm (RS256, ES256...) is configured.
+ * <p>
+ * The public keys are published as a JSON Web Key Set, so that the other services can verify tokens locally
+ * without knowing any secret. Every key is identified by its "kid", which is set in the header of the tokens.
+ */
+@Component
+public class TokenSigningKeys {
+
+    private final Logger log = LoggerFactory.getLogger(TokenSigningKeys.class);
+
+    private final ApplicationProperties.Jwt jwtProperties;
+
+    private String signingKeyId;
+
+    private PrivateKey signingKey;
+
+    private Map<String, PublicKey> verificationKeys = Collections.emptyMap();
+
+    private Map<String, Object> jwkSet = Collections.singletonMap("keys", Collections.emptyList());
+
+    public TokenSigningKeys(ApplicationProperties applicationProperties) {
+        this.jwtProperties = applicationProperties.getJwt();
+    }
+
+    @PostConstruct
+    public void init() throws GeneralSecurityException, IOException {
+        SignatureAlgorithm algorithm = jwtProperties.getAlgorithm();
+        if (algorithm.isHmac()) {
+            return;
+        }
+        Map<String, PublicKey> keys = new LinkedHashMap<>();
+        if (jwtProperties.getKeyStore() == null) {
+            log.warn("No JWT key store is configured, generating a {} key pair: tokens will not be valid " +
+                "after a restart, nor across several gateway instances", algorithm);
+            KeyPair keyPair = generateKeyPair(algorithm);
+            signingKeyId = UUID.randomUUID().toString();
+            signingKey = keyPair.getPrivate();
+            keys.put(signingKeyId, keyPair.getPublic());
+        } else {
+            loadKeyStore(keys);
+        }
+        List<Map<String, Object>> jwks = new ArrayList<>();
+        keys.forEach((keyId, publicKey) -> jwks.add(toJwk(keyId, publicKey, algorithm)));
+        this.verificationKeys = Collections.unmodifiableMap(keys);
+        this.jwkSet = Collections.singletonMap("keys", Collections.unmodifiableList(jwks));
+    }
+
+    private void loadKeyStore(Map<String, PublicKey> keys) throws GeneralSecurityException, IOException {
+        log.debug("Loading JWT signing keys from {}", jwtProperties.getKeyStore());
+        char[] password = jwtProperties.getKeyStorePassword() == null ?
+            null : jwtProperties.getKeyStorePassword().toCharArray();
+        KeyStore keyStore = KeyStore.getInstance(jwtProperties.getKeyStoreType());
+        try (InputStream inputStream = new DefaultResourceLoader().getResource(jwtProperties.getKeyStore()).getInputStream()) {
+            keyStore.load(inputStream, password);
+        }
+        for (String alias : Collections.list(keyStore.aliases())) {
+            Certificate certificate = keyStore.getCertificate(alias);
+            if (keyStore.isKeyEntry(alias) && certificate != null) {
+                keys.put(alias, certificate.getPublicKey());
+            }
+        }
+        String keyAlias = jwtProperties.getKeyAlias();
+        Key key = keyAlias == null ? null : keyStore.getKey(keyAlias, password);
+        if (!(key instanceof PrivateKey)) {
+            throw new KeyStoreException("No JWT signing private key found with alias " + keyAlias);
+        }
+        signingKeyId = keyAlias;
+        signingKey = (PrivateKey) key;
+    }
+
+    private static KeyPair generateKeyPair(SignatureAlgorithm algorithm) throws GeneralSecurityException {
+        KeyPairGenerator generator;
+        if (algorithm.isRsa()) {
+            generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+        } else {
+            generator = KeyPairGenerator.getInstance("EC");
+            generator.initialize(new ECGenParameterSpec(curveName(algorithm)));
+        }
+        return generator.generateKeyPair();
+    }
+
+    private static Map<String, Object> toJwk(String keyId, PublicKey publicKey, SignatureAlgorithm algorithm) {
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kid", keyId);
+        jwk.put("use", "sig");
+        jwk.put("alg", algorithm.getValue());
+        if (publicKey instanceof RSAPublicKey) {
+            RSAPublicKey rsaPublicKey = (RSAPublicKey) publicKey;
+            jwk.put("kty", "RSA");
+            jwk.put("n", encode(rsaPublicKey.getModulus(), 0));
+            jwk.put("e", encode(rsaPublicKey.getPublicExponent(), 0));
+        } else if (publicKey instanceof ECPublicKey) {
+            ECPublicKey ecPublicKey = (ECPublicKey) publicKey;
+            int fieldSize = (ecPublicKey.getParams().getCurve().getField().getFieldSize() + 7) / 8;
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-" + ecPublicKey.getParams().getCurve().getField().getFieldSize());
+            jwk.put("x", encode(ecPublicKey.getW().getAffineX(), fieldSize));
+            jwk.put("y", encode(ecPublicKey.getW().getAffineY(), fieldSize));
+        } else {
+            throw new IllegalArgumentException("Unsupported JWT signing key type " + publicKey.getAlgorithm());
+        }
+        return jwk;
+    }
+
+    /**
+     * Base64url encoding of an unsigned big-endian integer, left-padded to the given length if not 0.
+     */
+    private static String encode(BigInteger value, int length) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        if (bytes.length < length) {
+            byte[] padded = new byte[length];
+            System.arraycopy(bytes, 0, padded, length - bytes.length, bytes.length);
+            bytes = padded;
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String curveName(SignatureAlgorithm algorithm) {
+        switch (algorithm) {
+            case ES256:
+                return "secp256r1";
+            case ES384:
+                return "secp384r1";
+            case ES512:
+                return "secp521r1";
+            default:
+                throw new IllegalArgumentException("Unsupported JWT signature algorithm " + algorithm);
+        }
+    }
+
+    public SignatureAlgorithm getAlgorithm() {
+        return jwtProperties.getAlgorithm();
+    }
+
+    public String getSigningKeyId() {
+        return signingKeyId;
+    }
+
+    public PrivateKey getSigningKey() {
+        return signingKey;
+    }
+
+    /**
+     * @return the public key with this key id, or null if it is unknown
+     */
+    public PublicKey getVerificationKey(String keyId) {
+        return keyId == null ? null : verificationKeys.get(keyId);
+    }
+
+    /**
+     * @return the public keys, in the JSON Web Key Set format
+     */
+    public Map<String, Object> getJwkSet() {
+        return jwkSet;
+    }
+}
@@ -0,0 +1,215 @@
+package com.gateway.app.service;
+
+import com.gateway.app.config.ApplicationProperties;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ILock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Service managing the daily partitions of the audit events, and their retention.
+ * <p>
+ * On MySQL, the audit event table is partitioned by day of event date, in UTC, see the Liquibase changelog
+ * 20171105000000_partitioned_audit_events.xml: the partitions of the next days are created in advance by splitting
+ * the last partition, which has no upper bound, and the partitions older than the retention are dropped at once
+ * instead of deleting their rows. On the other databases, the events older than the retention are deleted.
+ * <p>
+ * Only one node of the cluster maintains the partitions at a time, the others skip the maintenance, so that they
+ * don't reorganize the same partitions concurrently.
+ */
+@Service
+public class AuditEventPartitionService {
+
+    private static final String MAX_PARTITION = "p_max";
+
+    private static final String TABLE = "jhi_persistent_audit_event";
+
+    private static final DateTimeFormatter PARTITION_NAME_FORMATTER =
+        DateTimeFormatter.ofPattern("'p'yyyyMMdd").withZone(ZoneOffset.UTC);
+
+    private final Logger log = LoggerFactory.getLogger(AuditEventPartitionService.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final ApplicationProperties.Audit properties;
+
+    private final Timer maintenance;
+
+    private final Meter droppedPartitions;
+
+    private final Meter purgedEvents;
+
+    private final Meter failures;
+
+    private final ILock lock;
+
+    private final Executor taskExecutor;
+
+    private volatile Boolean partitioned;
+
+    public AuditEventPartitionService(JdbcTemplate jdbcTemplate, ApplicationProperties applicationProperties,
+            MetricRegistry metricRegistry, HazelcastInstance hazelcastInstance,
+            @Qualifier("taskExecutor") Executor taskExecutor) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.taskExecutor = taskExecutor;
+        this.properties = applicationProperties.getAudit();
+        this.lock = hazelcastInstance.getLock("audit-event-partitions");
+        this.maintenance = metricRegistry.timer(MetricRegistry.name(AuditEventPartitionService.class, "maintenance"));
+        this.droppedPartitions =
+            metricRegistry.meter(MetricRegistry.name(AuditEventPartitionService.class, "dropped-partitions"));
+        this.purgedEvents = metricRegistry.meter(MetricRegistry.name(AuditEventPartitionService.class, "purged-events"));
+        this.failures = metricRegistry.meter(MetricRegistry.name(AuditEventPartitionService.class, "failures"));
+    }
+
+    /**
+     * Maintain the partitions at startup, in the background: the main thread doesn't wait for the partitions to be
+     * reorganized.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            taskExecutor.execute(this::maintainPartitions);
+        } catch (RejectedExecutionException e) {
+            log.warn("Could not schedule the maintenance of the audit event partitions: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Create the partitions of the next days, and remove the audit events older than the retention.
+     * <p>
+     * This is scheduled to get fired everyday, at 01:30 (am), and at startup. A failure is logged and the
+     * maintenance is retried at its next run, so that it never prevents the application from starting.
+     */
+    @Scheduled(cron = "0 30 1 * * ?")
+    public void maintainPartitions() {
+        if (!lock.tryLock()) {
+            log.debug("The audit event partitions are maintained by another node");
+            return;
+        }
+        Instant now = Instant.now();
+        Instant retentionStart = startOfDay(now).minus(properties.getRetentionDays(), ChronoUnit.DAYS);
+        try (Timer.Context ignored = maintenance.time()) {
+            if (isPartitioned()) {
+                createPartitions(now);
+                dropPartitionsBefore(retentionStart);
+            } else {
+                deleteEventsBefore(retentionStart);
+            }
+        } catch (RuntimeException e) {
+            log.error("The audit event partitions could not be maintained", e);
+            failures.mark();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean isPartitioned() {
+        if (partitioned == null) {
+            partitioned = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+                "MySQL".equals(connection.getMetaData().getDatabaseProductName())) && !findPartitions().isEmpty();
+            log.debug("Audit events partitioned: {}", partitioned);
+        }
+        return partitioned;
+    }
+
+    private List<Partition> findPartitions() {
+        return jdbcTemplate.query("SELECT partition_name, partition_description FROM information_schema.partitions " +
+                "WHERE table_schema = DATABASE() AND table_name = ? AND partition_name IS NOT NULL " +
+                "ORDER BY partition_ordinal_position",
+            (rs, rowNum) -> new Partition(rs.getString(1), rs.getString(2)), TABLE);
+    }
+
+    private void createPartitions(Instant now) {
+        Long lastBound = findPartitions().stream()
+            .filter(partition -> partition.upperBound != null)
+            .map(partition -> partition.upperBound)
+            .reduce(Math::max)
+            .orElse(null);
+        List<String> partitions = newPartitions(lastBound, now, properties.getPartitionsAheadDays());
+        if (partitions.isEmpty()) {
+            return;
+        }
+        log.info("Creating {} audit event partitions", partitions.size());
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " REORGANIZE PARTITION " + MAX_PARTITION + " INTO (" +
+            String.join(", ", partitions) + ", PARTITION " + MAX_PARTITION + " VALUES LESS THAN MAXVALUE)");
+    }
+
+    /**
+     * The definitions of the daily partitions to create, until the end of the days ahead.
+     *
+     * @param lastBound the upper bound of the last daily partition, in seconds since the epoch, or null if there is
+     * no daily partition yet: the first partition also holds the events of the previous days
+     * @param now the current date
+     * @param aheadDays the number of days ahead
+     * @return the partition definitions
+     */
+    static List<String> newPartitions(Long lastBound, Instant now, int aheadDays) {
+        Instant end = startOfDay(now).plus(aheadDays + 1, ChronoUnit.DAYS);
+        Instant bound = lastBound == null ? startOfDay(now).plus(1, ChronoUnit.DAYS) :
+            Instant.ofEpochSecond(lastBound).plus(1, ChronoUnit.DAYS);
+        List<String> partitions = new ArrayList<>();
+        for (; !bound.isAfter(end); bound = bound.plus(1, ChronoUnit.DAYS)) {
+            partitions.add("PARTITION " + PARTITION_NAME_FORMATTER.format(bound.minus(1, ChronoUnit.DAYS)) +
+                " VALUES LESS THAN (" + bound.getEpochSecond() + ")");
+        }
+        return partitions;
+    }
+
+    private void dropPartitionsBefore(Instant retentionStart) {
+        List<String> expiredPartitions = findPartitions().stream()
+            .filter(partition -> partition.upperBound != null &&
+                partition.upperBound <= retentionStart.getEpochSecond())
+            .map(partition -> partition.name)
+            .collect(Collectors.toList());
+        for (String partition : expiredPartitions) {
+            log.info("Dropping the audit event partition {}", partition);
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " DROP PARTITION " + partition);
+            droppedPartitions.mark();
+        }
+    }
+
+    private void deleteEventsBefore(Instant retentionStart) {
+        Timestamp before = Timestamp.from(retentionStart);
+        int count = jdbcTemplate.update("DELETE FROM " + TABLE + " WHERE event_date < ?", before);
+        log.debug("Deleted {} audit events older than {}", count, retentionStart);
+        purgedEvents.mark(count);
+    }
+
+    private static Instant startOfDay(Instant instant) {
+        return instant.truncatedTo(ChronoUnit.DAYS);
+    }
+
+    private static class Partition {
+
+        private final String name;
+
+        private final Long upperBound;
+
+        Partition(String name, String description) {
+            this.name = name;
+            this.upperBound = "MAXVALUE".equals(description) ? null : Long.valueOf(description);
+        }
+    }
+}
@@ -1,14 +1,29 @@
 package com.gateway.app.service;
 
+import com.gateway.app.config.ApplicationProperties;
 import com.gateway.app.config.audit.AuditEventConverter;
+import com.gateway.app.domain.PersistentAuditEvent;
 import com.gateway.app.repository.PersistenceAuditEventRepository;
+import com.gateway.app.service.dto.AuditEventPage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.RawValue;
 import org.springframework.boot.actuate.audit.AuditEvent;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -20,16 +35,36 @@ import java.util.Optional;
 @Transactional
 public class AuditEventService {
 
+    /**
+     * Formats of the export of the audit events.
+     */
+    public enum ExportFormat {
+        CSV, NDJSON
+    }
+
     private final PersistenceAuditEventRepository persistenceAuditEventRepository;
 
     private final AuditEventConverter auditEventConverter;
 
+    private final TransactionTemplate transactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationProperties.Audit properties;
+
     public AuditEventService(
         PersistenceAuditEventRepository persistenceAuditEventRepository,
-        AuditEventConverter auditEventConverter) {
+        AuditEventConverter auditEventConverter,
+        PlatformTransactionManager transactionManager,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties) {
 
         this.persistenceAuditEventRepository = persistenceAuditEventRepository;
         this.auditEventConverter = auditEventConverter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.properties = applicationProperties.getAudit();
     }
 
     public Page<AuditEvent> findAll(Pageable pageable) {
@@ -37,9 +72,97 @@ public class AuditEventService {
             .map(auditEventConverter::convertToAuditEvent);
     }
 
-    public Page<AuditEvent> findByDates(Instant fromDate, Instant toDate, Pageable pageable) {
-        return persistenceAuditEventRepository.findAllByAuditEventDateBetween(fromDate, toDate, pageable)
-            .map(auditEventConverter::convertToAuditEvent);
+    /**
+     * Get a keyset page of the events of a time period, ordered by date, without counting all the events.
+     *
+     * @param fromDate the start of the time period, inclusive
+     * @param toDate the end of the time period, exclusive
+     * @param afterDate the date of the last event of the previous page, or null for the first page
+     * @param afterId the id of the last event of the previous page, or null for the first page
+     * @param size the size of the page
+     * @return the page
+     */
+    @Transactional(readOnly = true)
+    public AuditEventPage findByDates(Instant fromDate, Instant toDate, Instant afterDate, Long afterId, int size) {
+        List<PersistentAuditEvent> events = findPage(fromDate, toDate, afterDate, afterId, size);
+        if (events.size() < size) {
+            return new AuditEventPage(auditEventConverter.convertToAuditEvent(events), null, null);
+        }
+        PersistentAuditEvent last = events.get(events.size() - 1);
+        return new AuditEventPage(auditEventConverter.convertToAuditEvent(events), last.getAuditEventDate(),
+            last.getId());
+    }
+
+    /**
+     * Write the events of a time period, ordered by date. The events are read by chunks, each in its own
+     * transaction, so that a long export doesn't keep a transaction open.
+     *
+     * @param fromDate the start of the time period, inclusive
+     * @param toDate the end of the time period, exclusive
+     * @param format the format of the export
+     * @param writer the writer of the export, flushed after each chunk
+     * @throws IOException if the export could not be written
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void export(Instant fromDate, Instant toDate, ExportFormat format, Writer writer) throws IOException {
+        int chunkSize = properties.getExportChunkSize();
+        if (format == ExportFormat.CSV) {
+            writer.write("id,timestamp,principal,type,data\n");
+        }
+        Instant afterDate = null;
+        Long afterId = null;
+        List<PersistentAuditEvent> events;
+        do {
+            Instant previousDate = afterDate;
+            Long previousId = afterId;
+            events = transactionTemplate.execute(status ->
+                findPage(fromDate, toDate, previousDate, previousId, chunkSize));
+            for (PersistentAuditEvent event : events) {
+                writer.write(format == ExportFormat.CSV ? toCsv(event) : toJson(event));
+                writer.write('\n');
+                afterDate = event.getAuditEventDate();
+                afterId = event.getId();
+            }
+            writer.flush();
+        } while (events.size() == chunkSize);
+    }
+
+    private List<PersistentAuditEvent> findPage(Instant fromDate, Instant toDate, Instant afterDate, Long afterId,
+            int size) {
+        if (afterDate == null || afterId == null) {
+            afterDate = fromDate;
+            afterId = 0L;
+        }
+        return persistenceAuditEventRepository.findPageByAuditEventDateBetween(fromDate, toDate, afterDate, afterId,
+            new PageRequest(0, size));
+    }
+
+    // The data is exported as stored, without decoding it
+    private static String encodedData(PersistentAuditEvent event) {
+        String encodedData = event.getEncodedData();
+        return encodedData == null ? "{}" : encodedData;
+    }
+
+    private String toCsv(PersistentAuditEvent event) {
+        return event.getId() + "," + event.getAuditEventDate() + "," + csvValue(event.getPrincipal()) + "," +
+            csvValue(event.getAuditEventType()) + "," + csvValue(encodedData(event));
+    }
+
+    private static String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+
+    private String toJson(PersistentAuditEvent event) throws IOException {
+        Map<String, Object> line = new LinkedHashMap<>();
+        line.put("id", event.getId());
+        line.put("timestamp", event.getAuditEventDate().toString());
+        line.put("principal", event.getPrincipal());
+        line.put("type", event.getAuditEventType());
+        line.put("data", new RawValue(encodedData(event)));
+        return objectMapper.writeValueAsString(line);
     }
 
     public Optional<AuditEvent> find(Long id) {
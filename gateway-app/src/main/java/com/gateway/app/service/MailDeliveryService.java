@@ -0,0 +1,204 @@
+package com.gateway.app.service;
+
+import com.gateway.app.config.ApplicationProperties;
+import com.gateway.app.domain.MailOutboxEntry;
+import com.gateway.app.repository.MailOutboxRepository;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ILock;
+import io.github.jhipster.config.JHipsterProperties;
+import org.apache.commons.lang3.CharEncoding;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service sending the emails of the mail outbox.
+ * <p>
+ * The emails are sent by batches, each batch through a single SMTP connection. The emails which could not be sent
+ * are retried with an exponential backoff, and dropped after too many attempts. Only one node of the cluster sends
+ * the emails at a time, so that they are not sent twice.
+ */
+@Service
+public class MailDeliveryService {
+
+    private final Logger log = LoggerFactory.getLogger(MailDeliveryService.class);
+
+    private final MailOutboxRepository mailOutboxRepository;
+
+    private final JavaMailSender javaMailSender;
+
+    private final JHipsterProperties jHipsterProperties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.Mail properties;
+
+    private final ILock lock;
+
+    private final Meter sent;
+
+    private final Meter failed;
+
+    private final Meter dropped;
+
+    private final Timer batches;
+
+    private final Timer deliveryLatency;
+
+    private volatile long queueDepth;
+
+    public MailDeliveryService(MailOutboxRepository mailOutboxRepository, JavaMailSender javaMailSender,
+            JHipsterProperties jHipsterProperties, PlatformTransactionManager transactionManager,
+            MetricRegistry metricRegistry, ApplicationProperties applicationProperties,
+            HazelcastInstance hazelcastInstance) {
+        this.mailOutboxRepository = mailOutboxRepository;
+        this.javaMailSender = javaMailSender;
+        this.jHipsterProperties = jHipsterProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = applicationProperties.getMail();
+        this.lock = hazelcastInstance.getLock("mail-outbox");
+
+        this.sent = metricRegistry.meter(MetricRegistry.name(MailDeliveryService.class, "sent"));
+        this.failed = metricRegistry.meter(MetricRegistry.name(MailDeliveryService.class, "failed"));
+        this.dropped = metricRegistry.meter(MetricRegistry.name(MailDeliveryService.class, "dropped"));
+        this.batches = metricRegistry.timer(MetricRegistry.name(MailDeliveryService.class, "batches"));
+        this.deliveryLatency = metricRegistry.timer(MetricRegistry.name(MailDeliveryService.class, "delivery-latency"));
+        String queueDepthName = MetricRegistry.name(MailDeliveryService.class, "queue-depth");
+        metricRegistry.remove(queueDepthName);
+        metricRegistry.register(queueDepthName, (Gauge<Long>) () -> queueDepth);
+    }
+
+    /**
+     * Send all the pending emails of the outbox, unless another node is already sending them.
+     */
+    @Scheduled(fixedDelayString = "${application.mail.poll-interval-in-millis:1000}")
+    public void sendPendingMails() {
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            int count;
+            do {
+                count = sendBatch();
+            } while (count >= properties.getBatchSize());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int sendBatch() {
+        Instant now = Instant.now();
+        List<MailOutboxEntry> entries = transactionTemplate.execute(status -> {
+            queueDepth = mailOutboxRepository.count();
+            return mailOutboxRepository.findAllByNextAttemptDateLessThanEqualOrderByIdAsc(now,
+                new PageRequest(0, properties.getBatchSize()));
+        });
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        Map<MimeMessage, MailOutboxEntry> entriesByMessage = new IdentityHashMap<>();
+        List<MailOutboxEntry> failedEntries = new ArrayList<>();
+        for (MailOutboxEntry entry : entries) {
+            try {
+                entriesByMessage.put(createMimeMessage(entry), entry);
+            } catch (MessagingException e) {
+                log.warn("Email could not be prepared for user '{}': {}", entry.getRecipient(), e.getMessage());
+                failedEntries.add(entry);
+            }
+        }
+        Timer.Context time = batches.time();
+        try {
+            javaMailSender.send(entriesByMessage.keySet().toArray(new MimeMessage[entriesByMessage.size()]));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                entriesByMessage.values().forEach(entry -> logFailure(entry, e));
+                failedEntries.addAll(entriesByMessage.values());
+            }
+            e.getFailedMessages().forEach((message, exception) -> {
+                MailOutboxEntry entry = entriesByMessage.get(message);
+                logFailure(entry, exception);
+                failedEntries.add(entry);
+            });
+        } catch (MailException e) {
+            entriesByMessage.values().forEach(entry -> logFailure(entry, e));
+            failedEntries.addAll(entriesByMessage.values());
+        } finally {
+            time.stop();
+        }
+        Instant sentDate = Instant.now();
+        transactionTemplate.execute(status -> {
+            updateOutbox(entries, failedEntries, sentDate);
+            return null;
+        });
+        return entries.size();
+    }
+
+    private MimeMessage createMimeMessage(MailOutboxEntry entry) throws MessagingException {
+        MimeMessage mimeMessage = javaMailSender.createMimeMessage();
+        MimeMessageHelper message = new MimeMessageHelper(mimeMessage, entry.isMultipart(), CharEncoding.UTF_8);
+        message.setTo(entry.getRecipient());
+        message.setFrom(jHipsterProperties.getMail().getFrom());
+        message.setSubject(entry.getSubject());
+        message.setText(entry.getContent(), entry.isHtml());
+        return mimeMessage;
+    }
+
+    private void logFailure(MailOutboxEntry entry, Exception e) {
+        if (log.isDebugEnabled()) {
+            log.warn("Email could not be sent to user '{}'", entry.getRecipient(), e);
+        } else {
+            log.warn("Email could not be sent to user '{}': {}", entry.getRecipient(), e.getMessage());
+        }
+    }
+
+    private void updateOutbox(List<MailOutboxEntry> entries, List<MailOutboxEntry> failedEntries, Instant sentDate) {
+        Set<MailOutboxEntry> failedEntrySet = Collections.newSetFromMap(new IdentityHashMap<>());
+        failedEntrySet.addAll(failedEntries);
+        List<Long> doneEntryIds = new ArrayList<>(entries.size());
+        for (MailOutboxEntry entry : entries) {
+            if (!failedEntrySet.contains(entry)) {
+                sent.mark();
+                deliveryLatency.update(Duration.between(entry.getCreatedDate(), sentDate).toMillis(),
+                    TimeUnit.MILLISECONDS);
+                doneEntryIds.add(entry.getId());
+                continue;
+            }
+            failed.mark();
+            int attempts = entry.getAttempts() + 1;
+            if (attempts >= properties.getMaxAttempts()) {
+                log.error("Email to user '{}' dropped after {} attempts", entry.getRecipient(), attempts);
+                dropped.mark();
+                doneEntryIds.add(entry.getId());
+            } else {
+                long delay = Math.min(1L << Math.min(attempts, 20), properties.getMaxRetryDelayInSeconds());
+                entry.setAttempts(attempts);
+                entry.setNextAttemptDate(sentDate.plusSeconds(delay));
+                mailOutboxRepository.save(entry);
+            }
+        }
+        if (!doneEntryIds.isEmpty()) {
+            mailOutboxRepository.deleteByIdIn(doneEntryIds);
+        }
+        log.debug("Sent {} emails, {} failed", entries.size() - failedEntries.size(), failedEntries.size());
+    }
+}
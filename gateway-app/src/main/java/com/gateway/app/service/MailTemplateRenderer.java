@@ -0,0 +1,211 @@
+package com.gateway.app.service;
+
+import com.gateway.app.domain.User;
+
+import io.github.jhipster.config.JHipsterProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafProperties;
+import org.springframework.context.MessageSource;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring4.SpringTemplateEngine;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Renderer of the email templates, caching the rendered templates and the subjects by locale.
+ * <p>
+ * A template is processed by Thymeleaf once per locale, with a placeholder in each field of the user: the output is
+ * then split around the placeholders, so rendering an email only joins the static fragments with the HTML-escaped
+ * fields of the user. The templates may print the fields of the user, but not use them in conditions or loops.
+ * <p>
+ * Nothing is cached when the Thymeleaf cache is disabled, as in development, so that the templates can be edited.
+ */
+@Service
+public class MailTemplateRenderer {
+
+    private static final String USER = "user";
+
+    private static final String BASE_URL = "baseUrl";
+
+    private static final Map<String, Function<User, String>> USER_FIELDS = new LinkedHashMap<>();
+
+    static {
+        USER_FIELDS.put("login", User::getLogin);
+        USER_FIELDS.put("firstname", User::getFirstName);
+        USER_FIELDS.put("lastname", User::getLastName);
+        USER_FIELDS.put("email", User::getEmail);
+        USER_FIELDS.put("imageurl", User::getImageUrl);
+        USER_FIELDS.put("activationkey", User::getActivationKey);
+        USER_FIELDS.put("resetkey", User::getResetKey);
+        USER_FIELDS.put("langkey", User::getLangKey);
+    }
+
+    private final Logger log = LoggerFactory.getLogger(MailTemplateRenderer.class);
+
+    private final SpringTemplateEngine templateEngine;
+
+    private final MessageSource messageSource;
+
+    private final String baseUrl;
+
+    private final boolean cacheEnabled;
+
+    // The placeholders are lower case, as the login of the user is, and made of characters escaped nowhere
+    private final String placeholderPrefix = "mailfield" + UUID.randomUUID().toString().replace("-", "");
+
+    private final Pattern placeholderPattern = Pattern.compile(Pattern.quote(placeholderPrefix) + "([a-z]+)-");
+
+    private final Map<TemplateKey, CompiledTemplate> templates = new ConcurrentHashMap<>();
+
+    private final Map<TemplateKey, String> subjects = new ConcurrentHashMap<>();
+
+    public MailTemplateRenderer(SpringTemplateEngine templateEngine, MessageSource messageSource,
+            JHipsterProperties jHipsterProperties, ThymeleafProperties thymeleafProperties) {
+        this.templateEngine = templateEngine;
+        this.messageSource = messageSource;
+        this.baseUrl = jHipsterProperties.getMail().getBaseUrl();
+        this.cacheEnabled = thymeleafProperties.isCache();
+    }
+
+    /**
+     * Render the content of an email for a user.
+     *
+     * @param templateName the name of the template
+     * @param user the user, available as the "user" variable of the template
+     * @param locale the locale of the email
+     * @return the rendered content
+     */
+    public String render(String templateName, User user, Locale locale) {
+        if (!cacheEnabled) {
+            return process(templateName, user, locale);
+        }
+        return templates.computeIfAbsent(new TemplateKey(templateName, locale), this::compile).render(user);
+    }
+
+    /**
+     * Get the subject of an email.
+     *
+     * @param titleKey the message key of the subject
+     * @param locale the locale of the email
+     * @return the subject
+     */
+    public String getSubject(String titleKey, Locale locale) {
+        if (!cacheEnabled) {
+            return messageSource.getMessage(titleKey, null, locale);
+        }
+        return subjects.computeIfAbsent(new TemplateKey(titleKey, locale),
+            key -> messageSource.getMessage(key.name, null, key.locale));
+    }
+
+    /**
+     * Render the template with Thymeleaf, without the cache.
+     */
+    String process(String templateName, User user, Locale locale) {
+        Context context = new Context(locale);
+        context.setVariable(USER, user);
+        context.setVariable(BASE_URL, baseUrl);
+        return templateEngine.process(templateName, context);
+    }
+
+    private CompiledTemplate compile(TemplateKey key) {
+        log.debug("Compiling email template {} for locale {}", key.name, key.locale);
+        User placeholders = new User();
+        placeholders.setLogin(placeholder("login"));
+        placeholders.setFirstName(placeholder("firstname"));
+        placeholders.setLastName(placeholder("lastname"));
+        placeholders.setEmail(placeholder("email"));
+        placeholders.setImageUrl(placeholder("imageurl"));
+        placeholders.setActivationKey(placeholder("activationkey"));
+        placeholders.setResetKey(placeholder("resetkey"));
+        placeholders.setLangKey(placeholder("langkey"));
+        String output = process(key.name, placeholders, key.locale);
+
+        List<String> fragments = new ArrayList<>();
+        List<Function<User, String>> fields = new ArrayList<>();
+        Matcher matcher = placeholderPattern.matcher(output);
+        int start = 0;
+        while (matcher.find()) {
+            Function<User, String> field = USER_FIELDS.get(matcher.group(1));
+            if (field == null) {
+                throw new IllegalStateException("Unknown user field " + matcher.group(1) + " in email template " +
+                    key.name);
+            }
+            fragments.add(output.substring(start, matcher.start()));
+            fields.add(field);
+            start = matcher.end();
+        }
+        fragments.add(output.substring(start));
+        return new CompiledTemplate(fragments.toArray(new String[fragments.size()]), fields);
+    }
+
+    private String placeholder(String field) {
+        return placeholderPrefix + field + "-";
+    }
+
+    /**
+     * Template rendered once, as the static fragments found between the fields of the user.
+     */
+    private static class CompiledTemplate {
+
+        private final String[] fragments;
+
+        private final List<Function<User, String>> fields;
+
+        private final int length;
+
+        CompiledTemplate(String[] fragments, List<Function<User, String>> fields) {
+            this.fragments = fragments;
+            this.fields = fields;
+            this.length = Arrays.stream(fragments).mapToInt(String::length).sum();
+        }
+
+        String render(User user) {
+            StringBuilder content = new StringBuilder(length + 64 * fields.size());
+            content.append(fragments[0]);
+            for (int i = 0; i < fields.size(); i++) {
+                String value = fields.get(i).apply(user);
+                if (value != null) {
+                    content.append(HtmlUtils.htmlEscape(value));
+                }
+                content.append(fragments[i + 1]);
+            }
+            return content.toString();
+        }
+    }
+
+    private static class TemplateKey {
+
+        private final String name;
+
+        private final Locale locale;
+
+        TemplateKey(String name, Locale locale) {
+            this.name = name;
+            this.locale = locale;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            TemplateKey that = (TemplateKey) o;
+            return name.equals(that.name) && locale.equals(that.locale);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, locale);
+        }
+    }
+}
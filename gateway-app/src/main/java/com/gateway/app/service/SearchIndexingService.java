@@ -0,0 +1,425 @@
+package com.gateway.app.service;
+
+import com.gateway.app.config.ApplicationProperties;
+import com.gateway.app.domain.User;
+import com.gateway.app.domain.SearchOutboxEntry;
+import com.gateway.app.repository.UserRepository;
+import com.gateway.app.repository.SearchOutboxRepository;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ILock;
+import com.hazelcast.core.IMap;
+import com.hazelcast.core.ISet;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.ElasticsearchException;
+import org.springframework.data.elasticsearch.core.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.EntityMapper;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+import org.springframework.data.elasticsearch.core.query.IndexQuery;
+import org.springframework.data.elasticsearch.core.query.IndexQueryBuilder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Service keeping the Elasticsearch indices in sync with the database, through a transactional outbox.
+ * <p>
+ * Writers only add a {@link SearchOutboxEntry} in their own transaction, so they don't wait for Elasticsearch, and
+ * a rolled back write never reaches the index. The outbox is then drained in the background with bulk requests.
+ * As the current state of each entity is read from the database when it is indexed, the document always ends up
+ * matching the last committed write of the entity, whatever the order in which the entries are processed. Entries
+ * which could not be indexed are retried with an exponential backoff. Only one node of the cluster drains the
+ * outbox at a time, and the entities are serialized in a short read transaction, so that no database connection is
+ * held during the bulk requests. The indices are not refreshed, the documents become searchable at their next
+ * periodic refresh.
+ * <p>
+ * While the index of an entity type is rebuilt by the {@link SearchReindexService}, the changes are also written to
+ * the new index, on every node of the cluster as the rebuild is shared through Hazelcast.
+ */
+@Service
+public class SearchIndexingService {
+
+    private final Logger log = LoggerFactory.getLogger(SearchIndexingService.class);
+
+    /**
+     * Time after which a rebuild is forgotten, if the node running it died.
+     */
+    private static final long REBUILD_TIMEOUT_IN_HOURS = 24;
+
+    private final SearchOutboxRepository searchOutboxRepository;
+
+    private final ElasticsearchTemplate elasticsearchTemplate;
+
+    private final EntityMapper entityMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties.SearchIndexing properties;
+
+    private final HazelcastInstance hazelcastInstance;
+
+    private final IMap<String, String> rebuilds;
+
+    private final ISet<String> pausedTypes;
+
+    private final ILock lock;
+
+    private final Map<String, IndexedType<?>> indexedTypes = new HashMap<>();
+
+    private final Meter indexed;
+
+    private final Meter removed;
+
+    private final Meter failed;
+
+    private final Timer batches;
+
+    private volatile long lagInMillis;
+
+    public SearchIndexingService(SearchOutboxRepository searchOutboxRepository,
+            ElasticsearchTemplate elasticsearchTemplate, EntityMapper entityMapper,
+            PlatformTransactionManager transactionManager, MetricRegistry metricRegistry,
+            ApplicationProperties applicationProperties, HazelcastInstance hazelcastInstance,
+            UserRepository userRepository) {
+        this.searchOutboxRepository = searchOutboxRepository;
+        this.elasticsearchTemplate = elasticsearchTemplate;
+        this.entityMapper = entityMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = applicationProperties.getSearchIndexing();
+        this.hazelcastInstance = hazelcastInstance;
+        this.rebuilds = hazelcastInstance.getMap("search-index-rebuilds");
+        this.pausedTypes = hazelcastInstance.getSet("search-index-paused");
+        this.lock = hazelcastInstance.getLock("search-outbox");
+        register(new IndexedType<>(User.class, userRepository, User::getId));
+
+        this.indexed = metricRegistry.meter(MetricRegistry.name(SearchIndexingService.class, "indexed"));
+        this.removed = metricRegistry.meter(MetricRegistry.name(SearchIndexingService.class, "removed"));
+        this.failed = metricRegistry.meter(MetricRegistry.name(SearchIndexingService.class, "failed"));
+        this.batches = metricRegistry.timer(MetricRegistry.name(SearchIndexingService.class, "batches"));
+        String lagName = MetricRegistry.name(SearchIndexingService.class, "lag");
+        metricRegistry.remove(lagName);
+        metricRegistry.register(lagName, (Gauge<Long>) () -> lagInMillis);
+    }
+
+    private void register(IndexedType<?> indexedType) {
+        indexedTypes.put(indexedType.type.getSimpleName(), indexedType);
+    }
+
+    /**
+     * @param entityType the simple name of an entity class
+     * @return the entity class, or null if the entity is not indexed
+     */
+    public Class<?> getEntityClass(String entityType) {
+        IndexedType<?> indexedType = indexedTypes.get(entityType);
+        return indexedType == null ? null : indexedType.type;
+    }
+
+    /**
+     * Start writing the changes of an entity type to the index being rebuilt, in addition to its current index.
+     *
+     * @param entityType the simple name of the entity class
+     * @param indexName the name of the index being rebuilt
+     * @return false if the index of this entity type is already being rebuilt
+     */
+    public boolean startRebuild(String entityType, String indexName) {
+        if (rebuilds.putIfAbsent(entityType, indexName, REBUILD_TIMEOUT_IN_HOURS, TimeUnit.HOURS) != null) {
+            return false;
+        }
+        getRebuildRemovedIds(entityType).clear();
+        return true;
+    }
+
+    /**
+     * @param entityType the simple name of the entity class
+     * @return the ids of the entities removed from the index since the rebuild started
+     */
+    public ISet<Long> getRebuildRemovedIds(String entityType) {
+        return hazelcastInstance.getSet("search-index-rebuild-removed-" + entityType);
+    }
+
+    /**
+     * Stop writing the changes of an entity type to its current index while it is replaced by the rebuilt index,
+     * they are only written to the rebuilt index until the rebuild is finished.
+     *
+     * @param entityType the simple name of the entity class
+     */
+    public void pauseCurrentIndexWrites(String entityType) {
+        pausedTypes.add(entityType);
+    }
+
+    /**
+     * Stop writing the changes of an entity type to its rebuilt index.
+     *
+     * @param entityType the simple name of the entity class
+     */
+    public void finishRebuild(String entityType) {
+        rebuilds.remove(entityType);
+        pausedTypes.remove(entityType);
+        getRebuildRemovedIds(entityType).clear();
+    }
+
+    /**
+     * Schedule the indexing of an entity, once the current transaction is committed.
+     *
+     * @param type the class of the entity
+     * @param id the id of the entity, which is indexed if it still exists, and removed from the index otherwise
+     */
+    @Transactional
+    public void scheduleIndexing(Class<?> type, Long id) {
+        searchOutboxRepository.save(new SearchOutboxEntry(type.getSimpleName(), id, Instant.now()));
+    }
+
+    /**
+     * Schedule the indexing of several entities of the same type, once the current transaction is committed.
+     *
+     * @param type the class of the entities
+     * @param ids the ids of the entities
+     */
+    @Transactional
+    public void scheduleIndexing(Class<?> type, Collection<Long> ids) {
+        Instant now = Instant.now();
+        searchOutboxRepository.save(ids.stream()
+            .map(id -> new SearchOutboxEntry(type.getSimpleName(), id, now))
+            .collect(Collectors.toList()));
+    }
+
+    /**
+     * Index all the pending outbox entries, unless another node is already indexing them.
+     */
+    @Scheduled(fixedDelayString = "${application.search-indexing.poll-interval-in-millis:500}")
+    public void indexPendingEntries() {
+        if (!lock.tryLock()) {
+            return;
+        }
+        try {
+            int count;
+            do {
+                count = indexBatch();
+            } while (count >= properties.getBatchSize());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int indexBatch() {
+        Instant now = Instant.now();
+        List<SearchOutboxEntry> entries = transactionTemplate.execute(status -> {
+            SearchOutboxEntry oldestEntry = searchOutboxRepository.findFirstByOrderByIdAsc();
+            lagInMillis = oldestEntry == null ? 0 :
+                Math.max(0, now.toEpochMilli() - oldestEntry.getCreatedDate().toEpochMilli());
+            return searchOutboxRepository
+                .findAllByNextAttemptDateLessThanEqualOrderByIdAsc(now, new PageRequest(0, properties.getBatchSize()));
+        });
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        Timer.Context time = batches.time();
+        try {
+            // Each entity is indexed once, however many times it changed
+            Map<String, Set<Long>> idsByType = new LinkedHashMap<>();
+            for (SearchOutboxEntry entry : entries) {
+                idsByType.computeIfAbsent(entry.getEntityType(), type -> new LinkedHashSet<>()).add(entry.getEntityId());
+            }
+            Map<String, Documents> documentsByType = transactionTemplate.execute(status -> {
+                Map<String, Documents> documents = new LinkedHashMap<>();
+                idsByType.forEach((type, ids) -> documents.put(type, read(type, ids)));
+                return documents;
+            });
+            Map<String, Set<Long>> failedIdsByType = new HashMap<>();
+            documentsByType.forEach((type, documents) -> failedIdsByType.put(type, index(type, documents)));
+            Instant indexedDate = Instant.now();
+            transactionTemplate.execute(status -> {
+                updateOutbox(entries, failedIdsByType, indexedDate);
+                return null;
+            });
+        } finally {
+            time.stop();
+        }
+        return entries.size();
+    }
+
+    /**
+     * Read the entities, and serialize those which exist along with their lazy associations.
+     */
+    private Documents read(String type, Set<Long> ids) {
+        Documents documents = new Documents(ids);
+        IndexedType<?> indexedType = indexedTypes.get(type);
+        if (indexedType == null) {
+            return documents;
+        }
+        Map<Long, Object> entities = indexedType.findAll(ids);
+        for (Long id : ids) {
+            Object entity = entities.get(id);
+            if (entity == null) {
+                documents.removedIds.add(id);
+                continue;
+            }
+            try {
+                documents.sources.put(id, entityMapper.mapToString(entity));
+            } catch (IOException e) {
+                log.warn("Could not serialize {} {}: {}", type, id, e.getMessage());
+                documents.failedIds.add(id);
+            }
+        }
+        return documents;
+    }
+
+    /**
+     * Index the entities which exist, and remove the documents of the others.
+     *
+     * @return the ids of the entities which could not be indexed or removed
+     */
+    private Set<Long> index(String type, Documents documents) {
+        IndexedType<?> indexedType = indexedTypes.get(type);
+        if (indexedType == null) {
+            log.warn("Dropping the search outbox entries of unknown entity type {}", type);
+            return Collections.emptySet();
+        }
+        Set<Long> failedIds = new HashSet<>(documents.failedIds);
+        try {
+            ElasticsearchPersistentEntity<?> persistentEntity =
+                elasticsearchTemplate.getPersistentEntityFor(indexedType.type);
+            String rebuildIndex = rebuilds.get(type);
+            if (rebuildIndex == null || !pausedTypes.contains(type)) {
+                failedIds.addAll(index(persistentEntity.getIndexName(), persistentEntity.getIndexType(),
+                    documents.sources));
+                failedIds.addAll(remove(persistentEntity.getIndexName(), persistentEntity.getIndexType(),
+                    documents.removedIds));
+            }
+            if (rebuildIndex != null) {
+                // The documents copied by the rebuild must not bring back the entities removed meanwhile
+                getRebuildRemovedIds(type).addAll(documents.removedIds);
+                failedIds.addAll(index(rebuildIndex, persistentEntity.getIndexType(), documents.sources));
+                failedIds.addAll(remove(rebuildIndex, persistentEntity.getIndexType(), documents.removedIds));
+            }
+            indexed.mark(documents.sources.size());
+            removed.mark(documents.removedIds.size());
+        } catch (RuntimeException e) {
+            log.warn("Could not index {} {} documents: {}", documents.ids.size(), type, e.getMessage());
+            failedIds.addAll(documents.ids);
+        }
+        failed.mark(failedIds.size());
+        return failedIds;
+    }
+
+    private void updateOutbox(List<SearchOutboxEntry> entries, Map<String, Set<Long>> failedIdsByType,
+            Instant indexedDate) {
+        List<Long> doneEntryIds = new ArrayList<>(entries.size());
+        for (SearchOutboxEntry entry : entries) {
+            if (failedIdsByType.get(entry.getEntityType()).contains(entry.getEntityId())) {
+                int attempts = entry.getAttempts() + 1;
+                long delay = Math.min(1L << Math.min(attempts, 20), properties.getMaxRetryDelayInSeconds());
+                entry.setAttempts(attempts);
+                entry.setNextAttemptDate(indexedDate.plusSeconds(delay));
+                searchOutboxRepository.save(entry);
+            } else {
+                doneEntryIds.add(entry.getId());
+            }
+        }
+        if (!doneEntryIds.isEmpty()) {
+            searchOutboxRepository.deleteByIdIn(doneEntryIds);
+        }
+        log.debug("Indexed {} search outbox entries, {} failed", doneEntryIds.size(),
+            entries.size() - doneEntryIds.size());
+    }
+
+    private Set<Long> index(String indexName, String indexType, Map<Long, String> sources) {
+        if (sources.isEmpty()) {
+            return Collections.emptySet();
+        }
+        List<IndexQuery> indexQueries = new ArrayList<>(sources.size());
+        sources.forEach((id, source) -> indexQueries.add(new IndexQueryBuilder().withIndexName(indexName)
+            .withType(indexType).withId(id.toString()).withSource(source).build()));
+        Set<Long> failedIds = new HashSet<>();
+        try {
+            elasticsearchTemplate.bulkIndex(indexQueries);
+        } catch (ElasticsearchException e) {
+            log.warn("Could not index {} documents in {}: {}", e.getFailedDocuments().size(), indexName, e.getMessage());
+            e.getFailedDocuments().keySet().forEach(id -> failedIds.add(Long.valueOf(id)));
+        }
+        return failedIds;
+    }
+
+    private Set<Long> remove(String indexName, String indexType, List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptySet();
+        }
+        BulkRequestBuilder bulkRequest = elasticsearchTemplate.getClient().prepareBulk();
+        for (Long id : ids) {
+            bulkRequest.add(elasticsearchTemplate.getClient().prepareDelete(indexName, indexType, id.toString()));
+        }
+        BulkResponse response = bulkRequest.execute().actionGet();
+        Set<Long> failedIds = new HashSet<>();
+        for (BulkItemResponse itemResponse : response.getItems()) {
+            if (itemResponse.isFailed()) {
+                log.warn("Could not remove {} from {}: {}", itemResponse.getId(), indexName,
+                    itemResponse.getFailureMessage());
+                failedIds.add(Long.valueOf(itemResponse.getId()));
+            }
+        }
+        return failedIds;
+    }
+
+    /**
+     * The documents of a batch of entities of the same type.
+     */
+    private static class Documents {
+
+        private final Set<Long> ids;
+
+        private final Map<Long, String> sources = new HashMap<>();
+
+        private final List<Long> removedIds = new ArrayList<>();
+
+        private final Set<Long> failedIds = new HashSet<>();
+
+        Documents(Set<Long> ids) {
+            this.ids = ids;
+        }
+    }
+
+    /**
+     * An entity type stored in a search index.
+     */
+    private static class IndexedType<T> {
+
+        private final Class<T> type;
+
+        private final JpaRepository<T, Long> repository;
+
+        private final Function<T, Long> idGetter;
+
+        IndexedType(Class<T> type, JpaRepository<T, Long> repository, Function<T, Long> idGetter) {
+            this.type = type;
+            this.repository = repository;
+            this.idGetter = idGetter;
+        }
+
+        Map<Long, Object> findAll(Set<Long> ids) {
+            Map<Long, Object> entities = new HashMap<>();
+            for (T entity : repository.findAll(ids)) {
+                entities.put(idGetter.apply(entity), entity);
+            }
+            return entities;
+        }
+    }
+}
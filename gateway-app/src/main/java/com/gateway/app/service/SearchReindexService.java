@@ -0,0 +1,358 @@
+package com.gateway.app.service;
+
+import com.gateway.app.config.ApplicationProperties;
+import com.gateway.app.config.ElasticsearchConfiguration;
+import com.gateway.app.service.dto.SearchReindexStatus;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import org.elasticsearch.action.admin.indices.alias.IndicesAliasesRequestBuilder;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.bulk.BulkResponse;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.client.IndicesAdminClient;
+import org.elasticsearch.indices.InvalidAliasNameException;
+import org.elasticsearch.rest.RestStatus;
+import org.hibernate.CacheMode;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.elasticsearch.core.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.EntityMapper;
+import org.springframework.data.elasticsearch.core.mapping.ElasticsearchPersistentEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManager;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Service rebuilding the search index of an entity type from the database, without downtime.
+ * <p>
+ * The entities are copied to a new versioned index, named after the index of the entity and the start date, by
+ * streaming the table with a scrollable cursor and sending bulk requests from several workers. Meanwhile, searches
+ * still use the current index, and the {@link SearchIndexingService} writes the live changes to both indices. The
+ * copy only creates the documents which don't exist yet, so that it never overwrites a more recent live change. Once
+ * the copy is done, the alias named after the index of the entity is moved to the new index in one atomic request,
+ * and the previous index is deleted. The first version of each index is created behind its alias at startup by the
+ * {@link ElasticsearchConfiguration}.
+ * <p>
+ * The reindex runs on its own thread, as it may last for hours, so that it never holds a thread of the shared task
+ * executor. The reindexes of different entity types run one after the other.
+ */
+@Service
+public class SearchReindexService {
+
+    private final Logger log = LoggerFactory.getLogger(SearchReindexService.class);
+
+    private static final long COPY_TIMEOUT_IN_HOURS = 24;
+
+    private static final int ALIAS_ATTEMPTS = 5;
+
+    private static final long ALIAS_RETRY_DELAY_IN_MILLIS = 1000;
+
+    private final SearchIndexingService searchIndexingService;
+
+    private final ElasticsearchTemplate elasticsearchTemplate;
+
+    private final EntityMapper entityMapper;
+
+    private final EntityManager entityManager;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final MetricRegistry metricRegistry;
+
+    private final ApplicationProperties.SearchIndexing properties;
+
+    private final Executor reindexExecutor;
+
+    private final Map<String, SearchReindexStatus> statuses = new ConcurrentHashMap<>();
+
+    public SearchReindexService(SearchIndexingService searchIndexingService, ElasticsearchTemplate elasticsearchTemplate,
+            EntityMapper entityMapper, EntityManager entityManager, PlatformTransactionManager transactionManager,
+            MetricRegistry metricRegistry, ApplicationProperties applicationProperties, Executor reindexExecutor) {
+        this.searchIndexingService = searchIndexingService;
+        this.elasticsearchTemplate = elasticsearchTemplate;
+        this.entityMapper = entityMapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.metricRegistry = metricRegistry;
+        this.properties = applicationProperties.getSearchIndexing();
+        this.reindexExecutor = reindexExecutor;
+    }
+
+    @Autowired
+    public SearchReindexService(SearchIndexingService searchIndexingService, ElasticsearchTemplate elasticsearchTemplate,
+            EntityMapper entityMapper, EntityManager entityManager, PlatformTransactionManager transactionManager,
+            MetricRegistry metricRegistry, ApplicationProperties applicationProperties) {
+        this(searchIndexingService, elasticsearchTemplate, entityMapper, entityManager, transactionManager,
+            metricRegistry, applicationProperties, Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "search-reindex");
+                thread.setDaemon(true);
+                return thread;
+            }));
+    }
+
+    /**
+     * Interrupt the running reindex, which then deletes its new index.
+     */
+    @PreDestroy
+    public void destroy() {
+        if (reindexExecutor instanceof ExecutorService) {
+            ((ExecutorService) reindexExecutor).shutdownNow();
+        }
+    }
+
+    /**
+     * Start rebuilding the search index of an entity type, in the background.
+     *
+     * @param entityType the simple name of the entity class
+     * @return the status of the reindex, or empty if the index is already being rebuilt, possibly by another node
+     * @throws IllegalArgumentException if the entity is not indexed
+     */
+    public Optional<SearchReindexStatus> reindex(String entityType) {
+        Class<?> entityClass = searchIndexingService.getEntityClass(entityType);
+        if (entityClass == null) {
+            throw new IllegalArgumentException("Entity " + entityType + " is not indexed");
+        }
+        ElasticsearchPersistentEntity<?> persistentEntity = elasticsearchTemplate.getPersistentEntityFor(entityClass);
+        String indexName = ElasticsearchConfiguration.getVersionedIndexName(persistentEntity.getIndexName(),
+            Instant.now());
+        // The index is created before the live changes are written to it, so that they don't create it with defaults
+        Map<String, Object> settings = new HashMap<>();
+        settings.put("index.number_of_shards", persistentEntity.getShards());
+        settings.put("index.number_of_replicas", 0);
+        settings.put("index.refresh_interval", "-1");
+        elasticsearchTemplate.createIndex(indexName, settings);
+        if (!searchIndexingService.startRebuild(entityType, indexName)) {
+            elasticsearchTemplate.deleteIndex(indexName);
+            return Optional.empty();
+        }
+
+        SearchReindexStatus status = new SearchReindexStatus(entityType, indexName, Instant.now());
+        statuses.put(entityType, status);
+        String progressName = MetricRegistry.name(SearchReindexService.class, entityType, "progress");
+        metricRegistry.remove(progressName);
+        metricRegistry.register(progressName, (Gauge<Double>) () -> status.getTotal() == 0 ? 0.0 :
+            100.0 * status.getIndexed() / status.getTotal());
+        log.info("Rebuilding the search index of {} in {}", entityType, indexName);
+        try {
+            reindexExecutor.execute(() -> rebuild(entityClass, persistentEntity, status));
+        } catch (RejectedExecutionException e) {
+            fail(status, e);
+            throw e;
+        }
+        return Optional.of(status);
+    }
+
+    /**
+     * @return the status of the last reindex of each entity type started on this node
+     */
+    public Collection<SearchReindexStatus> getStatuses() {
+        return statuses.values();
+    }
+
+    private void rebuild(Class<?> entityClass, ElasticsearchPersistentEntity<?> persistentEntity,
+            SearchReindexStatus status) {
+        try {
+            copy(entityClass, persistentEntity.getIndexType(), status);
+            if (status.getFailed() > 0) {
+                throw new IllegalStateException(status.getFailed() + " documents could not be indexed");
+            }
+            removeDeletedEntities(entityClass, persistentEntity.getIndexType(), status);
+
+            Map<String, Object> settings = new HashMap<>();
+            settings.put("index.number_of_replicas", persistentEntity.getReplicas());
+            settings.put("index.refresh_interval", persistentEntity.getRefreshInterval());
+            elasticsearchTemplate.getClient().admin().indices().prepareUpdateSettings(status.getIndexName())
+                .setSettings(settings).get();
+            elasticsearchTemplate.refresh(status.getIndexName());
+            swapAlias(persistentEntity.getIndexName(), status);
+            searchIndexingService.finishRebuild(status.getEntityType());
+            status.completed();
+            log.info("Rebuilt the search index of {} in {}: {} documents", status.getEntityType(),
+                status.getIndexName(), status.getIndexed());
+        } catch (Exception e) {
+            fail(status, e);
+        }
+    }
+
+    private void fail(SearchReindexStatus status, Exception e) {
+        log.error("Could not rebuild the search index of {}", status.getEntityType(), e);
+        status.failed(e.getMessage());
+        // The live changes must stop before the index is deleted, otherwise they would create it again
+        searchIndexingService.finishRebuild(status.getEntityType());
+        if (e instanceof InvalidAliasNameException) {
+            // The previous index was already deleted, the new one is the only complete copy of the documents
+            log.error("Keeping the index {}, rebuild the index of {} again to replace it", status.getIndexName(),
+                status.getEntityType());
+            return;
+        }
+        try {
+            elasticsearchTemplate.deleteIndex(status.getIndexName());
+        } catch (RuntimeException deleteException) {
+            log.warn("Could not delete the index {}: {}", status.getIndexName(), deleteException.getMessage());
+        }
+    }
+
+    /**
+     * Copy all the entities to the new index, reading them in the current thread and sending the bulk requests from
+     * a pool of workers. When all the workers are busy, the current thread sends the next bulk request itself, which
+     * slows down the reading instead of buffering the whole table.
+     */
+    private void copy(Class<?> entityClass, String indexType, SearchReindexStatus status) throws InterruptedException {
+        int workerCount = properties.getReindexWorkers();
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(workerCount), new ThreadPoolExecutor.CallerRunsPolicy());
+        Meter meter = metricRegistry.meter(MetricRegistry.name(SearchReindexService.class, status.getEntityType(),
+            "indexed"));
+        try {
+            transactionTemplate.execute(transactionStatus -> {
+                scroll(entityClass, indexType, status, workers, meter);
+                return null;
+            });
+        } finally {
+            workers.shutdown();
+            workers.awaitTermination(COPY_TIMEOUT_IN_HOURS, TimeUnit.HOURS);
+        }
+    }
+
+    private void scroll(Class<?> entityClass, String indexType, SearchReindexStatus status, Executor workers,
+            Meter meter) {
+        Client client = elasticsearchTemplate.getClient();
+        int batchSize = properties.getReindexBatchSize();
+        Session session = entityManager.unwrap(Session.class);
+        status.setTotal((Long) session.createQuery("select count(entity) from " + entityClass.getName() + " entity")
+            .uniqueResult());
+        ScrollableResults results = session.createQuery("select entity from " + entityClass.getName() + " entity")
+            .setFetchSize(batchSize)
+            .setReadOnly(true)
+            .setCacheMode(CacheMode.IGNORE)
+            .scroll(ScrollMode.FORWARD_ONLY);
+        try {
+            BulkRequestBuilder bulkRequest = client.prepareBulk();
+            while (results.next()) {
+                Object entity = results.get(0);
+                bulkRequest.add(client
+                    .prepareIndex(status.getIndexName(), indexType, String.valueOf(session.getIdentifier(entity)))
+                    .setSource(entityMapper.mapToString(entity))
+                    .setCreate(true));
+                if (bulkRequest.numberOfActions() >= batchSize) {
+                    send(bulkRequest, status, workers, meter);
+                    bulkRequest = client.prepareBulk();
+                    // The entities are serialized, including their lazy associations, they can be forgotten
+                    session.clear();
+                }
+            }
+            if (bulkRequest.numberOfActions() > 0) {
+                send(bulkRequest, status, workers, meter);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            results.close();
+        }
+    }
+
+    private void send(BulkRequestBuilder bulkRequest, SearchReindexStatus status, Executor workers, Meter meter) {
+        workers.execute(() -> {
+            int count = bulkRequest.numberOfActions();
+            try {
+                BulkResponse response = bulkRequest.get();
+                int failed = 0;
+                for (BulkItemResponse itemResponse : response.getItems()) {
+                    // A conflict means the document was already written by a live change, which is more recent
+                    if (itemResponse.isFailed() && itemResponse.getFailure().getStatus() != RestStatus.CONFLICT) {
+                        log.warn("Could not index {} in {}: {}", itemResponse.getId(), status.getIndexName(),
+                            itemResponse.getFailureMessage());
+                        failed++;
+                    }
+                }
+                status.addIndexed(count - failed);
+                status.addFailed(failed);
+                meter.mark(count - failed);
+            } catch (RuntimeException e) {
+                log.warn("Could not index {} documents in {}: {}", count, status.getIndexName(), e.getMessage());
+                status.addFailed(count);
+            }
+        });
+    }
+
+    /**
+     * Remove the documents copied from entities which were deleted during the copy, after they were read.
+     */
+    private void removeDeletedEntities(Class<?> entityClass, String indexType, SearchReindexStatus status) {
+        List<Long> removedIds = new ArrayList<>(searchIndexingService.getRebuildRemovedIds(status.getEntityType()));
+        if (removedIds.isEmpty()) {
+            return;
+        }
+        Client client = elasticsearchTemplate.getClient();
+        BulkRequestBuilder bulkRequest = client.prepareBulk();
+        transactionTemplate.execute(transactionStatus -> {
+            for (Long id : removedIds) {
+                if (entityManager.find(entityClass, id) == null) {
+                    bulkRequest.add(client.prepareDelete(status.getIndexName(), indexType, id.toString()));
+                }
+            }
+            return null;
+        });
+        if (bulkRequest.numberOfActions() > 0 && bulkRequest.get().hasFailures()) {
+            throw new IllegalStateException("Could not remove the entities deleted during the copy");
+        }
+    }
+
+    /**
+     * Point the alias to the new index, and delete the indices it pointed to.
+     */
+    private void swapAlias(String alias, SearchReindexStatus status) throws InterruptedException {
+        IndicesAdminClient indices = elasticsearchTemplate.getClient().admin().indices();
+        List<String> previousIndices = new ArrayList<>();
+        indices.prepareGetAliases(alias).get().getAliases().keysIt().forEachRemaining(previousIndices::add);
+        if (previousIndices.isEmpty() && elasticsearchTemplate.indexExists(alias)) {
+            replaceIndexByAlias(alias, status);
+            return;
+        }
+        IndicesAliasesRequestBuilder request = indices.prepareAliases();
+        previousIndices.forEach(previousIndex -> request.removeAlias(previousIndex, alias));
+        request.addAlias(status.getIndexName(), alias).get();
+        previousIndices.forEach(elasticsearchTemplate::deleteIndex);
+    }
+
+    /**
+     * Replace an index created with the name of the alias, before the first version of the index was created at
+     * startup. The index must be deleted before the alias is added, and searches fail in between. The live
+     * changes are only written to the new index meanwhile, but a batch which started before may still create the
+     * index again: as its changes were also written to the new index, the index is deleted again.
+     */
+    private void replaceIndexByAlias(String alias, SearchReindexStatus status) throws InterruptedException {
+        log.warn("Replacing the index {} by an alias to {}", alias, status.getIndexName());
+        searchIndexingService.pauseCurrentIndexWrites(status.getEntityType());
+        for (int attempt = 1; ; attempt++) {
+            elasticsearchTemplate.deleteIndex(alias);
+            try {
+                elasticsearchTemplate.getClient().admin().indices().prepareAliases()
+                    .addAlias(status.getIndexName(), alias).get();
+                return;
+            } catch (InvalidAliasNameException e) {
+                if (attempt >= ALIAS_ATTEMPTS) {
+                    throw e;
+                }
+                log.warn("The index {} was created again by a live change, deleting it again", alias);
+                Thread.sleep(ALIAS_RETRY_DELAY_IN_MILLIS);
+            }
+        }
+    }
+}
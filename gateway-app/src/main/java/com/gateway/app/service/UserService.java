@@ -3,26 +3,38 @@ package com.gateway.app.service;
 import com.gateway.app.domain.Authority;
 import com.gateway.app.domain.User;
 import com.gateway.app.repository.AuthorityRepository;
+import com.gateway.app.config.ApplicationProperties;
 import com.gateway.app.config.Constants;
 import com.gateway.app.repository.UserRepository;
-import com.gateway.app.repository.search.UserSearchRepository;
 import com.gateway.app.security.AuthoritiesConstants;
 import com.gateway.app.security.SecurityUtils;
 import com.gateway.app.service.util.RandomUtil;
 import com.gateway.app.service.dto.UserDTO;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.Timer;
+import org.hibernate.query.NativeQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.EntityManager;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -38,15 +50,39 @@ public class UserService {
 
     private final PasswordEncoder passwordEncoder;
 
-    private final UserSearchRepository userSearchRepository;
+    private final SearchIndexingService searchIndexingService;
 
     private final AuthorityRepository authorityRepository;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, UserSearchRepository userSearchRepository, AuthorityRepository authorityRepository) {
+    private final UserCache userCache;
+
+    private final EntityManager em;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationProperties applicationProperties;
+
+    private final Timer notActivatedUsersRemovalTimer;
+
+    private final Meter removedNotActivatedUsers;
+
+    private final AtomicLong notActivatedUsersRemovalProgress = new AtomicLong();
+
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, SearchIndexingService searchIndexingService, AuthorityRepository authorityRepository, UserCache userCache,
+            EntityManager em, PlatformTransactionManager transactionManager, ApplicationProperties applicationProperties, MetricRegistry metricRegistry) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
-        this.userSearchRepository = userSearchRepository;
+        this.searchIndexingService = searchIndexingService;
         this.authorityRepository = authorityRepository;
+        this.userCache = userCache;
+        this.em = em;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.applicationProperties = applicationProperties;
+        this.notActivatedUsersRemovalTimer = metricRegistry.timer(MetricRegistry.name(UserService.class, "removeNotActivatedUsers"));
+        this.removedNotActivatedUsers = metricRegistry.meter(MetricRegistry.name(UserService.class, "removeNotActivatedUsers", "removed"));
+        String progress = MetricRegistry.name(UserService.class, "removeNotActivatedUsers", "progress");
+        metricRegistry.remove(progress);
+        metricRegistry.register(progress, (Gauge<Long>) notActivatedUsersRemovalProgress::get);
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -56,7 +92,8 @@ public class UserService {
                 // activate given user for the registration key.
                 user.setActivated(true);
                 user.setActivationKey(null);
-                userSearchRepository.save(user);
+                searchIndexingService.scheduleIndexing(User.class, user.getId());
+                userCache.removeUserFromCache(user.getLogin());
                 log.debug("Activated user: {}", user);
                 return user;
             });
@@ -71,6 +108,7 @@ public class UserService {
                 user.setPassword(passwordEncoder.encode(newPassword));
                 user.setResetKey(null);
                 user.setResetDate(null);
+                userCache.removeUserFromCache(user.getLogin());
                 return user;
            });
     }
@@ -107,7 +145,7 @@ public class UserService {
         authorities.add(authority);
         newUser.setAuthorities(authorities);
         userRepository.save(newUser);
-        userSearchRepository.save(newUser);
+        searchIndexingService.scheduleIndexing(User.class, newUser.getId());
         log.debug("Created Information for User: {}", newUser);
         return newUser;
     }
@@ -137,7 +175,7 @@ public class UserService {
         user.setResetDate(Instant.now());
         user.setActivated(true);
         userRepository.save(user);
-        userSearchRepository.save(user);
+        searchIndexingService.scheduleIndexing(User.class, user.getId());
         log.debug("Created Information for User: {}", user);
         return user;
     }
@@ -158,7 +196,7 @@ public class UserService {
             user.setEmail(email);
             user.setLangKey(langKey);
             user.setImageUrl(imageUrl);
-            userSearchRepository.save(user);
+            searchIndexingService.scheduleIndexing(User.class, user.getId());
             log.debug("Changed Information for User: {}", user);
         });
     }
@@ -173,6 +211,7 @@ public class UserService {
         return Optional.of(userRepository
             .findOne(userDTO.getId()))
             .map(user -> {
+                userCache.removeUserFromCache(user.getLogin());
                 user.setLogin(userDTO.getLogin());
                 user.setFirstName(userDTO.getFirstName());
                 user.setLastName(userDTO.getLastName());
@@ -185,7 +224,8 @@ public class UserService {
                 userDTO.getAuthorities().stream()
                     .map(authorityRepository::findOne)
                     .forEach(managedAuthorities::add);
-                userSearchRepository.save(user);
+                searchIndexingService.scheduleIndexing(User.class, user.getId());
+                userCache.removeUserFromCache(user.getLogin());
                 log.debug("Changed Information for User: {}", user);
                 return user;
             })
@@ -195,7 +235,8 @@ public class UserService {
     public void deleteUser(String login) {
         userRepository.findOneByLogin(login).ifPresent(user -> {
             userRepository.delete(user);
-            userSearchRepository.delete(user);
+            searchIndexingService.scheduleIndexing(User.class, user.getId());
+            userCache.removeUserFromCache(user.getLogin());
             log.debug("Deleted User: {}", user);
         });
     }
@@ -204,6 +245,7 @@ public class UserService {
         userRepository.findOneByLogin(SecurityUtils.getCurrentUserLogin()).ifPresent(user -> {
             String encryptedPassword = passwordEncoder.encode(password);
             user.setPassword(encryptedPassword);
+            userCache.removeUserFromCache(user.getLogin());
             log.debug("Changed password for User: {}", user);
         });
     }
@@ -233,15 +275,48 @@ public class UserService {
      * Not activated users should be automatically deleted after 3 days.
      * <p>
      * This is scheduled to get fired everyday, at 01:00 (am).
+     * <p>
+     * The users are deleted by chunks, each in its own transaction unless one is already active, with set-based
+     * deletes. The number of users deleted by the current run is reported by the progress gauge.
      */
     @Scheduled(cron = "0 0 1 * * ?")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void removeNotActivatedUsers() {
-        List<User> users = userRepository.findAllByActivatedIsFalseAndCreatedDateBefore(Instant.now().minus(3, ChronoUnit.DAYS));
-        for (User user : users) {
-            log.debug("Deleting not activated user {}", user.getLogin());
-            userRepository.delete(user);
-            userSearchRepository.delete(user);
+        Instant createdBefore = Instant.now().minus(3, ChronoUnit.DAYS);
+        int chunkSize = applicationProperties.getNotActivatedUsers().getChunkSize();
+        notActivatedUsersRemovalProgress.set(0);
+        try (Timer.Context ignored = notActivatedUsersRemovalTimer.time()) {
+            Long lastId = 0L;
+            List<Long> ids;
+            do {
+                Long afterId = lastId;
+                ids = transactionTemplate.execute(status -> removeNotActivatedUsers(createdBefore, afterId, chunkSize));
+                if (!ids.isEmpty()) {
+                    lastId = ids.get(ids.size() - 1);
+                }
+            } while (ids.size() == chunkSize);
+        }
+        log.debug("Deleted {} not activated users", notActivatedUsersRemovalProgress.get());
+    }
+
+    private List<Long> removeNotActivatedUsers(Instant createdBefore, Long afterId, int chunkSize) {
+        List<Long> ids = userRepository.findIdsByActivatedIsFalseAndCreatedDateBeforeAndIdGreaterThan(createdBefore,
+            afterId, new PageRequest(0, chunkSize));
+        if (ids.isEmpty()) {
+            return ids;
         }
+        log.debug("Deleting {} not activated users", ids.size());
+        // Only the authorities collection cache region is invalidated, instead of all the cache regions
+        em.createNativeQuery("delete from jhi_user_authority where user_id in (:ids)")
+            .setParameter("ids", ids)
+            .unwrap(NativeQuery.class)
+            .addSynchronizedQuerySpace("jhi_user_authority")
+            .executeUpdate();
+        userRepository.deleteByIdIn(ids);
+        searchIndexingService.scheduleIndexing(User.class, ids);
+        removedNotActivatedUsers.mark(ids.size());
+        notActivatedUsersRemovalProgress.addAndGet(ids.size());
+        return ids;
     }
 
     /**
@@ -0,0 +1,49 @@
+package com.gateway.app.service.dto;
+
+import org.springframework.boot.actuate.audit.AuditEvent;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A keyset page of audit events, with the position of the next page.
+ */
+public class AuditEventPage {
+
+    private final List<AuditEvent> events;
+
+    private final Instant nextAfterDate;
+
+    private final Long nextAfterId;
+
+    public AuditEventPage(List<AuditEvent> events, Instant nextAfterDate, Long nextAfterId) {
+        this.events = events;
+        this.nextAfterDate = nextAfterDate;
+        this.nextAfterId = nextAfterId;
+    }
+
+    public List<AuditEvent> getEvents() {
+        return events;
+    }
+
+    /**
+     * @return true if the page is full, so there may be a next page
+     */
+    public boolean hasNext() {
+        return nextAfterId != null;
+    }
+
+    /**
+     * @return the date of the last event of the page, or null if this is the last page
+     */
+    public Instant getNextAfterDate() {
+        return nextAfterDate;
+    }
+
+    /**
+     * @return the id of the last event of the page, or null if this is the last page
+     */
+    public Long getNextAfterId() {
+        return nextAfterId;
+    }
+}
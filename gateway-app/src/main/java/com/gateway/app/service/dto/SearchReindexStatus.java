@@ -0,0 +1,112 @@
+package com.gateway.app.service.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The progress of the full reindex of an entity type.
+ */
+public class SearchReindexStatus implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum State {
+        RUNNING, COMPLETED, FAILED
+    }
+
+    private final String entityType;
+
+    private final String indexName;
+
+    private final Instant startDate;
+
+    private final AtomicLong indexed = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile State state = State.RUNNING;
+
+    private volatile long total;
+
+    private volatile Instant endDate;
+
+    private volatile String error;
+
+    public SearchReindexStatus(String entityType, String indexName, Instant startDate) {
+        this.entityType = entityType;
+        this.indexName = indexName;
+        this.startDate = startDate;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public String getIndexName() {
+        return indexName;
+    }
+
+    public Instant getStartDate() {
+        return startDate;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getIndexed() {
+        return indexed.get();
+    }
+
+    public void addIndexed(long count) {
+        indexed.addAndGet(count);
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    public void addFailed(long count) {
+        failed.addAndGet(count);
+    }
+
+    public Instant getEndDate() {
+        return endDate;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void completed() {
+        this.endDate = Instant.now();
+        this.state = State.COMPLETED;
+    }
+
+    public void failed(String error) {
+        this.endDate = Instant.now();
+        this.error = error;
+        this.state = State.FAILED;
+    }
+
+    @Override
+    public String toString() {
+        return "SearchReindexStatus{" +
+            "entityType='" + entityType + "'" +
+            ", indexName='" + indexName + "'" +
+            ", state=" + state +
+            ", total=" + total +
+            ", indexed=" + indexed +
+            ", failed=" + failed +
+            "}";
+    }
+}
@@ -0,0 +1,59 @@
+package com.gateway.app.web.rest;
+
+import com.gateway.app.config.apidoc.AggregatedApiDocs;
+import com.gateway.app.config.apidoc.GatewayApiDocsAggregator;
+
+import com.codahale.metrics.annotation.Timed;
+import io.github.jhipster.config.JHipsterConstants;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * REST controller serving the Swagger documents of all the microservices, merged into one document.
+ */
+@RestController
+@Profile(JHipsterConstants.SPRING_PROFILE_SWAGGER)
+public class ApiDocsResource {
+
+    private final GatewayApiDocsAggregator apiDocsAggregator;
+
+    public ApiDocsResource(GatewayApiDocsAggregator apiDocsAggregator) {
+        this.apiDocsAggregator = apiDocsAggregator;
+    }
+
+    /**
+     * GET  /v2/api-docs/aggregated : get the aggregated Swagger document of the microservices.
+     *
+     * @param ifNoneMatch the ETag of the document already held by the client, if any
+     * @param acceptEncoding the encodings accepted by the client, the document is sent gzipped if gzip is one of them
+     * @return the ResponseEntity with status 200 (OK) and with body the document, or with status 304 (Not Modified)
+     * if the client already holds the current document
+     */
+    @GetMapping("/v2/api-docs/aggregated")
+    @Timed
+    public ResponseEntity<byte[]> getAggregatedApiDocs(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        AggregatedApiDocs apiDocs = apiDocsAggregator.getApiDocs();
+        if (apiDocs == null) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        if (ifNoneMatch != null && ifNoneMatch.contains(apiDocs.getEtag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(apiDocs.getEtag()).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON_UTF8)
+            .eTag(apiDocs.getEtag())
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip")) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(apiDocs.getGzippedContent());
+        }
+        return response.body(apiDocs.getContent());
+    }
+}
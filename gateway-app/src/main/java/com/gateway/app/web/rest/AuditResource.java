@@ -1,6 +1,7 @@
 package com.gateway.app.web.rest;
 
 import com.gateway.app.service.AuditEventService;
+import com.gateway.app.service.dto.AuditEventPage;
 import com.gateway.app.web.rest.util.PaginationUtil;
 
 import io.github.jhipster.web.util.ResponseUtil;
@@ -12,7 +13,12 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.List;
@@ -24,6 +30,8 @@ import java.util.List;
 @RequestMapping("/management/audits")
 public class AuditResource {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
     private final AuditEventService auditEventService;
 
     public AuditResource(AuditEventService auditEventService) {
@@ -44,25 +52,71 @@ public class AuditResource {
     }
 
     /**
-     * GET  /audits : get a page of AuditEvents between the fromDate and toDate.
+     * GET  /audits : get a keyset page of AuditEvents between the fromDate and toDate, ordered by date.
+     * <p>
+     * The Link header has the URI of the next page, there is no total count.
      *
      * @param fromDate the start of the time period of AuditEvents to get
      * @param toDate the end of the time period of AuditEvents to get
-     * @param pageable the pagination information
+     * @param afterDate the date of the last AuditEvent of the previous page, from the link to the next page
+     * @param afterId the id of the last AuditEvent of the previous page, from the link to the next page
+     * @param size the size of the page
      * @return the ResponseEntity with status 200 (OK) and the list of AuditEvents in body
      */
     @GetMapping(params = {"fromDate", "toDate"})
     public ResponseEntity<List<AuditEvent>> getByDates(
         @RequestParam(value = "fromDate") LocalDate fromDate,
         @RequestParam(value = "toDate") LocalDate toDate,
-        @ApiParam Pageable pageable) {
+        @RequestParam(value = "afterDate", required = false) Instant afterDate,
+        @RequestParam(value = "afterId", required = false) Long afterId,
+        @RequestParam(value = "size", defaultValue = "20") int size) {
 
-        Page<AuditEvent> page = auditEventService.findByDates(
-            fromDate.atStartOfDay(ZoneId.systemDefault()).toInstant(),
-            toDate.atStartOfDay(ZoneId.systemDefault()).plusDays(1).toInstant(),
-            pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(page, "/management/audits");
-        return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        AuditEventPage page = auditEventService.findByDates(startOf(fromDate), endOf(toDate), afterDate, afterId,
+            pageSize);
+        UriComponentsBuilder nextPageUri = null;
+        if (page.hasNext()) {
+            nextPageUri = UriComponentsBuilder.fromUriString("/management/audits")
+                .queryParam("fromDate", fromDate)
+                .queryParam("toDate", toDate)
+                .queryParam("afterDate", page.getNextAfterDate())
+                .queryParam("afterId", page.getNextAfterId())
+                .queryParam("size", pageSize);
+        }
+        HttpHeaders headers = PaginationUtil.generateKeysetPaginationHttpHeaders(nextPageUri);
+        return new ResponseEntity<>(page.getEvents(), headers, HttpStatus.OK);
+    }
+
+    /**
+     * GET  /audits/export : stream the AuditEvents between the fromDate and toDate, ordered by date.
+     *
+     * @param fromDate the start of the time period of AuditEvents to export
+     * @param toDate the end of the time period of AuditEvents to export
+     * @param format the format of the export, CSV or NDJSON (one JSON object per line)
+     * @param response the response, written while the AuditEvents are read
+     * @throws IOException if the response could not be written
+     */
+    @GetMapping("/export")
+    public void export(
+        @RequestParam(value = "fromDate") LocalDate fromDate,
+        @RequestParam(value = "toDate") LocalDate toDate,
+        @RequestParam(value = "format", defaultValue = "CSV") AuditEventService.ExportFormat format,
+        HttpServletResponse response) throws IOException {
+
+        String extension = format == AuditEventService.ExportFormat.CSV ? "csv" : "ndjson";
+        response.setContentType(format == AuditEventService.ExportFormat.CSV ? "text/csv" : "application/x-ndjson");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"audits-" + fromDate + "-" + toDate + "." + extension + "\"");
+        auditEventService.export(startOf(fromDate), endOf(toDate), format, response.getWriter());
+    }
+
+    private static Instant startOf(LocalDate date) {
+        return date.atStartOfDay(ZoneId.systemDefault()).toInstant();
+    }
+
+    private static Instant endOf(LocalDate date) {
+        return date.atStartOfDay(ZoneId.systemDefault()).plusDays(1).toInstant();
     }
 
     /**
@@ -0,0 +1,41 @@
+package com.gateway.app.web.rest;
+
+import com.gateway.app.security.jwt.TokenSigningKeys;
+
+import com.codahale.metrics.annotation.Timed;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * REST controller publishing the public keys used to verify the JWT tokens issued by the gateway.
+ */
+@RestController
+@RequestMapping("/api")
+public class JwkSetResource {
+
+    private final TokenSigningKeys signingKeys;
+
+    public JwkSetResource(TokenSigningKeys signingKeys) {
+        this.signingKeys = signingKeys;
+    }
+
+    /**
+     * GET  /jwks : get the JSON Web Key Set of the token verification keys.
+     *
+     * @return the ResponseEntity with status 200 (OK) and with body the key set, which is empty when tokens are
+     * signed with a shared secret
+     */
+    @GetMapping("/jwks")
+    @Timed
+    public ResponseEntity<Map<String, Object>> getJwkSet() {
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES))
+            .body(signingKeys.getJwkSet());
+    }
+}
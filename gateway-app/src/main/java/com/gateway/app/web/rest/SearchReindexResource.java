@@ -0,0 +1,55 @@
+package com.gateway.app.web.rest;
+
+import com.gateway.app.service.SearchReindexService;
+import com.gateway.app.service.dto.SearchReindexStatus;
+
+import com.codahale.metrics.annotation.Timed;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Collection;
+
+/**
+ * Controller for rebuilding the search indices from the database.
+ */
+@RestController
+@RequestMapping("/management")
+public class SearchReindexResource {
+
+    private final SearchReindexService searchReindexService;
+
+    public SearchReindexResource(SearchReindexService searchReindexService) {
+        this.searchReindexService = searchReindexService;
+    }
+
+    /**
+     * POST  /search-reindex/:entityType : start rebuilding the search index of an entity, in the background.
+     *
+     * @param entityType the name of the entity, for example "User"
+     * @return the ResponseEntity with status 202 (Accepted) and with body the status of the reindex, with status 404
+     * (Not Found) if the entity is not indexed, or with status 409 (Conflict) if the index is already being rebuilt
+     */
+    @PostMapping("/search-reindex/{entityType}")
+    @Timed
+    public ResponseEntity<SearchReindexStatus> reindex(@PathVariable String entityType) {
+        try {
+            return searchReindexService.reindex(entityType)
+                .map(status -> ResponseEntity.status(HttpStatus.ACCEPTED).body(status))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.CONFLICT).build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * GET  /search-reindex : get the progress of the last reindex of each entity started on this instance.
+     *
+     * @return the statuses of the reindexes
+     */
+    @GetMapping("/search-reindex")
+    @Timed
+    public Collection<SearchReindexStatus> getStatuses() {
+        return searchReindexService.getStatuses();
+    }
+}
@@ -42,6 +42,20 @@ public final class PaginationUtil {
         return headers;
     }
 
+    /**
+     * Keyset pagination: a link to the next page only, and no total count, which would need to count all the rows.
+     *
+     * @param nextPageUri the URI of the next page, or null if this is the last page
+     * @return the headers
+     */
+    public static HttpHeaders generateKeysetPaginationHttpHeaders(UriComponentsBuilder nextPageUri) {
+        HttpHeaders headers = new HttpHeaders();
+        if (nextPageUri != null) {
+            headers.add(HttpHeaders.LINK, "<" + nextPageUri.build().encode().toUriString() + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+
     private static String generateUri(String baseUrl, int page, int size) {
         return UriComponentsBuilder.fromUriString(baseUrl).queryParam("page", page).queryParam("size", size).toUriString();
     }
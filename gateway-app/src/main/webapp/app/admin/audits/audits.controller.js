@@ -5,38 +5,92 @@
         .module('gatewayApp')
         .controller('AuditsController', AuditsController);
 
-    AuditsController.$inject = ['$filter', 'AuditsService', 'ParseLinks'];
+    AuditsController.$inject = ['$filter', '$http', '$httpParamSerializer', '$window', 'AuditsService'];
 
-    function AuditsController ($filter, AuditsService, ParseLinks) {
+    function AuditsController ($filter, $http, $httpParamSerializer, $window, AuditsService) {
         var vm = this;
 
         vm.audits = null;
+        vm.exportAudits = exportAudits;
         vm.fromDate = null;
-        vm.links = null;
-        vm.loadPage = loadPage;
+        vm.hasNext = false;
+        vm.loadNext = loadNext;
+        vm.loadPrevious = loadPrevious;
         vm.onChangeDate = onChangeDate;
-        vm.page = 1;
+        // Position of each page loaded, the audits are paginated by keyset: there is no total count
+        vm.positions = [{}];
         vm.previousMonth = previousMonth;
         vm.toDate = null;
         vm.today = today;
-        vm.totalItems = null;
+        var nextPosition = null;
 
         vm.today();
         vm.previousMonth();
         vm.onChangeDate();
 
         function onChangeDate () {
+            vm.positions = [{}];
+            loadPage();
+        }
+
+        function dateParams () {
             var dateFormat = 'yyyy-MM-dd';
-            var fromDate = $filter('date')(vm.fromDate, dateFormat);
-            var toDate = $filter('date')(vm.toDate, dateFormat);
+            return {
+                fromDate: $filter('date')(vm.fromDate, dateFormat),
+                toDate: $filter('date')(vm.toDate, dateFormat)
+            };
+        }
 
-            AuditsService.query({page: vm.page -1, size: 20, fromDate: fromDate, toDate: toDate}, function(result, headers){
+        function loadPage () {
+            var params = dateParams();
+            var position = vm.positions[vm.positions.length - 1];
+            params.size = 20;
+            params.afterDate = position.afterDate;
+            params.afterId = position.afterId;
+            AuditsService.query(params, function(result, headers){
                 vm.audits = result;
-                vm.links = ParseLinks.parse(headers('link'));
-                vm.totalItems = headers('X-Total-Count');
+                nextPosition = parseNextPosition(headers('link'));
+                vm.hasNext = nextPosition !== null;
             });
         }
 
+        function parseNextPosition (link) {
+            var next = link ? /<([^>]*)>; rel="next"/.exec(link) : null;
+            if (!next) {
+                return null;
+            }
+            return {
+                afterDate: decodeURIComponent(/[?&]afterDate=([^&]*)/.exec(next[1])[1]),
+                afterId: /[?&]afterId=([^&]*)/.exec(next[1])[1]
+            };
+        }
+
+        function loadNext () {
+            vm.positions.push(nextPosition);
+            loadPage();
+        }
+
+        function loadPrevious () {
+            vm.positions.pop();
+            loadPage();
+        }
+
+        // Downloaded through $http, which sends the authentication token
+        function exportAudits (format) {
+            var params = dateParams();
+            params.format = format;
+            $http.get('management/audits/export?' + $httpParamSerializer(params), {responseType: 'blob'})
+                .then(function (response) {
+                    var link = $window.document.createElement('a');
+                    link.href = $window.URL.createObjectURL(response.data);
+                    link.download = 'audits-' + params.fromDate + '-' + params.toDate + '.' + format.toLowerCase();
+                    $window.document.body.appendChild(link);
+                    link.click();
+                    $window.document.body.removeChild(link);
+                    $window.URL.revokeObjectURL(link.href);
+                });
+        }
+
         // Date picker configuration
         function today () {
             // Today + 1 day - needed if the current day must be included
@@ -54,10 +108,5 @@
 
             vm.fromDate = fromDate;
         }
-
-        function loadPage (page) {
-            vm.page = page;
-            vm.onChangeDate();
-        }
     }
 })();
@@ -0,0 +1,87 @@
+import _root_.io.gatling.core.scenario.Simulation
+import ch.qos.logback.classic.{Level, LoggerContext}
+import io.gatling.core.Predef._
+import io.gatling.http.Predef._
+import org.slf4j.LoggerFactory
+
+import scala.concurrent.duration._
+
+/**
+ * Latency test of the API calls authenticated by a Bearer token, on the gateway and on the routes to the blogApp.
+ *
+ * These calls don't look up the Hazelcast clustered HTTP session. Run this simulation against two gateway instances
+ * forming a Hazelcast cluster, and compare the 99th percentile of the response times in the report with a run on a
+ * gateway which looks up the session of every request. The operations on the clustered-http-sessions map during the
+ * run are printed at the end, from the hazelcast.clustered-http-sessions.* gauges of the admin account.
+ */
+class GatewayStatelessApiGatlingTest extends Simulation {
+
+    val context: LoggerContext = LoggerFactory.getILoggerFactory.asInstanceOf[LoggerContext]
+    // Log all HTTP requests
+    //context.getLogger("io.gatling.http").setLevel(Level.valueOf("TRACE"))
+    // Log failed HTTP requests
+    //context.getLogger("io.gatling.http").setLevel(Level.valueOf("DEBUG"))
+
+    val baseURL = Option(System.getProperty("baseURL")) getOrElse """http://127.0.0.1:8080"""
+
+    val httpConf = http
+        .baseURL(baseURL)
+        .acceptHeader("*/*")
+        .acceptEncodingHeader("gzip, deflate")
+        .connectionHeader("keep-alive")
+
+    val headers_http_authentication = Map(
+        "Content-Type" -> """application/json""",
+        "Accept" -> """application/json"""
+    )
+
+    val headers_http_authenticated = Map(
+        "Accept" -> """application/json""",
+        "Authorization" -> "${access_token}"
+    )
+
+    val authenticate = exec(http("Authentication")
+        .post("/api/authenticate")
+        .headers(headers_http_authentication)
+        .body(StringBody("""{"username":"admin", "password":"admin"}""")).asJSON
+        .check(header.get("Authorization").saveAs("access_token"))).exitHereIfFailed
+
+    def readSessionMapStats(prefix: String) = exec(http("Session map metrics")
+        .get("/management/metrics")
+        .headers(headers_http_authenticated)
+        .check(jsonPath("$.gauges['hazelcast.clustered-http-sessions.gets'].value").saveAs(prefix + "_gets"))
+        .check(jsonPath("$.gauges['hazelcast.clustered-http-sessions.puts'].value").saveAs(prefix + "_puts")))
+
+    val duration = Integer.getInteger("duration", 60)
+
+    val monitor = scenario("Monitor the clustered session map")
+        .exec(authenticate)
+        .exec(readSessionMapStats("start"))
+        .pause((duration + 10) seconds)
+        .exec(readSessionMapStats("end"))
+        .exec(session => {
+            println("Gets on the clustered-http-sessions map during the run: " +
+                (session("end_gets").as[String].toLong - session("start_gets").as[String].toLong))
+            println("Puts on the clustered-http-sessions map during the run: " +
+                (session("end_puts").as[String].toLong - session("start_puts").as[String].toLong))
+            session
+        })
+
+    val calls = scenario("Call the APIs")
+        .exec(authenticate)
+        .during(duration seconds) {
+            exec(http("Get account")
+            .get("/api/account")
+            .headers(headers_http_authenticated)
+            .check(status.is(200)))
+            .exec(http("Get all cars")
+            .get("/blogapp/api/cars")
+            .headers(headers_http_authenticated)
+            .check(status.is(200)))
+        }
+
+    setUp(
+        monitor.inject(atOnceUsers(1)),
+        calls.inject(rampUsers(Integer.getInteger("users", 50)) over (10 seconds))
+    ).protocols(httpConf)
+}
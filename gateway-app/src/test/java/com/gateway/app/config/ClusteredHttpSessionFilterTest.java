@@ -0,0 +1,72 @@
+package com.gateway.app.config;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the ClusteredHttpSessionFilter class.
+ *
+ * @see ClusteredHttpSessionFilter
+ */
+public class ClusteredHttpSessionFilterTest {
+
+    private Filter sessionFilter;
+
+    private ClusteredHttpSessionFilter filter;
+
+    @Before
+    public void setup() {
+        sessionFilter = mock(Filter.class);
+        filter = new ClusteredHttpSessionFilter(sessionFilter);
+    }
+
+    @Test
+    public void bearerTokenRequestsSkipTheClusteredSession() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/management/health");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer token");
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+        assertThat(chain.getRequest()).isSameAs(request);
+        verify(sessionFilter, never()).doFilter(any(ServletRequest.class), any(ServletResponse.class),
+            any(FilterChain.class));
+    }
+
+    @Test
+    public void apiRequestsSkipTheClusteredSession() throws Exception {
+        assertThat(filter.isStateless(new MockHttpServletRequest("POST", "/api/authenticate"))).isTrue();
+        assertThat(filter.isStateless(new MockHttpServletRequest("GET", "/blogapp/api/cars"))).isTrue();
+
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/gateway/api/account");
+        request.setContextPath("/gateway");
+        assertThat(filter.isStateless(request)).isTrue();
+    }
+
+    @Test
+    public void uiRequestsUseTheClusteredSession() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/index.html");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request, response, chain);
+
+        assertThat(chain.getRequest()).isNull();
+        verify(sessionFilter).doFilter(request, response, chain);
+        assertThat(filter.isStateless(new MockHttpServletRequest("GET", "/management/health"))).isFalse();
+        assertThat(filter.isStateless(new MockHttpServletRequest("GET", "/"))).isFalse();
+    }
+}
@@ -0,0 +1,172 @@
+package com.gateway.app.config.apidoc;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gateway.app.config.ApplicationProperties;
+import io.github.jhipster.config.JHipsterProperties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests GatewayApiDocsAggregator class.
+ */
+public class GatewayApiDocsAggregatorTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private RouteLocator routeLocator;
+
+    private RestTemplate restTemplate;
+
+    private JHipsterProperties jHipsterProperties;
+
+    private ApplicationProperties applicationProperties;
+
+    private GatewayApiDocsAggregator aggregator;
+
+    @Before
+    public void setup() throws Exception {
+        routeLocator = mock(RouteLocator.class);
+        restTemplate = mock(RestTemplate.class);
+        jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getSwagger().setTitle("gateway API");
+        jHipsterProperties.getSwagger().setVersion("0.0.1");
+        applicationProperties = new ApplicationProperties();
+        aggregator = new GatewayApiDocsAggregator(routeLocator, restTemplate, objectMapper, jHipsterProperties,
+            applicationProperties, Runnable::run);
+
+        when(routeLocator.getRoutes()).thenReturn(Arrays.asList(
+            new Route("blogapp", "/**", "blogapp", "/blogapp", false, null),
+            new Route("shopapp", "/**", "shopapp", "/shopapp", false, null)));
+        when(restTemplate.getForObject("http://blogapp/v2/api-docs", JsonNode.class)).thenReturn(objectMapper.readTree(
+            "{\"swagger\":\"2.0\",\"basePath\":\"/\",\"tags\":[{\"name\":\"car-resource\"}]," +
+                "\"paths\":{\"/api/cars\":{\"get\":{}}},\"definitions\":{\"Car\":{\"type\":\"object\"}}}"));
+        when(restTemplate.getForObject("http://shopapp/v2/api-docs", JsonNode.class)).thenReturn(objectMapper.readTree(
+            "{\"swagger\":\"2.0\",\"basePath\":\"/shop\",\"tags\":[{\"name\":\"car-resource\"}]," +
+                "\"paths\":{\"/api/orders\":{\"post\":{}}},\"definitions\":{\"Order\":{\"type\":\"object\"}}}"));
+    }
+
+    @After
+    public void destroy() {
+        aggregator.destroy();
+    }
+
+    @Test
+    public void getApiDocs_merges_the_route_documents_with_their_prefix() throws Exception {
+        JsonNode document = objectMapper.readTree(aggregator.getApiDocs().getContent());
+
+        assertThat(document.path("basePath").asText()).isEqualTo("/");
+        assertThat(document.path("info").path("title").asText()).isEqualTo("gateway API");
+        assertThat(document.path("paths").has("/blogapp/api/cars")).isTrue();
+        assertThat(document.path("paths").has("/shopapp/shop/api/orders")).isTrue();
+        assertThat(document.path("definitions").has("Car")).isTrue();
+        assertThat(document.path("definitions").has("Order")).isTrue();
+        assertThat(document.path("tags")).hasSize(1);
+    }
+
+    @Test
+    public void getApiDocs_is_served_from_memory() {
+        AggregatedApiDocs apiDocs = aggregator.getApiDocs();
+
+        assertThat(aggregator.getApiDocs()).isSameAs(apiDocs);
+        verify(restTemplate, times(1)).getForObject("http://blogapp/v2/api-docs", JsonNode.class);
+    }
+
+    @Test
+    public void getApiDocs_is_gzipped_with_an_etag() throws Exception {
+        AggregatedApiDocs apiDocs = aggregator.getApiDocs();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(apiDocs.getGzippedContent()))) {
+            assertThat(objectMapper.readTree(in)).isEqualTo(objectMapper.readTree(apiDocs.getContent()));
+        }
+        assertThat(apiDocs.getEtag()).startsWith("\"").endsWith("\"");
+        assertThat(AggregatedApiDocs.of(apiDocs.getContent()).getEtag()).isEqualTo(apiDocs.getEtag());
+    }
+
+    @Test
+    public void different_definitions_of_the_same_name_are_renamed() throws Exception {
+        when(restTemplate.getForObject("http://shopapp/v2/api-docs", JsonNode.class)).thenReturn(objectMapper.readTree(
+            "{\"swagger\":\"2.0\",\"basePath\":\"/\",\"paths\":{\"/api/cars\":{\"get\":{\"responses\":{\"200\":" +
+                "{\"schema\":{\"type\":\"array\",\"items\":{\"$ref\":\"#/definitions/Car\"}}}}}}}," +
+                "\"definitions\":{\"Car\":{\"type\":\"object\",\"properties\":{\"sku\":{\"type\":\"string\"}}}," +
+                "\"Order\":{\"type\":\"object\",\"properties\":{\"car\":{\"$ref\":\"#/definitions/Car\"}}}}}"));
+
+        JsonNode document = objectMapper.readTree(aggregator.getApiDocs().getContent());
+
+        assertThat(document.path("definitions").path("Car")).isEqualTo(objectMapper.readTree("{\"type\":\"object\"}"));
+        assertThat(document.path("definitions").path("shopapp.Car").path("properties").has("sku")).isTrue();
+        assertThat(document.at("/paths/~1shopapp~1api~1cars/get/responses/200/schema/items/$ref").asText())
+            .isEqualTo("#/definitions/shopapp.Car");
+        assertThat(document.at("/definitions/Order/properties/car/$ref").asText())
+            .isEqualTo("#/definitions/shopapp.Car");
+    }
+
+    @Test
+    public void unreachable_routes_are_left_out() throws Exception {
+        when(restTemplate.getForObject("http://shopapp/v2/api-docs", JsonNode.class))
+            .thenThrow(new ResourceAccessException("Connection refused"));
+
+        JsonNode document = objectMapper.readTree(aggregator.getApiDocs().getContent());
+
+        assertThat(document.path("paths").has("/blogapp/api/cars")).isTrue();
+        assertThat(document.path("paths").size()).isEqualTo(1);
+    }
+
+    @Test
+    public void onRoutesRefreshed_only_refreshes_when_the_routes_changed() {
+        aggregator.getApiDocs();
+
+        aggregator.onRoutesRefreshed();
+        verify(restTemplate, times(1)).getForObject("http://blogapp/v2/api-docs", JsonNode.class);
+
+        when(routeLocator.getRoutes()).thenReturn(Arrays.asList(
+            new Route("blogapp", "/**", "blogapp", "/blogapp", false, null)));
+        aggregator.onRoutesRefreshed();
+        verify(restTemplate, times(2)).getForObject("http://blogapp/v2/api-docs", JsonNode.class);
+        verify(restTemplate, times(1)).getForObject("http://shopapp/v2/api-docs", JsonNode.class);
+    }
+
+    @Test
+    public void routes_not_answering_before_the_refresh_timeout_are_left_out() throws Exception {
+        applicationProperties.getGateway().getApiDocs().setRefreshTimeoutInMillis(200);
+        aggregator.destroy();
+        aggregator = new GatewayApiDocsAggregator(routeLocator, restTemplate, objectMapper, jHipsterProperties,
+            applicationProperties, Runnable::run);
+        CountDownLatch released = new CountDownLatch(1);
+        when(restTemplate.getForObject("http://shopapp/v2/api-docs", JsonNode.class)).thenAnswer(invocation -> {
+            released.await();
+            return null;
+        });
+        try {
+            JsonNode document = objectMapper.readTree(aggregator.getApiDocs().getContent());
+
+            assertThat(document.path("paths").has("/blogapp/api/cars")).isTrue();
+            assertThat(document.path("paths").size()).isEqualTo(1);
+        } finally {
+            released.countDown();
+        }
+    }
+
+    @Test
+    public void getApiDocs_does_not_wait_for_the_first_refresh() {
+        aggregator.destroy();
+        aggregator = new GatewayApiDocsAggregator(routeLocator, restTemplate, objectMapper, jHipsterProperties,
+            applicationProperties, task -> { });
+
+        assertThat(aggregator.getApiDocs()).isNull();
+        verifyZeroInteractions(restTemplate);
+    }
+}
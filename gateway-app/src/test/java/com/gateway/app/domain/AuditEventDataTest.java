@@ -0,0 +1,61 @@
+package com.gateway.app.domain;
+
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+/**
+ * Tests AuditEventData class.
+ */
+public class AuditEventDataTest {
+
+    @Test
+    public void dataIsDecodedAsEncoded() {
+        Map<String, String> data = new LinkedHashMap<>();
+        data.put("remoteAddress", "1.2.3.4");
+        data.put("message", "\"quoted\"\n\\ é");
+        data.put("sessionId", null);
+
+        AuditEventData decoded = new AuditEventData(new AuditEventData(data).encode());
+
+        assertThat(decoded).containsExactly(entry("remoteAddress", "1.2.3.4"), entry("message", "\"quoted\"\n\\ é"),
+            entry("sessionId", null));
+    }
+
+    @Test
+    public void dataIsNotDecodedUntilRead() {
+        String encoded = "{\"remoteAddress\":\"1.2.3.4\"}";
+        AuditEventData data = new AuditEventData(encoded);
+
+        assertThat(data.isDecoded()).isFalse();
+        assertThat(data.encode()).isSameAs(encoded);
+        assertThat(data.get("remoteAddress")).isEqualTo("1.2.3.4");
+        assertThat(data.isDecoded()).isTrue();
+    }
+
+    @Test
+    public void changedDataIsEncodedAgain() {
+        AuditEventData data = new AuditEventData("{\"remoteAddress\":\"1.2.3.4\"}");
+
+        data.put("sessionId", "test-session-id");
+
+        assertThat(data.encode()).isEqualTo("{\"remoteAddress\":\"1.2.3.4\",\"sessionId\":\"test-session-id\"}");
+    }
+
+    @Test
+    public void noDataIsEmpty() {
+        AuditEventData data = new AuditEventData((String) null);
+
+        assertThat(data).isEmpty();
+        assertThat(new AuditEventData((String) null).encode()).isNull();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void dataWhichIsNotAnObjectIsRejected() {
+        new AuditEventData("[\"remoteAddress\"]").size();
+    }
+}
@@ -0,0 +1,93 @@
+package com.gateway.app.gateway.accesscontrol;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the access control of a request, by the former scan of every route and of the authorized
+ * endpoints of the matching route, and by a walk of the {@link AccessControlRules} trie. Every other route has an
+ * access control policy, and the requests are spread over all the routes.
+ * <p>
+ * It is not run by the tests, run its main method from the IDE, or with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccessControlRulesBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int routeCount;
+
+    private List<Route> routes;
+
+    private Map<String, List<String>> authorizedMicroservicesEndpoints;
+
+    private AccessControlRules accessControlRules;
+
+    private String[] requestUris;
+
+    private int request;
+
+    @Setup
+    public void setup() {
+        routes = new ArrayList<>();
+        authorizedMicroservicesEndpoints = new HashMap<>();
+        List<String> uris = new ArrayList<>();
+        for (int i = 0; i < routeCount; i++) {
+            String id = "service" + i;
+            routes.add(new Route(id, "/" + id + "/**", id, "", false, null));
+            if (i % 2 == 0) {
+                authorizedMicroservicesEndpoints.put(id, Arrays.asList("/api/public", "/api/cars"));
+            }
+            uris.add("/" + id + "/api/cars/1");
+            uris.add("/" + id + "/management/env");
+        }
+        Collections.shuffle(uris, new Random(42));
+        requestUris = uris.toArray(new String[uris.size()]);
+        accessControlRules = AccessControlRules.build(routes, authorizedMicroservicesEndpoints);
+    }
+
+    private String nextRequestUri() {
+        request = (request + 1) % requestUris.length;
+        return requestUris[request];
+    }
+
+    @Benchmark
+    public boolean linearScan() {
+        String requestUri = nextRequestUri();
+        for (Route route : routes) {
+            String serviceUrl = route.getFullPath();
+            if (requestUri.startsWith(serviceUrl.substring(0, serviceUrl.length() - 2))) {
+                List<String> authorizedEndpoints = authorizedMicroservicesEndpoints.get(route.getId());
+                if (authorizedEndpoints == null) {
+                    return true;
+                }
+                for (String endpoint : authorizedEndpoints) {
+                    if (requestUri.startsWith(serviceUrl.substring(0, serviceUrl.length() - 3) + endpoint)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+        }
+        return false;
+    }
+
+    @Benchmark
+    public boolean trie() {
+        return accessControlRules.isAuthorized(nextRequestUri());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AccessControlRulesBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,61 @@
+package com.gateway.app.gateway.accesscontrol;
+
+import org.junit.Test;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests AccessControlRules class.
+ */
+public class AccessControlRulesTest {
+
+    @Test
+    public void routeWithoutPolicyIsAuthorized() {
+        AccessControlRules rules = AccessControlRules.build(
+            Collections.singletonList(createRoute("blogapp")), Collections.emptyMap());
+
+        assertThat(rules.isAuthorized("/blogapp/api/cars")).isTrue();
+        assertThat(rules.isAuthorized("/blogapp/management/health")).isTrue();
+    }
+
+    @Test
+    public void unknownRouteIsNotAuthorized() {
+        AccessControlRules rules = AccessControlRules.build(
+            Collections.singletonList(createRoute("blogapp")), Collections.emptyMap());
+
+        assertThat(rules.isAuthorized("/other/api/cars")).isFalse();
+        assertThat(rules.isAuthorized("/blogapp")).isFalse();
+        assertThat(rules.isAuthorized("")).isFalse();
+    }
+
+    @Test
+    public void onlyAuthorizedEndpointsOfRouteAreAuthorized() {
+        Map<String, List<String>> authorizedEndpoints = new HashMap<>();
+        authorizedEndpoints.put("blogapp", Collections.singletonList("/api"));
+        AccessControlRules rules = AccessControlRules.build(
+            Arrays.asList(createRoute("blogapp"), createRoute("other")), authorizedEndpoints);
+
+        assertThat(rules.isAuthorized("/blogapp/api/cars")).isTrue();
+        assertThat(rules.isAuthorized("/blogapp/management/env")).isFalse();
+        assertThat(rules.isAuthorized("/other/management/env")).isTrue();
+    }
+
+    @Test
+    public void firstMatchingRouteIsUsed() {
+        Map<String, List<String>> authorizedEndpoints = new HashMap<>();
+        authorizedEndpoints.put("nested", Collections.singletonList("/api"));
+        AccessControlRules rules = AccessControlRules.build(
+            Arrays.asList(createRoute("blogapp"), new Route("nested", "/blogapp/nested/**", "nested", "", false, null)),
+            authorizedEndpoints);
+
+        // the "blogapp" route comes first and has no policy
+        assertThat(rules.isAuthorized("/blogapp/nested/management/env")).isTrue();
+    }
+
+    private Route createRoute(String id) {
+        return new Route(id, "/" + id + "/**", id, "", false, null);
+    }
+}
@@ -0,0 +1,137 @@
+package com.gateway.app.gateway.ratelimiting;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests LocalRateLimiter class.
+ */
+public class LocalRateLimiterTest {
+
+    @Test
+    public void leasedTokensAreSpentLocally() {
+        LocalRateLimiter limiter = new LocalRateLimiter(10, 60000);
+        TestTokenSource tokenSource = new TestTokenSource(Long.MAX_VALUE);
+
+        for (int i = 0; i < 25; i++) {
+            assertThat(limiter.tryConsume("user", tokenSource)).isTrue();
+        }
+
+        // The leases double until the lease size
+        assertThat(tokenSource.requests).containsExactly(1L, 2L, 4L, 8L, 10L);
+    }
+
+    @Test
+    public void limitIsNeverExceeded() {
+        LocalRateLimiter limiter = new LocalRateLimiter(10, 60000);
+        TestTokenSource tokenSource = new TestTokenSource(15);
+
+        int consumed = 0;
+        for (int i = 0; i < 30; i++) {
+            if (limiter.tryConsume("user", tokenSource)) {
+                consumed++;
+            }
+        }
+
+        assertThat(consumed).isEqualTo(15);
+    }
+
+    @Test
+    public void unspentTokensAreGivenBackWhenTheLeaseExpires() throws Exception {
+        LocalRateLimiter limiter = new LocalRateLimiter(10, 50);
+        TestTokenSource tokenSource = new TestTokenSource(100);
+        for (int i = 0; i < 4; i++) {
+            limiter.tryConsume("user", tokenSource);
+        }
+        assertThat(tokenSource.available).isEqualTo(100 - 7);
+
+        Thread.sleep(60);
+        limiter.expireLeases();
+
+        assertThat(tokenSource.available).isEqualTo(100 - 4);
+        assertThat(limiter.getLeaseCount()).isZero();
+    }
+
+    @Test
+    public void slowClientTakesSingleTokens() throws Exception {
+        LocalRateLimiter limiter = new LocalRateLimiter(10, 1);
+        TestTokenSource tokenSource = new TestTokenSource(100);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryConsume("user", tokenSource)).isTrue();
+            Thread.sleep(10);
+        }
+
+        assertThat(tokenSource.requests).containsExactly(1L, 1L, 1L);
+        assertThat(tokenSource.available).isEqualTo(100 - 3);
+    }
+
+    @Test
+    public void expiredLeaseShrinksToTheSpentTokens() throws Exception {
+        LocalRateLimiter limiter = new LocalRateLimiter(10, 50);
+        TestTokenSource tokenSource = new TestTokenSource(100);
+        for (int i = 0; i < 4; i++) {
+            limiter.tryConsume("user", tokenSource);
+        }
+
+        Thread.sleep(60);
+        assertThat(limiter.tryConsume("user", tokenSource)).isTrue();
+
+        // The lease of 4 tokens expired with 3 unspent tokens, which were given back
+        assertThat(tokenSource.requests).containsExactly(1L, 2L, 4L, 1L);
+        assertThat(tokenSource.available).isEqualTo(100 - 5);
+    }
+
+    @Test
+    public void concurrentLeaseIsGivenBack() {
+        LocalRateLimiter limiter = new LocalRateLimiter(10, 60000);
+        TestTokenSource tokenSource = new TestTokenSource(100);
+        limiter.tryConsume("user", tokenSource);
+        TestTokenSource concurrentTokenSource = new TestTokenSource(0) {
+            @Override
+            public long take(long tokens) {
+                // Another request of the client renews the lease while this one is taking its own
+                assertThat(limiter.tryConsume("user", tokenSource)).isTrue();
+                return tokenSource.take(tokens);
+            }
+
+            @Override
+            public void giveBack(long tokens) {
+                tokenSource.giveBack(tokens);
+            }
+        };
+
+        assertThat(limiter.tryConsume("user", concurrentTokenSource)).isTrue();
+
+        // 3 tokens spent, and 1 held by the installed lease
+        assertThat(tokenSource.available).isEqualTo(100 - 3 - 1);
+    }
+
+    private static class TestTokenSource implements LocalRateLimiter.TokenSource {
+
+        final List<Long> requests = new ArrayList<>();
+
+        long available;
+
+        TestTokenSource(long available) {
+            this.available = available;
+        }
+
+        @Override
+        public long take(long tokens) {
+            requests.add(tokens);
+            long granted = Math.min(tokens, available);
+            available -= granted;
+            return granted;
+        }
+
+        @Override
+        public void giveBack(long tokens) {
+            available += tokens;
+        }
+    }
+}
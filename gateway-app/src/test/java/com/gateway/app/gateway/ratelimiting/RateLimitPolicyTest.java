@@ -0,0 +1,36 @@
+package com.gateway.app.gateway.ratelimiting;
+
+import com.gateway.app.config.ApplicationProperties;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests RateLimitPolicy class.
+ */
+public class RateLimitPolicyTest {
+
+    @Test
+    public void retryAfterIsTheSlowestRefill() {
+        RateLimitPolicy policy = RateLimitPolicy.of("route:blogapp",
+            Arrays.asList(createLimit(100, 1), createLimit(1000, 3600)));
+
+        assertThat(policy.getName()).isEqualTo("route:blogapp");
+        assertThat(policy.getRetryAfterSeconds()).isEqualTo(4);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void policyWithoutLimitIsRejected() {
+        RateLimitPolicy.of("authority:ROLE_ADMIN", Collections.emptyList());
+    }
+
+    private ApplicationProperties.Gateway.RateLimiting.Limit createLimit(long limit, long durationInSeconds) {
+        ApplicationProperties.Gateway.RateLimiting.Limit bandwidth = new ApplicationProperties.Gateway.RateLimiting.Limit();
+        bandwidth.setLimit(limit);
+        bandwidth.setDurationInSeconds(durationInSeconds);
+        return bandwidth;
+    }
+}
@@ -0,0 +1,92 @@
+package com.gateway.app.gateway.ratelimiting;
+
+import com.gateway.app.config.ApplicationProperties;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Bucket4j;
+import io.github.bucket4j.grid.GridBucketState;
+import io.github.bucket4j.grid.ProxyManager;
+import io.github.bucket4j.grid.jcache.JCache;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import javax.cache.spi.CachingProvider;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JMH benchmark of the rate limiting of a request, by a call to the JCache backed distributed bucket of the client
+ * for every request as the filter used to do, and by the local leases of the {@link LocalRateLimiter}.
+ * <p>
+ * The limit is never exceeded, so that both spend every request. It is not run by the tests, run its main method
+ * from the IDE, or with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+public class RateLimitingBenchmark {
+
+    @Param({"1", "1000"})
+    private int clients;
+
+    private CachingProvider cachingProvider;
+
+    private ProxyManager<String> buckets;
+
+    private RateLimitPolicy policy;
+
+    private LocalRateLimiter localRateLimiter;
+
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @Setup
+    public void setup() {
+        cachingProvider = Caching.getCachingProvider();
+        CacheManager cacheManager = cachingProvider.getCacheManager();
+        Cache<String, GridBucketState> cache = cacheManager.createCache("rate-limiting-benchmark",
+            new MutableConfiguration<String, GridBucketState>().setTypes(String.class, GridBucketState.class));
+        buckets = Bucket4j.extension(JCache.class).proxyManagerForCache(cache);
+
+        ApplicationProperties.Gateway.RateLimiting.Limit limit = new ApplicationProperties.Gateway.RateLimiting.Limit();
+        limit.setLimit(Long.MAX_VALUE / 2);
+        limit.setDurationInSeconds(1);
+        policy = RateLimitPolicy.of("benchmark", Collections.singletonList(limit));
+        ApplicationProperties.Gateway.RateLimiting rateLimiting = new ApplicationProperties.Gateway.RateLimiting();
+        localRateLimiter = new LocalRateLimiter(rateLimiting.getLeaseSize(), rateLimiting.getLeaseDurationInMillis());
+    }
+
+    @TearDown
+    public void tearDown() {
+        cachingProvider.close();
+    }
+
+    private String nextClient() {
+        return "client-" + (requests.incrementAndGet() % clients);
+    }
+
+    @Benchmark
+    public boolean distributedBucket() {
+        return buckets.getProxy(nextClient(), policy.getBucketConfigurationSupplier()).tryConsume(1);
+    }
+
+    @Benchmark
+    public boolean localLeases() {
+        String id = nextClient();
+        Bucket bucket = buckets.getProxy(id, policy.getBucketConfigurationSupplier());
+        return localRateLimiter.tryConsume(id, new BucketTokenSource(bucket));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(RateLimitingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
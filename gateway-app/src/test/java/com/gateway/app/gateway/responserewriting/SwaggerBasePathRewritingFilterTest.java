@@ -6,8 +6,12 @@ import org.junit.Test;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import static org.junit.Assert.*;
 import static springfox.documentation.swagger2.web.Swagger2Controller.DEFAULT_URL;
@@ -66,6 +70,47 @@ public class SwaggerBasePathRewritingFilterTest {
         filter.run();
 
         assertEquals("UTF-8", response.getCharacterEncoding());
-        assertEquals("{\"basePath\":\"/service1\"}", context.getResponseBody());
+        assertEquals("{\"basePath\":\"/service1\"}",
+            IOUtils.toString(context.getResponseDataStream(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void run_keeps_other_fields_and_adds_missing_base_path() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/service1" + DEFAULT_URL);
+        RequestContext context = RequestContext.getCurrentContext();
+        context.setRequest(request);
+        context.setResponse(new MockHttpServletResponse());
+        context.setResponseGZipped(false);
+
+        InputStream in = IOUtils.toInputStream("{\"swagger\":\"2.0\",\"paths\":{\"/api\":[1,{\"a\":null}]}}",
+            StandardCharsets.UTF_8);
+        context.setResponseDataStream(in);
+
+        filter.run();
+
+        assertEquals("{\"swagger\":\"2.0\",\"paths\":{\"/api\":[1,{\"a\":null}]},\"basePath\":\"/service1\"}",
+            IOUtils.toString(context.getResponseDataStream(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void run_gzips_response_when_accepted() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/service1" + DEFAULT_URL);
+        request.addHeader("Accept-Encoding", "gzip, deflate");
+        RequestContext context = RequestContext.getCurrentContext();
+        context.setRequest(request);
+        context.setResponse(new MockHttpServletResponse());
+        context.setResponseGZipped(true);
+
+        ByteArrayOutputStream gzipped = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(gzipped)) {
+            gzipOut.write("{\"basePath\":\"/\"}".getBytes(StandardCharsets.UTF_8));
+        }
+        context.setResponseDataStream(new ByteArrayInputStream(gzipped.toByteArray()));
+
+        filter.run();
+
+        assertTrue(context.getResponseGZipped());
+        assertEquals("{\"basePath\":\"/service1\"}",
+            IOUtils.toString(new GZIPInputStream(context.getResponseDataStream()), StandardCharsets.UTF_8));
     }
 }
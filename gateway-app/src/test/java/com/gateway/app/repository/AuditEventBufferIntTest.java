@@ -0,0 +1,146 @@
+package com.gateway.app.repository;
+
+import com.gateway.app.GatewayApp;
+import com.gateway.app.config.ApplicationProperties;
+import com.gateway.app.domain.PersistentAuditEvent;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.File;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the AuditEventBuffer, the background thread is not started and the tests flush the buffer.
+ *
+ * @see AuditEventBuffer
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = GatewayApp.class)
+@Transactional
+public class AuditEventBufferIntTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Autowired
+    private PersistenceAuditEventRepository persistenceAuditEventRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ApplicationProperties applicationProperties;
+
+    @Before
+    public void setup() {
+        persistenceAuditEventRepository.deleteAll();
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getAudit().setBatchSize(2);
+        applicationProperties.getAudit().setQueueCapacity(10);
+    }
+
+    private AuditEventBuffer createAuditEventBuffer() {
+        return new AuditEventBuffer(entityManager, transactionManager, objectMapper, applicationProperties);
+    }
+
+    private PersistentAuditEvent createEvent(String principal) {
+        PersistentAuditEvent event = new PersistentAuditEvent();
+        event.setPrincipal(principal);
+        event.setAuditEventType("test-type");
+        event.setAuditEventDate(Instant.now());
+        event.setData(Collections.singletonMap("test-key", "test-value"));
+        return event;
+    }
+
+    @Test
+    public void assertThatFlushWritesTheQueuedEventsByBatches() {
+        AuditEventBuffer auditEventBuffer = createAuditEventBuffer();
+        for (int i = 0; i < 5; i++) {
+            auditEventBuffer.add(createEvent("user-" + i));
+        }
+        assertThat(persistenceAuditEventRepository.count()).isZero();
+
+        assertThat(auditEventBuffer.flush()).isEqualTo(5);
+
+        assertThat(persistenceAuditEventRepository.findAll()).extracting("principal")
+            .containsExactlyInAnyOrder("user-0", "user-1", "user-2", "user-3", "user-4");
+        assertThat(((Timer) auditEventBuffer.getMetrics().get("flushes")).getCount()).isEqualTo(3);
+        assertThat(((Meter) auditEventBuffer.getMetrics().get("written")).getCount()).isEqualTo(5);
+        assertThat(auditEventBuffer.flush()).isZero();
+    }
+
+    @Test
+    public void assertThatDropPolicyDropsTheEventsOfAFullQueue() {
+        applicationProperties.getAudit().setQueueCapacity(2);
+        applicationProperties.getAudit().setOverflowPolicy(ApplicationProperties.Audit.OverflowPolicy.DROP);
+        AuditEventBuffer auditEventBuffer = createAuditEventBuffer();
+        for (int i = 0; i < 3; i++) {
+            auditEventBuffer.add(createEvent("user-" + i));
+        }
+
+        assertThat(((Meter) auditEventBuffer.getMetrics().get("dropped")).getCount()).isEqualTo(1);
+        assertThat(auditEventBuffer.flush()).isEqualTo(2);
+        assertThat(persistenceAuditEventRepository.findAll()).extracting("principal")
+            .containsExactlyInAnyOrder("user-0", "user-1");
+    }
+
+    @Test
+    public void assertThatBlockPolicySpillsTheEventsOfAQueueStillFullAfterTheTimeout() throws Exception {
+        File spillFile = new File(temporaryFolder.getRoot(), "audit-events.spill");
+        applicationProperties.getAudit().setQueueCapacity(1);
+        applicationProperties.getAudit().setBlockTimeoutInMillis(10);
+        applicationProperties.getAudit().setSpillFile(spillFile.getPath());
+        AuditEventBuffer auditEventBuffer = createAuditEventBuffer();
+        for (int i = 0; i < 2; i++) {
+            auditEventBuffer.add(createEvent("user-" + i));
+        }
+
+        assertThat(((Meter) auditEventBuffer.getMetrics().get("block-timeouts")).getCount()).isEqualTo(1);
+        assertThat(Files.readAllLines(spillFile.toPath())).hasSize(1);
+        assertThat(auditEventBuffer.flush()).isEqualTo(2);
+        assertThat(persistenceAuditEventRepository.findAll()).extracting("principal")
+            .containsExactlyInAnyOrder("user-0", "user-1");
+    }
+
+    @Test
+    public void assertThatSpillPolicySpillsTheEventsOfAFullQueueAndWritesThemLater() throws Exception {
+        File spillFile = new File(temporaryFolder.getRoot(), "audit-events.spill");
+        applicationProperties.getAudit().setQueueCapacity(1);
+        applicationProperties.getAudit().setOverflowPolicy(ApplicationProperties.Audit.OverflowPolicy.SPILL);
+        applicationProperties.getAudit().setSpillFile(spillFile.getPath());
+        AuditEventBuffer auditEventBuffer = createAuditEventBuffer();
+        for (int i = 0; i < 3; i++) {
+            auditEventBuffer.add(createEvent("user-" + i));
+        }
+
+        assertThat(Files.readAllLines(spillFile.toPath())).hasSize(2);
+        assertThat(auditEventBuffer.flush()).isEqualTo(3);
+        assertThat(spillFile).doesNotExist();
+        List<PersistentAuditEvent> events = persistenceAuditEventRepository.findAll();
+        assertThat(events).extracting("principal").containsExactlyInAnyOrder("user-0", "user-1", "user-2");
+        assertThat(events).extracting("auditEventType").containsOnly("test-type");
+        assertThat(events.get(2).getData()).containsEntry("test-key", "test-value");
+    }
+}
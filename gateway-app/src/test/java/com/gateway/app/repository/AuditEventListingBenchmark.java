@@ -0,0 +1,134 @@
+package com.gateway.app.repository;
+
+import com.gateway.app.domain.AuditEventData;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.*;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the listing of 10000 audit events with their data, from an in-memory H2 database, when the data
+ * is stored with a row per key in a table of its own and read by a query per event, and when it is stored as a JSON
+ * object in the event row, decoded by {@link AuditEventData} only when it is read.
+ * <p>
+ * It is not run by the tests, run its main method from the IDE, or with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuditEventListingBenchmark {
+
+    private static final int EVENTS = 10000;
+
+    private Connection connection;
+
+    @Setup
+    public void setup() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:audit-event-listing;DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE audit_event (event_id BIGINT PRIMARY KEY, principal VARCHAR(50), " +
+                "event_date TIMESTAMP, event_type VARCHAR(255), event_data CLOB)");
+            statement.execute("CREATE TABLE audit_evt_data (event_id BIGINT, name VARCHAR(150), value VARCHAR(255), " +
+                "PRIMARY KEY (event_id, name))");
+        }
+        try (PreparedStatement insertEvent = connection.prepareStatement("INSERT INTO audit_event VALUES (?, ?, ?, ?, ?)");
+            PreparedStatement insertData = connection.prepareStatement("INSERT INTO audit_evt_data VALUES (?, ?, ?)")) {
+            for (long id = 1; id <= EVENTS; id++) {
+                Map<String, String> data = new LinkedHashMap<>();
+                data.put("remoteAddress", "10.0." + (id / 256 % 256) + "." + (id % 256));
+                data.put("sessionId", "session-" + id);
+                data.put("message", "Bad credentials");
+                insertEvent.setLong(1, id);
+                insertEvent.setString(2, "user-" + (id % 100));
+                insertEvent.setTimestamp(3, new Timestamp(id * 1000));
+                insertEvent.setString(4, "AUTHENTICATION_FAILURE");
+                insertEvent.setString(5, new AuditEventData(data).encode());
+                insertEvent.addBatch();
+                for (Map.Entry<String, String> entry : data.entrySet()) {
+                    insertData.setLong(1, id);
+                    insertData.setString(2, entry.getKey());
+                    insertData.setString(3, entry.getValue());
+                    insertData.addBatch();
+                }
+            }
+            insertEvent.executeBatch();
+            insertData.executeBatch();
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public void dataTable(Blackhole blackhole) throws SQLException {
+        try (PreparedStatement selectEvents = connection.prepareStatement(
+                "SELECT event_id, principal, event_date, event_type FROM audit_event ORDER BY event_date, event_id");
+            PreparedStatement selectData = connection.prepareStatement(
+                "SELECT name, value FROM audit_evt_data WHERE event_id = ?");
+            ResultSet events = selectEvents.executeQuery()) {
+            while (events.next()) {
+                selectData.setLong(1, events.getLong(1));
+                Map<String, String> data = new HashMap<>();
+                try (ResultSet rs = selectData.executeQuery()) {
+                    while (rs.next()) {
+                        data.put(rs.getString(1), rs.getString(2));
+                    }
+                }
+                consume(blackhole, events, data);
+            }
+        }
+    }
+
+    @Benchmark
+    public void jsonColumn(Blackhole blackhole) throws SQLException {
+        try (PreparedStatement selectEvents = connection.prepareStatement(
+                "SELECT event_id, principal, event_date, event_type, event_data FROM audit_event " +
+                    "ORDER BY event_date, event_id");
+            ResultSet events = selectEvents.executeQuery()) {
+            while (events.next()) {
+                consume(blackhole, events, new AuditEventData(events.getString(5)));
+            }
+        }
+    }
+
+    @Benchmark
+    public void jsonColumnDecoded(Blackhole blackhole) throws SQLException {
+        try (PreparedStatement selectEvents = connection.prepareStatement(
+                "SELECT event_id, principal, event_date, event_type, event_data FROM audit_event " +
+                    "ORDER BY event_date, event_id");
+            ResultSet events = selectEvents.executeQuery()) {
+            while (events.next()) {
+                AuditEventData data = new AuditEventData(events.getString(5));
+                blackhole.consume(data.get("remoteAddress"));
+                consume(blackhole, events, data);
+            }
+        }
+    }
+
+    private static void consume(Blackhole blackhole, ResultSet events, Map<String, String> data) throws SQLException {
+        blackhole.consume(events.getLong(1));
+        blackhole.consume(events.getString(2));
+        blackhole.consume(events.getTimestamp(3));
+        blackhole.consume(events.getString(4));
+        blackhole.consume(data);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(AuditEventListingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,81 @@
+package com.gateway.app.security;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+/**
+ * Test class for the BoundedBCryptPasswordEncoder.
+ *
+ * @see BoundedBCryptPasswordEncoder
+ */
+public class BoundedBCryptPasswordEncoderTest {
+
+    private ThreadPoolExecutor executor;
+
+    private MetricRegistry metricRegistry;
+
+    private BoundedBCryptPasswordEncoder passwordEncoder;
+
+    @Before
+    public void setup() {
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+        metricRegistry = new MetricRegistry();
+        passwordEncoder = new BoundedBCryptPasswordEncoder(new BCryptPasswordEncoder(4), executor, 2, metricRegistry);
+    }
+
+    @After
+    public void destroy() {
+        passwordEncoder.shutdown();
+    }
+
+    @Test
+    public void testEncodeAndMatch() {
+        String encodedPassword = passwordEncoder.encode("password");
+
+        assertThat(passwordEncoder.matches("password", encodedPassword)).isTrue();
+        assertThat(passwordEncoder.matches("wrong", encodedPassword)).isFalse();
+        assertThat(metricRegistry.timer(MetricRegistry.name(BoundedBCryptPasswordEncoder.class, "encode"))
+            .getCount()).isEqualTo(1);
+        assertThat(metricRegistry.timer(MetricRegistry.name(BoundedBCryptPasswordEncoder.class, "matches"))
+            .getCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testRejectWhenTheQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            awaitQuietly(release);
+        });
+        started.await();
+        executor.execute(() -> awaitQuietly(release));
+
+        Throwable thrown = catchThrowable(() -> passwordEncoder.encode("password"));
+
+        release.countDown();
+        assertThat(thrown).isInstanceOf(PasswordHashingUnavailableException.class);
+        assertThat(((PasswordHashingUnavailableException) thrown).getRetryAfterSeconds()).isEqualTo(2);
+        assertThat(metricRegistry.meter(MetricRegistry.name(BoundedBCryptPasswordEncoder.class, "rejected"))
+            .getCount()).isEqualTo(1);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.gateway.app.security.jwt;
 
+import com.codahale.metrics.MetricRegistry;
+import com.gateway.app.config.ApplicationProperties;
 import com.gateway.app.security.AuthoritiesConstants;
 import io.github.jhipster.config.JHipsterProperties;
 import org.junit.Before;
@@ -27,7 +29,9 @@ public class JWTFilterTest {
     @Before
     public void setup() {
         JHipsterProperties jHipsterProperties = new JHipsterProperties();
-        tokenProvider = new TokenProvider(jHipsterProperties);
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        tokenProvider = new TokenProvider(jHipsterProperties, applicationProperties, new MetricRegistry(),
+            new TokenSigningKeys(applicationProperties));
         ReflectionTestUtils.setField(tokenProvider, "secretKey", "test secret");
         ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", 60000);
         jwtFilter = new JWTFilter(tokenProvider);
@@ -0,0 +1,94 @@
+package com.gateway.app.security.jwt;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests TokenAuthenticationCache class.
+ */
+public class TokenAuthenticationCacheTest {
+
+    private static final long ONE_MINUTE = 60000;
+
+    private MetricRegistry metricRegistry;
+
+    @Before
+    public void setup() {
+        metricRegistry = new MetricRegistry();
+    }
+
+    @Test
+    public void cachedAuthenticationIsReturnedUntilExpiration() {
+        TokenAuthenticationCache cache = new TokenAuthenticationCache(10, metricRegistry);
+        Authentication authentication = createAuthentication("user");
+
+        cache.put("token", authentication, System.currentTimeMillis() + ONE_MINUTE);
+        cache.put("expired-token", authentication, System.currentTimeMillis() - 1);
+
+        assertThat(cache.get("token")).isSameAs(authentication);
+        assertThat(cache.get("expired-token")).isNull();
+        assertThat(cache.get("unknown-token")).isNull();
+        assertThat(cache.size()).isEqualTo(1);
+        assertThat(meter("hits").getCount()).isEqualTo(1);
+        assertThat(meter("misses").getCount()).isEqualTo(2);
+        assertThat(meter("evictions").getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void leastRecentlyUsedAuthenticationIsEvictedWhenFull() {
+        TokenAuthenticationCache cache = new TokenAuthenticationCache(2, metricRegistry);
+        long expirationTime = System.currentTimeMillis() + ONE_MINUTE;
+        cache.put("token-1", createAuthentication("user-1"), expirationTime);
+        cache.put("token-2", createAuthentication("user-2"), expirationTime);
+        assertThat(cache.get("token-1")).isNotNull();
+
+        cache.put("token-3", createAuthentication("user-3"), expirationTime);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("token-2")).isNull();
+        assertThat(cache.get("token-1").getName()).isEqualTo("user-1");
+        assertThat(cache.get("token-3").getName()).isEqualTo("user-3");
+        assertThat(meter("evictions").getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void expiredAuthenticationsAreEvictedFirstWhenFull() {
+        TokenAuthenticationCache cache = new TokenAuthenticationCache(2, metricRegistry);
+        long expirationTime = System.currentTimeMillis() + ONE_MINUTE;
+        cache.put("token-1", createAuthentication("user-1"), expirationTime);
+        cache.put("expired-token", createAuthentication("user-2"), System.currentTimeMillis() - 1);
+
+        cache.put("token-3", createAuthentication("user-3"), expirationTime);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("token-1").getName()).isEqualTo("user-1");
+        assertThat(cache.get("token-3").getName()).isEqualTo("user-3");
+        assertThat(meter("evictions").getCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void nothingIsCachedWhenDisabled() {
+        TokenAuthenticationCache cache = new TokenAuthenticationCache(0, metricRegistry);
+
+        cache.put("token", createAuthentication("user"), System.currentTimeMillis() + ONE_MINUTE);
+
+        assertThat(cache.get("token")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    private Meter meter(String name) {
+        return metricRegistry.meter(MetricRegistry.name(TokenProvider.class, "cache", name));
+    }
+
+    private Authentication createAuthentication(String name) {
+        return new UsernamePasswordAuthenticationToken(name, "", Collections.emptyList());
+    }
+}
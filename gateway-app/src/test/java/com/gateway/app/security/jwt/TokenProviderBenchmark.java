@@ -0,0 +1,118 @@
+package com.gateway.app.security.jwt;
+
+import com.codahale.metrics.MetricRegistry;
+import com.gateway.app.config.ApplicationProperties;
+import com.gateway.app.security.AuthoritiesConstants;
+import io.github.jhipster.config.JHipsterProperties;
+import io.jsonwebtoken.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * JMH benchmark of the validation of a valid, an expired and a tampered token, by the former validateToken then
+ * getAuthentication calls which parse the token twice, and by the single pass of {@link TokenProvider#parseToken}.
+ * The authentication cache is disabled, so that every token is parsed.
+ * <p>
+ * It is not run by the tests, run its main method from the IDE, or with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenProviderBenchmark {
+
+    private static final String SECRET_KEY = "e5c9ee274ae87bc031adda32e27fa98b9290da83";
+
+    @Param({"valid", "expired", "tampered"})
+    private String tokenKind;
+
+    private TokenProvider tokenProvider;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setSecret(SECRET_KEY);
+        jHipsterProperties.getSecurity().getAuthentication().getJwt().setTokenValidityInSeconds(3600);
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getJwt().getCache().setMaxEntries(0);
+        tokenProvider = new TokenProvider(jHipsterProperties, applicationProperties, new MetricRegistry(),
+            new TokenSigningKeys(applicationProperties));
+        tokenProvider.init();
+
+        Authentication authentication = new UsernamePasswordAuthenticationToken("user", "user",
+            Collections.singletonList(new SimpleGrantedAuthority(AuthoritiesConstants.USER)));
+        String validToken = tokenProvider.createToken(authentication, false);
+        switch (tokenKind) {
+            case "expired":
+                token = Jwts.builder()
+                    .setSubject("user")
+                    .claim("auth", AuthoritiesConstants.USER)
+                    .signWith(SignatureAlgorithm.HS512, SECRET_KEY)
+                    .setExpiration(new Date(System.currentTimeMillis() - 60000))
+                    .compact();
+                break;
+            case "tampered":
+                // A character of the signature, not the last one whose low bits are not decoded
+                int index = validToken.length() - 10;
+                char tampered = validToken.charAt(index) == 'A' ? 'B' : 'A';
+                token = validToken.substring(0, index) + tampered + validToken.substring(index + 1);
+                break;
+            default:
+                token = validToken;
+        }
+    }
+
+    @Benchmark
+    public Authentication validateThenGetAuthentication() {
+        if (!validateToken(token)) {
+            return null;
+        }
+        Claims claims = Jwts.parser()
+            .setSigningKey(SECRET_KEY)
+            .parseClaimsJws(token)
+            .getBody();
+        Collection<? extends GrantedAuthority> authorities =
+            Arrays.stream(claims.get("auth").toString().split(","))
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+        User principal = new User(claims.getSubject(), "", authorities);
+        return new UsernamePasswordAuthenticationToken(principal, token, authorities);
+    }
+
+    private static boolean validateToken(String authToken) {
+        try {
+            Jwts.parser().setSigningKey(SECRET_KEY).parseClaimsJws(authToken);
+            return true;
+        } catch (SignatureException | MalformedJwtException | ExpiredJwtException | UnsupportedJwtException |
+            IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public TokenValidationResult parseToken() {
+        return tokenProvider.parseToken(token);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(TokenProviderBenchmark.class.getSimpleName()).build()).run();
+    }
+}
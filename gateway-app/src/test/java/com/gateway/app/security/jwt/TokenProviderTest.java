@@ -1,5 +1,7 @@
 package com.gateway.app.security.jwt;
 
+import com.codahale.metrics.MetricRegistry;
+import com.gateway.app.config.ApplicationProperties;
 import com.gateway.app.security.AuthoritiesConstants;
 import io.github.jhipster.config.JHipsterProperties;
 import io.jsonwebtoken.Jwts;
@@ -16,6 +18,7 @@ import org.springframework.test.util.ReflectionTestUtils;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -24,12 +27,15 @@ public class TokenProviderTest {
     private final String secretKey = "e5c9ee274ae87bc031adda32e27fa98b9290da83";
     private final long ONE_MINUTE = 60000;
     private JHipsterProperties jHipsterProperties;
+    private ApplicationProperties applicationProperties;
     private TokenProvider tokenProvider;
 
     @Before
     public void setup() {
         jHipsterProperties = Mockito.mock(JHipsterProperties.class);
-        tokenProvider = new TokenProvider(jHipsterProperties);
+        applicationProperties = new ApplicationProperties();
+        tokenProvider = new TokenProvider(jHipsterProperties, applicationProperties, new MetricRegistry(),
+            new TokenSigningKeys(applicationProperties));
         ReflectionTestUtils.setField(tokenProvider, "secretKey", secretKey);
         ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", ONE_MINUTE);
     }
@@ -79,6 +85,63 @@ public class TokenProviderTest {
         assertThat(isTokenValid).isEqualTo(false);
     }
 
+    @Test
+    public void testCachedAuthenticationIsReusedForSameToken() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        assertThat(tokenProvider.validateToken(token)).isEqualTo(true);
+        Authentication authentication = tokenProvider.getAuthentication(token);
+
+        assertThat(authentication.getName()).isEqualTo("anonymous");
+        assertThat(tokenProvider.getAuthentication(token)).isSameAs(authentication);
+    }
+
+    @Test
+    public void testParseTokenReturnsAuthenticationWhenJWTisValid() {
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        TokenValidationResult result = tokenProvider.parseToken(token);
+
+        assertThat(result.isValid()).isEqualTo(true);
+        assertThat(result.getReason()).isEqualTo(TokenValidationResult.Reason.VALID);
+        assertThat(result.getAuthentication().getName()).isEqualTo("anonymous");
+    }
+
+    @Test
+    public void testParseTokenReturnsReasonWhenJWTisRejected() {
+        assertThat(tokenProvider.parseToken(createTokenWithDifferentSignature()).getReason())
+            .isEqualTo(TokenValidationResult.Reason.INVALID_SIGNATURE);
+        assertThat(tokenProvider.parseToken(createUnsupportedToken()).getReason())
+            .isEqualTo(TokenValidationResult.Reason.UNSUPPORTED);
+        assertThat(tokenProvider.parseToken("wrong_jwt").getReason())
+            .isEqualTo(TokenValidationResult.Reason.MALFORMED);
+        assertThat(tokenProvider.parseToken("").getReason())
+            .isEqualTo(TokenValidationResult.Reason.EMPTY);
+
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", -ONE_MINUTE);
+        String expiredToken = tokenProvider.createToken(createAuthentication(), false);
+        TokenValidationResult result = tokenProvider.parseToken(expiredToken);
+
+        assertThat(result.getReason()).isEqualTo(TokenValidationResult.Reason.EXPIRED);
+        assertThat(result.getAuthentication()).isNull();
+    }
+
+    @Test
+    public void testAsymmetricSignatureIsVerifiedWithPublishedKey() throws Exception {
+        applicationProperties.getJwt().setAlgorithm(SignatureAlgorithm.RS256);
+        TokenSigningKeys signingKeys = new TokenSigningKeys(applicationProperties);
+        signingKeys.init();
+        tokenProvider = new TokenProvider(jHipsterProperties, applicationProperties, new MetricRegistry(), signingKeys);
+        ReflectionTestUtils.setField(tokenProvider, "tokenValidityInMilliseconds", ONE_MINUTE);
+
+        String token = tokenProvider.createToken(createAuthentication(), false);
+
+        assertThat(tokenProvider.parseToken(token).isValid()).isEqualTo(true);
+        assertThat(tokenProvider.parseToken(createTokenWithDifferentSignature()).getReason())
+            .isEqualTo(TokenValidationResult.Reason.UNSUPPORTED);
+        assertThat((List<?>) signingKeys.getJwkSet().get("keys")).hasSize(1);
+    }
+
     private Authentication createAuthentication() {
         Collection<GrantedAuthority> authorities = new ArrayList<>();
         authorities.add(new SimpleGrantedAuthority(AuthoritiesConstants.ANONYMOUS));
@@ -0,0 +1,144 @@
+package com.gateway.app.service;
+
+import com.gateway.app.GatewayApp;
+import com.gateway.app.config.ApplicationProperties;
+import com.gateway.app.domain.PersistentAuditEvent;
+import com.gateway.app.repository.PersistenceAuditEventRepository;
+import com.codahale.metrics.MetricRegistry;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.core.ILock;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test class for the AuditEventPartitionService. The test database is not partitioned, so the events older than the
+ * retention are deleted.
+ *
+ * @see AuditEventPartitionService
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = GatewayApp.class)
+@Transactional
+public class AuditEventPartitionServiceIntTest {
+
+    @Autowired
+    private PersistenceAuditEventRepository persistenceAuditEventRepository;
+
+    @Autowired
+    private AuditEventPartitionService auditEventPartitionService;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    @Before
+    public void init() {
+        persistenceAuditEventRepository.deleteAll();
+    }
+
+    @Test
+    public void assertThatEventsOlderThanTheRetentionAreDeleted() {
+        PersistentAuditEvent oldEvent = createEvent("old-user", Instant.now().minus(91, ChronoUnit.DAYS));
+        oldEvent.getData().put("test-key", "test-value");
+        persistenceAuditEventRepository.saveAndFlush(oldEvent);
+        persistenceAuditEventRepository.saveAndFlush(createEvent("recent-user", Instant.now().minus(1, ChronoUnit.DAYS)));
+
+        auditEventPartitionService.maintainPartitions();
+
+        List<PersistentAuditEvent> events = persistenceAuditEventRepository.findAll();
+        assertThat(events).extracting("principal").containsExactly("recent-user");
+    }
+
+    @Test
+    public void assertThatTheMaintenanceIsSkippedWhileAnotherNodeRunsIt() throws Exception {
+        persistenceAuditEventRepository.saveAndFlush(createEvent("old-user", Instant.now().minus(91, ChronoUnit.DAYS)));
+        ILock lock = hazelcastInstance.getLock("audit-event-partitions");
+        Thread otherNode = new Thread(lock::lock);
+        otherNode.start();
+        otherNode.join();
+        try {
+            auditEventPartitionService.maintainPartitions();
+
+            assertThat(persistenceAuditEventRepository.findAll()).extracting("principal").containsExactly("old-user");
+        } finally {
+            lock.forceUnlock();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void assertThatAFailedMaintenanceIsLoggedAndCounted() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.execute(any(ConnectionCallback.class)))
+            .thenThrow(new CannotGetJdbcConnectionException("Database down", null));
+        MetricRegistry metricRegistry = new MetricRegistry();
+        AuditEventPartitionService failingService =
+            new AuditEventPartitionService(jdbcTemplate, applicationProperties, metricRegistry, hazelcastInstance,
+                Runnable::run);
+
+        failingService.maintainPartitions();
+
+        assertThat(metricRegistry.meter(MetricRegistry.name(AuditEventPartitionService.class, "failures")).getCount())
+            .isEqualTo(1);
+        assertThat(hazelcastInstance.getLock("audit-event-partitions").isLocked()).isFalse();
+    }
+
+    @Test
+    public void assertThatTheFirstPartitionsCoverTodayAndTheDaysAhead() {
+        Instant now = Instant.parse("2017-11-05T10:11:30Z");
+
+        List<String> partitions = AuditEventPartitionService.newPartitions(null, now, 2);
+
+        assertThat(partitions).containsExactly(
+            "PARTITION p20171105 VALUES LESS THAN (" + Instant.parse("2017-11-06T00:00:00Z").getEpochSecond() + ")",
+            "PARTITION p20171106 VALUES LESS THAN (" + Instant.parse("2017-11-07T00:00:00Z").getEpochSecond() + ")",
+            "PARTITION p20171107 VALUES LESS THAN (" + Instant.parse("2017-11-08T00:00:00Z").getEpochSecond() + ")");
+    }
+
+    @Test
+    public void assertThatOnlyTheMissingPartitionsAreCreated() {
+        Instant now = Instant.parse("2017-11-05T10:11:30Z");
+        long lastBound = Instant.parse("2017-11-07T00:00:00Z").getEpochSecond();
+
+        assertThat(AuditEventPartitionService.newPartitions(lastBound, now, 2)).containsExactly(
+            "PARTITION p20171107 VALUES LESS THAN (" + Instant.parse("2017-11-08T00:00:00Z").getEpochSecond() + ")");
+        assertThat(AuditEventPartitionService.newPartitions(lastBound, now, 1)).isEmpty();
+    }
+
+    @Test
+    public void assertThatTheFirstPartitionsFollowTheHistoryPartition() {
+        Instant now = Instant.parse("2017-11-05T10:11:30Z");
+        long historyBound = Instant.parse("2017-11-05T00:00:00Z").getEpochSecond();
+
+        assertThat(AuditEventPartitionService.newPartitions(historyBound, now, 1)).containsExactly(
+            "PARTITION p20171105 VALUES LESS THAN (" + Instant.parse("2017-11-06T00:00:00Z").getEpochSecond() + ")",
+            "PARTITION p20171106 VALUES LESS THAN (" + Instant.parse("2017-11-07T00:00:00Z").getEpochSecond() + ")");
+    }
+
+    private PersistentAuditEvent createEvent(String principal, Instant date) {
+        PersistentAuditEvent event = new PersistentAuditEvent();
+        event.setPrincipal(principal);
+        event.setAuditEventType("test-type");
+        event.setAuditEventDate(date);
+        return event;
+    }
+}
@@ -0,0 +1,95 @@
+package com.gateway.app.service;
+
+import java.io.*;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal SMTP server accepting all the emails, for the tests of the email delivery.
+ */
+public class FakeSmtpServer implements Closeable {
+
+    private final ServerSocket serverSocket;
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    private final List<String> messages = new CopyOnWriteArrayList<>();
+
+    public FakeSmtpServer() throws IOException {
+        serverSocket = new ServerSocket(0);
+        Thread acceptor = new Thread(this::accept, "fake-smtp-server");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return the number of SMTP connections opened by the clients
+     */
+    public int getConnections() {
+        return connections.get();
+    }
+
+    /**
+     * @return the raw content of the received emails
+     */
+    public List<String> getMessages() {
+        return messages;
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try (Socket socket = serverSocket.accept()) {
+                connections.incrementAndGet();
+                handle(socket);
+            } catch (SocketException e) {
+                // Closed
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void handle(Socket socket) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+            StandardCharsets.US_ASCII));
+        Writer writer = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII);
+        reply(writer, "220 localhost ESMTP");
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String command = line.toUpperCase();
+            if (command.startsWith("DATA")) {
+                reply(writer, "354 End data with <CR><LF>.<CR><LF>");
+                StringBuilder message = new StringBuilder();
+                while ((line = reader.readLine()) != null && !line.equals(".")) {
+                    message.append(line.startsWith("..") ? line.substring(1) : line).append("\r\n");
+                }
+                messages.add(message.toString());
+                reply(writer, "250 OK");
+            } else if (command.startsWith("QUIT")) {
+                reply(writer, "221 Bye");
+                return;
+            } else {
+                reply(writer, "250 OK");
+            }
+        }
+    }
+
+    private static void reply(Writer writer, String reply) throws IOException {
+        writer.write(reply + "\r\n");
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+}
@@ -0,0 +1,114 @@
+package com.gateway.app.service;
+
+import com.gateway.app.GatewayApp;
+import com.gateway.app.config.ApplicationProperties;
+import com.gateway.app.domain.MailOutboxEntry;
+import com.gateway.app.repository.MailOutboxRepository;
+import com.codahale.metrics.MetricRegistry;
+import com.hazelcast.core.HazelcastInstance;
+import io.github.jhipster.config.JHipsterProperties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the MailDeliveryService, sending the emails to a local fake SMTP server.
+ *
+ * @see MailDeliveryService
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = GatewayApp.class)
+public class MailDeliveryServiceIntTest {
+
+    @Autowired
+    private MailOutboxRepository mailOutboxRepository;
+
+    @Autowired
+    private JHipsterProperties jHipsterProperties;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    private FakeSmtpServer smtpServer;
+
+    private MetricRegistry metricRegistry;
+
+    private MailDeliveryService mailDeliveryService;
+
+    @Before
+    public void setup() throws Exception {
+        mailOutboxRepository.deleteAll();
+        smtpServer = new FakeSmtpServer();
+        JavaMailSenderImpl javaMailSender = new JavaMailSenderImpl();
+        javaMailSender.setHost("localhost");
+        javaMailSender.setPort(smtpServer.getPort());
+        metricRegistry = new MetricRegistry();
+        mailDeliveryService = new MailDeliveryService(mailOutboxRepository, javaMailSender, jHipsterProperties,
+            transactionManager, metricRegistry, applicationProperties, hazelcastInstance);
+    }
+
+    @After
+    public void destroy() throws Exception {
+        smtpServer.close();
+        mailOutboxRepository.deleteAll();
+    }
+
+    private void queueEmails(int count) {
+        for (int i = 0; i < count; i++) {
+            mailOutboxRepository.save(new MailOutboxEntry("john.doe" + i + "@example.com", "testSubject",
+                "testContent " + i, false, false, Instant.now()));
+        }
+    }
+
+    @Test
+    public void testSendEmailsThroughOneConnection() {
+        queueEmails(3);
+
+        mailDeliveryService.sendPendingMails();
+
+        assertThat(smtpServer.getMessages()).hasSize(3);
+        assertThat(smtpServer.getConnections()).isEqualTo(1);
+        assertThat(smtpServer.getMessages().get(0)).contains("Subject: testSubject").contains("testContent 0");
+        assertThat(mailOutboxRepository.count()).isZero();
+        assertThat(metricRegistry.meter(MetricRegistry.name(MailDeliveryService.class, "sent")).getCount())
+            .isEqualTo(3);
+        assertThat(metricRegistry.timer(MetricRegistry.name(MailDeliveryService.class, "delivery-latency"))
+            .getCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void testRetryWhenTheSmtpServerIsDown() throws Exception {
+        queueEmails(2);
+        smtpServer.close();
+        Instant beforeSend = Instant.now();
+
+        mailDeliveryService.sendPendingMails();
+
+        List<MailOutboxEntry> entries = mailOutboxRepository.findAll();
+        assertThat(entries).hasSize(2).extracting("attempts").containsOnly(1);
+        entries.forEach(entry -> assertThat(entry.getNextAttemptDate()).isAfter(beforeSend));
+        assertThat(metricRegistry.meter(MetricRegistry.name(MailDeliveryService.class, "failed")).getCount())
+            .isEqualTo(2);
+
+        // Not retried before the backoff delay
+        mailDeliveryService.sendPendingMails();
+        assertThat(mailOutboxRepository.findAll()).extracting("attempts").containsOnly(1);
+    }
+}
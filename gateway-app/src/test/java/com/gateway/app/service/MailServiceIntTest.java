@@ -1,32 +1,36 @@
 package com.gateway.app.service;
 
 import com.gateway.app.GatewayApp;
+import com.gateway.app.config.ApplicationProperties;
+import com.gateway.app.domain.MailOutboxEntry;
 import com.gateway.app.domain.User;
+import com.gateway.app.repository.MailOutboxRepository;
+import com.codahale.metrics.MetricRegistry;
+import com.hazelcast.core.HazelcastInstance;
 import io.github.jhipster.config.JHipsterProperties;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.mockito.ArgumentCaptor;
-import org.mockito.Captor;
-import org.mockito.MockitoAnnotations;
-import org.mockito.Spy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.context.MessageSource;
+import org.springframework.mail.MailException;
 import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.springframework.test.context.junit4.SpringRunner;
-import org.thymeleaf.spring4.SpringTemplateEngine;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import javax.mail.Multipart;
 import javax.mail.internet.MimeBodyPart;
 import javax.mail.internet.MimeMessage;
 import javax.mail.internet.MimeMultipart;
 import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
-import static org.mockito.Matchers.any;
-import static org.mockito.Mockito.*;
 
 @RunWith(SpringRunner.class)
 @SpringBootTest(classes = GatewayApp.class)
@@ -36,31 +40,64 @@ public class MailServiceIntTest {
     private JHipsterProperties jHipsterProperties;
 
     @Autowired
-    private MessageSource messageSource;
+    private MailTemplateRenderer mailTemplateRenderer;
 
     @Autowired
-    private SpringTemplateEngine templateEngine;
+    private MailOutboxRepository mailOutboxRepository;
 
-    @Spy
-    private JavaMailSenderImpl javaMailSender;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private HazelcastInstance hazelcastInstance;
+
+    private final List<MimeMessage> sentMessages = new ArrayList<>();
 
-    @Captor
-    private ArgumentCaptor messageCaptor;
+    private MailException sendException;
 
     private MailService mailService;
 
+    private MailDeliveryService mailDeliveryService;
+
     @Before
     public void setup() {
-        MockitoAnnotations.initMocks(this);
-        doNothing().when(javaMailSender).send(any(MimeMessage.class));
-        mailService = new MailService(jHipsterProperties, javaMailSender, messageSource, templateEngine);
+        mailOutboxRepository.deleteAll();
+        JavaMailSenderImpl javaMailSender = new JavaMailSenderImpl() {
+            @Override
+            protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+                if (sendException != null) {
+                    throw sendException;
+                }
+                sentMessages.addAll(Arrays.asList(mimeMessages));
+            }
+        };
+        mailService = new MailService(mailOutboxRepository, mailTemplateRenderer);
+        mailDeliveryService = new MailDeliveryService(mailOutboxRepository, javaMailSender, jHipsterProperties,
+            transactionManager, new MetricRegistry(), applicationProperties, hazelcastInstance);
+    }
+
+    @After
+    public void destroy() {
+        mailOutboxRepository.deleteAll();
+    }
+
+    /**
+     * Send the queued email, and return the message sent to the SMTP server.
+     */
+    private MimeMessage sendQueuedMail() {
+        mailDeliveryService.sendPendingMails();
+        assertThat(sentMessages).hasSize(1);
+        assertThat(mailOutboxRepository.count()).isZero();
+        return sentMessages.get(0);
     }
 
     @Test
     public void testSendEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject","testContent", false, false);
-        verify(javaMailSender).send((MimeMessage) messageCaptor.capture());
-        MimeMessage message = (MimeMessage) messageCaptor.getValue();
+        MimeMessage message = sendQueuedMail();
         assertThat(message.getSubject()).isEqualTo("testSubject");
         assertThat(message.getAllRecipients()[0].toString()).isEqualTo("john.doe@example.com");
         assertThat(message.getFrom()[0].toString()).isEqualTo("test@localhost");
@@ -72,8 +109,7 @@ public class MailServiceIntTest {
     @Test
     public void testSendHtmlEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject","testContent", false, true);
-        verify(javaMailSender).send((MimeMessage) messageCaptor.capture());
-        MimeMessage message = (MimeMessage) messageCaptor.getValue();
+        MimeMessage message = sendQueuedMail();
         assertThat(message.getSubject()).isEqualTo("testSubject");
         assertThat(message.getAllRecipients()[0].toString()).isEqualTo("john.doe@example.com");
         assertThat(message.getFrom()[0].toString()).isEqualTo("test@localhost");
@@ -85,8 +121,7 @@ public class MailServiceIntTest {
     @Test
     public void testSendMultipartEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject","testContent", true, false);
-        verify(javaMailSender).send((MimeMessage) messageCaptor.capture());
-        MimeMessage message = (MimeMessage) messageCaptor.getValue();
+        MimeMessage message = sendQueuedMail();
         MimeMultipart mp = (MimeMultipart) message.getContent();
         MimeBodyPart part = (MimeBodyPart)((MimeMultipart) mp.getBodyPart(0).getContent()).getBodyPart(0);
         ByteArrayOutputStream aos = new ByteArrayOutputStream();
@@ -102,8 +137,7 @@ public class MailServiceIntTest {
     @Test
     public void testSendMultipartHtmlEmail() throws Exception {
         mailService.sendEmail("john.doe@example.com", "testSubject","testContent", true, true);
-        verify(javaMailSender).send((MimeMessage) messageCaptor.capture());
-        MimeMessage message = (MimeMessage) messageCaptor.getValue();
+        MimeMessage message = sendQueuedMail();
         MimeMultipart mp = (MimeMultipart) message.getContent();
         MimeBodyPart part = (MimeBodyPart)((MimeMultipart) mp.getBodyPart(0).getContent()).getBodyPart(0);
         ByteArrayOutputStream aos = new ByteArrayOutputStream();
@@ -123,8 +157,7 @@ public class MailServiceIntTest {
         user.setEmail("john.doe@example.com");
         user.setLangKey("en");
         mailService.sendEmailFromTemplate(user, "testEmail", "email.test.title");
-        verify(javaMailSender).send((MimeMessage) messageCaptor.capture());
-        MimeMessage message = (MimeMessage) messageCaptor.getValue();
+        MimeMessage message = sendQueuedMail();
         assertThat(message.getSubject()).isEqualTo("test title");
         assertThat(message.getAllRecipients()[0].toString()).isEqualTo(user.getEmail());
         assertThat(message.getFrom()[0].toString()).isEqualTo("test@localhost");
@@ -139,8 +172,7 @@ public class MailServiceIntTest {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendActivationEmail(user);
-        verify(javaMailSender).send((MimeMessage) messageCaptor.capture());
-        MimeMessage message = (MimeMessage) messageCaptor.getValue();
+        MimeMessage message = sendQueuedMail();
         assertThat(message.getAllRecipients()[0].toString()).isEqualTo(user.getEmail());
         assertThat(message.getFrom()[0].toString()).isEqualTo("test@localhost");
         assertThat(message.getContent().toString()).isNotEmpty();
@@ -154,8 +186,7 @@ public class MailServiceIntTest {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendCreationEmail(user);
-        verify(javaMailSender).send((MimeMessage) messageCaptor.capture());
-        MimeMessage message = (MimeMessage) messageCaptor.getValue();
+        MimeMessage message = sendQueuedMail();
         assertThat(message.getAllRecipients()[0].toString()).isEqualTo(user.getEmail());
         assertThat(message.getFrom()[0].toString()).isEqualTo("test@localhost");
         assertThat(message.getContent().toString()).isNotEmpty();
@@ -169,8 +200,7 @@ public class MailServiceIntTest {
         user.setLogin("john");
         user.setEmail("john.doe@example.com");
         mailService.sendPasswordResetMail(user);
-        verify(javaMailSender).send((MimeMessage) messageCaptor.capture());
-        MimeMessage message = (MimeMessage) messageCaptor.getValue();
+        MimeMessage message = sendQueuedMail();
         assertThat(message.getAllRecipients()[0].toString()).isEqualTo(user.getEmail());
         assertThat(message.getFrom()[0].toString()).isEqualTo("test@localhost");
         assertThat(message.getContent().toString()).isNotEmpty();
@@ -179,8 +209,16 @@ public class MailServiceIntTest {
 
     @Test
     public void testSendEmailWithException() throws Exception {
-        doThrow(MailSendException.class).when(javaMailSender).send(any(MimeMessage.class));
+        sendException = new MailSendException("SMTP server unavailable");
         mailService.sendEmail("john.doe@example.com", "testSubject","testContent", false, false);
+        Instant beforeSend = Instant.now();
+        mailDeliveryService.sendPendingMails();
+
+        assertThat(sentMessages).isEmpty();
+        List<MailOutboxEntry> entries = mailOutboxRepository.findAll();
+        assertThat(entries).hasSize(1);
+        assertThat(entries.get(0).getAttempts()).isEqualTo(1);
+        assertThat(entries.get(0).getNextAttemptDate()).isAfter(beforeSend);
     }
 
 }
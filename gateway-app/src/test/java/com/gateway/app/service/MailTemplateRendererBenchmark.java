@@ -0,0 +1,75 @@
+package com.gateway.app.service;
+
+import com.gateway.app.domain.User;
+import com.gateway.app.service.util.RandomUtil;
+import io.github.jhipster.config.JHipsterProperties;
+import org.apache.commons.lang3.CharEncoding;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafProperties;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.thymeleaf.spring4.SpringTemplateEngine;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the rendering of the activation email, by Thymeleaf at each email and by the cached templates of
+ * the {@link MailTemplateRenderer}.
+ * <p>
+ * It is not run by the tests, run its main method from the IDE, or with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MailTemplateRendererBenchmark {
+
+    private MailTemplateRenderer mailTemplateRenderer;
+
+    private User user;
+
+    @Setup
+    public void setup() {
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("mails/");
+        templateResolver.setSuffix(".html");
+        templateResolver.setTemplateMode("HTML5");
+        templateResolver.setCharacterEncoding(CharEncoding.UTF_8);
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("i18n/messages");
+        messageSource.setDefaultEncoding(CharEncoding.UTF_8);
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setMessageSource(messageSource);
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getMail().setBaseUrl("http://127.0.0.1:8080");
+        mailTemplateRenderer = new MailTemplateRenderer(templateEngine, messageSource, jHipsterProperties,
+            new ThymeleafProperties());
+
+        user = new User();
+        user.setLogin("john");
+        user.setEmail("john.doe@example.com");
+        user.setLangKey("en");
+        user.setActivationKey(RandomUtil.generateActivationKey());
+    }
+
+    @Benchmark
+    public String thymeleaf() {
+        return mailTemplateRenderer.process("activationEmail", user, Locale.ENGLISH);
+    }
+
+    @Benchmark
+    public String cachedTemplate() {
+        return mailTemplateRenderer.render("activationEmail", user, Locale.ENGLISH);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(MailTemplateRendererBenchmark.class.getSimpleName()).build()).run();
+    }
+}
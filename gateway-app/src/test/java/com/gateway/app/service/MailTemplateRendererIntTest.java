@@ -0,0 +1,67 @@
+package com.gateway.app.service;
+
+import com.gateway.app.GatewayApp;
+import com.gateway.app.domain.User;
+import com.gateway.app.service.util.RandomUtil;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Test class for the MailTemplateRenderer.
+ *
+ * @see MailTemplateRenderer
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = GatewayApp.class)
+public class MailTemplateRendererIntTest {
+
+    @Autowired
+    private MailTemplateRenderer mailTemplateRenderer;
+
+    @Test
+    public void assertThatCachedTemplatesRenderAsThymeleaf() {
+        for (String templateName : new String[] { "activationEmail", "creationEmail", "passwordResetEmail" }) {
+            User user = createUser("john");
+            assertThat(mailTemplateRenderer.render(templateName, user, Locale.ENGLISH))
+                .isEqualTo(mailTemplateRenderer.process(templateName, user, Locale.ENGLISH));
+
+            User otherUser = createUser("jane");
+            String content = mailTemplateRenderer.render(templateName, otherUser, Locale.ENGLISH);
+            assertThat(content).isEqualTo(mailTemplateRenderer.process(templateName, otherUser, Locale.ENGLISH));
+            assertThat(content).doesNotContain("mailfield");
+        }
+    }
+
+    @Test
+    public void assertThatUserFieldsAreEscaped() {
+        User user = createUser("o'brien");
+        user.setActivationKey("<key&>");
+        String content = mailTemplateRenderer.render("activationEmail", user, Locale.ENGLISH);
+        assertThat(content).contains("Dear o&#39;brien");
+        assertThat(content).contains("key=&lt;key&amp;&gt;");
+        assertThat(content).doesNotContain("<key&>");
+    }
+
+    @Test
+    public void assertThatSubjectsAreResolvedByLocale() {
+        assertThat(mailTemplateRenderer.getSubject("email.test.title", Locale.ENGLISH)).isEqualTo("test title");
+        assertThat(mailTemplateRenderer.getSubject("email.test.title", Locale.ENGLISH)).isEqualTo("test title");
+    }
+
+    private User createUser(String login) {
+        User user = new User();
+        user.setLogin(login);
+        user.setEmail(login + "@example.com");
+        user.setLangKey("en");
+        user.setActivationKey(RandomUtil.generateActivationKey());
+        user.setResetKey(RandomUtil.generateResetKey());
+        return user;
+    }
+}
@@ -10,6 +10,9 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.test.context.junit4.SpringRunner;
 
@@ -39,6 +42,12 @@ public class UserServiceIntTest {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private UserCache userCache;
+
     @Test
     public void assertThatUserMustExistToResetPassword() {
         Optional<User> maybeUser = userService.requestPasswordReset("john.doe@localhost");
@@ -112,6 +121,26 @@ public class UserServiceIntTest {
         userRepository.delete(user);
     }
 
+    @Test
+    public void assertThatPasswordResetRemovesTheCachedUserDetails() {
+        User user = userService.createUser("johndoe", "johndoe", "John", "Doe", "john.doe@localhost", "http://placehold.it/50x50", "en-US");
+        user.setActivated(true);
+        user.setResetDate(Instant.now().minus(2, ChronoUnit.HOURS));
+        user.setResetKey(RandomUtil.generateResetKey());
+        userRepository.save(user);
+        String oldPassword = userDetailsService.loadUserByUsername("johndoe").getPassword();
+        assertThat(userCache.getUserFromCache("johndoe")).isNotNull();
+
+        userService.completePasswordReset("johndoe2", user.getResetKey());
+
+        assertThat(userCache.getUserFromCache("johndoe")).isNull();
+        UserDetails userDetails = userDetailsService.loadUserByUsername("johndoe");
+        assertThat(userDetails.getPassword()).isNotEqualTo(oldPassword);
+
+        userCache.removeUserFromCache("johndoe");
+        userRepository.delete(user);
+    }
+
     @Test
     public void testFindNotActivatedUsersByCreationDateBefore() {
         userService.removeNotActivatedUsers();
@@ -1,6 +1,7 @@
 package com.gateway.app.web.rest;
 
 import com.gateway.app.GatewayApp;
+import com.gateway.app.config.ApplicationProperties;
 import com.gateway.app.config.audit.AuditEventConverter;
 import com.gateway.app.domain.PersistentAuditEvent;
 import com.gateway.app.repository.PersistenceAuditEventRepository;
@@ -8,22 +9,28 @@ import com.gateway.app.service.AuditEventService;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.mockito.MockitoAnnotations;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
 import org.springframework.format.support.FormattingConversionService;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -48,6 +55,15 @@ public class AuditResourceIntTest {
     @Autowired
     private AuditEventConverter auditEventConverter;
 
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
     @Autowired
     private MappingJackson2HttpMessageConverter jacksonMessageConverter;
 
@@ -65,7 +81,8 @@ public class AuditResourceIntTest {
     public void setup() {
         MockitoAnnotations.initMocks(this);
         AuditEventService auditEventService =
-            new AuditEventService(auditEventRepository, auditEventConverter);
+            new AuditEventService(auditEventRepository, auditEventConverter, transactionManager, objectMapper,
+                applicationProperties);
         AuditResource auditResource = new AuditResource(auditEventService);
         this.restAuditMockMvc = MockMvcBuilders.standaloneSetup(auditResource)
             .setCustomArgumentResolvers(pageableArgumentResolver)
@@ -135,7 +152,63 @@ public class AuditResourceIntTest {
         restAuditMockMvc.perform(get("/management/audits?fromDate=" + fromDate + "&toDate=" + toDate))
             .andExpect(status().isOk())
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_UTF8_VALUE))
-            .andExpect(header().string("X-Total-Count", "0"));
+            .andExpect(jsonPath("$").isEmpty())
+            .andExpect(header().doesNotExist(HttpHeaders.LINK))
+            .andExpect(header().doesNotExist("X-Total-Count"));
+    }
+
+    @Test
+    public void getAuditsByDateByKeyset() throws Exception {
+        // Initialize the database
+        auditEventRepository.save(auditEvent);
+        PersistentAuditEvent nextAuditEvent = new PersistentAuditEvent();
+        nextAuditEvent.setAuditEventType(SAMPLE_TYPE);
+        nextAuditEvent.setPrincipal("NEXT_PRINCIPAL");
+        nextAuditEvent.setAuditEventDate(SAMPLE_TIMESTAMP.plusSeconds(1));
+        auditEventRepository.save(nextAuditEvent);
+
+        String fromDate  = SAMPLE_TIMESTAMP.minusSeconds(SECONDS_PER_DAY).toString().substring(0,10);
+        String toDate = SAMPLE_TIMESTAMP.plusSeconds(SECONDS_PER_DAY).toString().substring(0,10);
+
+        // Get the first page, with a link to the next one
+        restAuditMockMvc.perform(get("/management/audits?fromDate=" + fromDate + "&toDate=" + toDate + "&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$.[0].principal").value(SAMPLE_PRINCIPAL))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("afterDate=" + SAMPLE_TIMESTAMP)))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("afterId=" + auditEvent.getId())));
+
+        // Get the next page
+        restAuditMockMvc.perform(get("/management/audits?fromDate=" + fromDate + "&toDate=" + toDate + "&size=1" +
+            "&afterDate=" + SAMPLE_TIMESTAMP + "&afterId=" + auditEvent.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$.[0].principal").value("NEXT_PRINCIPAL"));
+    }
+
+    @Test
+    public void exportAuditsByDate() throws Exception {
+        // Initialize the database
+        auditEvent.getData().put("remoteAddress", "1.2.3.4");
+        auditEventRepository.save(auditEvent);
+
+        String fromDate  = SAMPLE_TIMESTAMP.minusSeconds(SECONDS_PER_DAY).toString().substring(0,10);
+        String toDate = SAMPLE_TIMESTAMP.plusSeconds(SECONDS_PER_DAY).toString().substring(0,10);
+
+        restAuditMockMvc.perform(get("/management/audits/export?fromDate=" + fromDate + "&toDate=" + toDate))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("text/csv"))
+            .andExpect(content().string(startsWith("id,timestamp,principal,type,data\n")))
+            .andExpect(content().string(containsString(auditEvent.getId() + "," + SAMPLE_TIMESTAMP + ",\"" +
+                SAMPLE_PRINCIPAL + "\",\"" + SAMPLE_TYPE + "\",\"{\"\"remoteAddress\"\":\"\"1.2.3.4\"\"}\"\n")));
+
+        restAuditMockMvc.perform(get("/management/audits/export?fromDate=" + fromDate + "&toDate=" + toDate +
+            "&format=NDJSON"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+            .andExpect(content().string("{\"id\":" + auditEvent.getId() + ",\"timestamp\":\"" + SAMPLE_TIMESTAMP +
+                "\",\"principal\":\"" + SAMPLE_PRINCIPAL + "\",\"type\":\"" + SAMPLE_TYPE +
+                "\",\"data\":{\"remoteAddress\":\"1.2.3.4\"}}\n"));
     }
 
     @Test
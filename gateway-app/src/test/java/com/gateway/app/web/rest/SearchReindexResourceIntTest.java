@@ -0,0 +1,135 @@
+package com.gateway.app.web.rest;
+
+import com.gateway.app.GatewayApp;
+import com.gateway.app.config.ApplicationProperties;
+import com.gateway.app.domain.User;
+import com.gateway.app.repository.UserRepository;
+import com.gateway.app.repository.search.UserSearchRepository;
+import com.gateway.app.service.SearchIndexingService;
+import com.gateway.app.service.SearchReindexService;
+
+import com.codahale.metrics.MetricRegistry;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.elasticsearch.core.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.EntityMapper;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test class for the SearchReindexResource REST controller.
+ * <p>
+ * Not transactional, as the reindex reads the committed entities. The reindex runs in the calling thread.
+ *
+ * @see SearchReindexResource
+ */
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = GatewayApp.class)
+public class SearchReindexResourceIntTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserSearchRepository userSearchRepository;
+
+    @Autowired
+    private SearchIndexingService searchIndexingService;
+
+    @Autowired
+    private ElasticsearchTemplate elasticsearchTemplate;
+
+    @Autowired
+    private EntityMapper entityMapper;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MetricRegistry metricRegistry;
+
+    @Autowired
+    private ApplicationProperties applicationProperties;
+
+    @Autowired
+    private MappingJackson2HttpMessageConverter jacksonMessageConverter;
+
+    private MockMvc restSearchReindexMockMvc;
+
+    @Before
+    public void setup() {
+        SearchReindexService searchReindexService = new SearchReindexService(searchIndexingService,
+            elasticsearchTemplate, entityMapper, em, transactionManager, metricRegistry, applicationProperties,
+            Runnable::run);
+        SearchReindexResource searchReindexResource = new SearchReindexResource(searchReindexService);
+        this.restSearchReindexMockMvc = MockMvcBuilders.standaloneSetup(searchReindexResource)
+            .setMessageConverters(jacksonMessageConverter).build();
+    }
+
+    @Test
+    public void reindexUsers() throws Exception {
+        User user = new User();
+        user.setLogin("reindex");
+        user.setPassword(RandomStringUtils.random(60));
+        user.setActivated(true);
+        user.setEmail("reindex@localhost");
+        user.setLangKey("en");
+        user = userRepository.saveAndFlush(user);
+        try {
+            restSearchReindexMockMvc.perform(post("/management/search-reindex/User"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.entityType").value("User"))
+                .andExpect(jsonPath("$.state").value("COMPLETED"))
+                .andExpect(jsonPath("$.failed").value(0));
+
+            User userEs = userSearchRepository.findOne(user.getId());
+            assertThat(userEs.getLogin()).isEqualTo("reindex");
+            List<String> firstIndices = getAliasedIndices("user");
+            assertThat(firstIndices).hasSize(1);
+
+            // The next reindex only moves the alias to a new versioned index
+            restSearchReindexMockMvc.perform(post("/management/search-reindex/User"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.state").value("COMPLETED"));
+
+            assertThat(getAliasedIndices("user")).hasSize(1).doesNotContainAnyElementsOf(firstIndices);
+            assertThat(elasticsearchTemplate.indexExists(firstIndices.get(0))).isFalse();
+            assertThat(userSearchRepository.findOne(user.getId())).isNotNull();
+        } finally {
+            userRepository.delete(user);
+            userSearchRepository.delete(user.getId());
+        }
+    }
+
+    @Test
+    public void reindexUnknownEntity() throws Exception {
+        restSearchReindexMockMvc.perform(post("/management/search-reindex/Unknown"))
+            .andExpect(status().isNotFound());
+    }
+
+    private List<String> getAliasedIndices(String alias) {
+        List<String> indices = new ArrayList<>();
+        elasticsearchTemplate.getClient().admin().indices().prepareGetAliases(alias).get().getAliases().keysIt()
+            .forEachRemaining(indices::add);
+        return indices;
+    }
+}
@@ -7,6 +7,7 @@ import com.gateway.app.repository.UserRepository;
 import com.gateway.app.repository.search.UserSearchRepository;
 import com.gateway.app.security.AuthoritiesConstants;
 import com.gateway.app.service.MailService;
+import com.gateway.app.service.SearchIndexingService;
 import com.gateway.app.service.UserService;
 import com.gateway.app.service.dto.UserDTO;
 import com.gateway.app.service.mapper.UserMapper;
@@ -86,6 +87,9 @@ public class UserResourceIntTest {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private SearchIndexingService searchIndexingService;
+
     @Autowired
     private UserMapper userMapper;
 
@@ -179,6 +183,12 @@ public class UserResourceIntTest {
         assertThat(testUser.getEmail()).isEqualTo(DEFAULT_EMAIL);
         assertThat(testUser.getImageUrl()).isEqualTo(DEFAULT_IMAGEURL);
         assertThat(testUser.getLangKey()).isEqualTo(DEFAULT_LANGKEY);
+
+        // Validate the User in Elasticsearch
+        searchIndexingService.indexPendingEntries();
+        User userEs = userSearchRepository.findOne(testUser.getId());
+        assertThat(userEs.getLogin()).isEqualTo(DEFAULT_LOGIN);
+        assertThat(userEs.getEmail()).isEqualTo(DEFAULT_EMAIL);
     }
 
     @Test
@@ -220,7 +230,6 @@ public class UserResourceIntTest {
     public void createUserWithExistingLogin() throws Exception {
         // Initialize the database
         userRepository.saveAndFlush(user);
-        userSearchRepository.save(user);
         int databaseSizeBeforeCreate = userRepository.findAll().size();
 
         Set<String> authorities = new HashSet<>();
@@ -257,7 +266,6 @@ public class UserResourceIntTest {
     public void createUserWithExistingEmail() throws Exception {
         // Initialize the database
         userRepository.saveAndFlush(user);
-        userSearchRepository.save(user);
         int databaseSizeBeforeCreate = userRepository.findAll().size();
 
         Set<String> authorities = new HashSet<>();
@@ -294,7 +302,6 @@ public class UserResourceIntTest {
     public void getAllUsers() throws Exception {
         // Initialize the database
         userRepository.saveAndFlush(user);
-        userSearchRepository.save(user);
 
         // Get all the users
         restUserMockMvc.perform(get("/api/users?sort=id,desc")
@@ -314,7 +321,6 @@ public class UserResourceIntTest {
     public void getUser() throws Exception {
         // Initialize the database
         userRepository.saveAndFlush(user);
-        userSearchRepository.save(user);
 
         // Get the user
         restUserMockMvc.perform(get("/api/users/{login}", user.getLogin()))
@@ -340,7 +346,6 @@ public class UserResourceIntTest {
     public void updateUser() throws Exception {
         // Initialize the database
         userRepository.saveAndFlush(user);
-        userSearchRepository.save(user);
         int databaseSizeBeforeUpdate = userRepository.findAll().size();
 
         // Update the user
@@ -378,6 +383,12 @@ public class UserResourceIntTest {
         assertThat(testUser.getEmail()).isEqualTo(UPDATED_EMAIL);
         assertThat(testUser.getImageUrl()).isEqualTo(UPDATED_IMAGEURL);
         assertThat(testUser.getLangKey()).isEqualTo(UPDATED_LANGKEY);
+
+        // Validate the User in Elasticsearch
+        searchIndexingService.indexPendingEntries();
+        User userEs = userSearchRepository.findOne(testUser.getId());
+        assertThat(userEs.getFirstName()).isEqualTo(UPDATED_FIRSTNAME);
+        assertThat(userEs.getEmail()).isEqualTo(UPDATED_EMAIL);
     }
 
     @Test
@@ -385,7 +396,6 @@ public class UserResourceIntTest {
     public void updateUserLogin() throws Exception {
         // Initialize the database
         userRepository.saveAndFlush(user);
-        userSearchRepository.save(user);
         int databaseSizeBeforeUpdate = userRepository.findAll().size();
 
         // Update the user
@@ -431,7 +441,6 @@ public class UserResourceIntTest {
     public void updateUserExistingEmail() throws Exception {
         // Initialize the database with 2 users
         userRepository.saveAndFlush(user);
-        userSearchRepository.save(user);
 
         User anotherUser = new User();
         anotherUser.setLogin("jhipster");
@@ -443,7 +452,6 @@ public class UserResourceIntTest {
         anotherUser.setImageUrl("");
         anotherUser.setLangKey("en");
         userRepository.saveAndFlush(anotherUser);
-        userSearchRepository.save(anotherUser);
 
         // Update the user
         User updatedUser = userRepository.findOne(user.getId());
@@ -477,7 +485,6 @@ public class UserResourceIntTest {
     public void updateUserExistingLogin() throws Exception {
         // Initialize the database
         userRepository.saveAndFlush(user);
-        userSearchRepository.save(user);
 
         User anotherUser = new User();
         anotherUser.setLogin("jhipster");
@@ -489,7 +496,6 @@ public class UserResourceIntTest {
         anotherUser.setImageUrl("");
         anotherUser.setLangKey("en");
         userRepository.saveAndFlush(anotherUser);
-        userSearchRepository.save(anotherUser);
 
         // Update the user
         User updatedUser = userRepository.findOne(user.getId());
@@ -523,7 +529,9 @@ public class UserResourceIntTest {
     public void deleteUser() throws Exception {
         // Initialize the database
         userRepository.saveAndFlush(user);
-        userSearchRepository.save(user);
+        searchIndexingService.scheduleIndexing(User.class, user.getId());
+        searchIndexingService.indexPendingEntries();
+        assertThat(userSearchRepository.exists(user.getId())).isTrue();
         int databaseSizeBeforeDelete = userRepository.findAll().size();
 
         // Delete the user
@@ -534,6 +542,10 @@ public class UserResourceIntTest {
         // Validate the database is empty
         List<User> userList = userRepository.findAll();
         assertThat(userList).hasSize(databaseSizeBeforeDelete - 1);
+
+        // Validate Elasticsearch is empty
+        searchIndexingService.indexPendingEntries();
+        assertThat(userSearchRepository.exists(user.getId())).isFalse();
     }
 
     @Test
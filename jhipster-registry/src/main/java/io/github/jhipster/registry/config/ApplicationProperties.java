@@ -1,5 +1,7 @@
 package io.github.jhipster.registry.config;
 
+import io.jsonwebtoken.SignatureAlgorithm;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 /**
@@ -12,4 +14,100 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
 
+    private final Jwt jwt = new Jwt();
+
+    public Jwt getJwt() {
+        return jwt;
+    }
+
+    public static class Jwt {
+
+        /**
+         * Algorithm of the tokens issued by the gateway: HS512 uses the shared secret, RS256 and ES256 are verified
+         * with the public keys fetched from the JSON Web Key Set below.
+         */
+        private SignatureAlgorithm algorithm = SignatureAlgorithm.HS512;
+
+        /**
+         * Location of the JSON Web Key Set published by the gateway.
+         */
+        private String jwkSetUri;
+
+        /**
+         * Minimum delay between two fetches of the key set, when a token with an unknown key id is received.
+         */
+        private int jwkSetMinRefreshIntervalInSeconds = 30;
+
+        /**
+         * Maximum time to open a connection to the gateway, when fetching the key set.
+         */
+        private int jwkSetConnectTimeoutInMillis = 1000;
+
+        /**
+         * Maximum time to wait for data from the gateway once connected, when fetching the key set.
+         */
+        private int jwkSetReadTimeoutInMillis = 5000;
+
+        private final Cache cache = new Cache();
+
+        public SignatureAlgorithm getAlgorithm() {
+            return algorithm;
+        }
+
+        public void setAlgorithm(SignatureAlgorithm algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        public String getJwkSetUri() {
+            return jwkSetUri;
+        }
+
+        public void setJwkSetUri(String jwkSetUri) {
+            this.jwkSetUri = jwkSetUri;
+        }
+
+        public int getJwkSetMinRefreshIntervalInSeconds() {
+            return jwkSetMinRefreshIntervalInSeconds;
+        }
+
+        public void setJwkSetMinRefreshIntervalInSeconds(int jwkSetMinRefreshIntervalInSeconds) {
+            this.jwkSetMinRefreshIntervalInSeconds = jwkSetMinRefreshIntervalInSeconds;
+        }
+
+        public int getJwkSetConnectTimeoutInMillis() {
+            return jwkSetConnectTimeoutInMillis;
+        }
+
+        public void setJwkSetConnectTimeoutInMillis(int jwkSetConnectTimeoutInMillis) {
+            this.jwkSetConnectTimeoutInMillis = jwkSetConnectTimeoutInMillis;
+        }
+
+        public int getJwkSetReadTimeoutInMillis() {
+            return jwkSetReadTimeoutInMillis;
+        }
+
+        public void setJwkSetReadTimeoutInMillis(int jwkSetReadTimeoutInMillis) {
+            this.jwkSetReadTimeoutInMillis = jwkSetReadTimeoutInMillis;
+        }
+
+        public Cache getCache() {
+            return cache;
+        }
+
+        public static class Cache {
+
+            /**
+             * Maximum number of validated tokens kept in memory, 0 disables the cache.
+             */
+            private int maxEntries = 10000;
+
+            public int getMaxEntries() {
+                return maxEntries;
+            }
+
+            public void setMaxEntries(int maxEntries) {
+                this.maxEntries = maxEntries;
+            }
+        }
+    }
 }
@@ -0,0 +1,157 @@
+package io.github.jhipster.registry.filters.accesscontrol;
+
+import java.util.*;
+
+import org.springframework.cloud.netflix.zuul.filters.Route;
+
+/**
+ * Immutable prefix trie of the routes and of their authorized microservices endpoints.
+ * <p>
+ * A request URI is checked with a single walk of the trie, instead of comparing it with every route and every
+ * endpoint. As with a linear scan, the first route (in the route locator order) whose path is a prefix of the URI
+ * is the route of the request.
+ */
+public final class AccessControlRules {
+
+    private static final int[] NO_ROUTES = new int[0];
+
+    private final Node root;
+
+    /**
+     * For each route index, whether an access control policy is set for this route.
+     */
+    private final boolean[] restricted;
+
+    private AccessControlRules(Node root, boolean[] restricted) {
+        this.root = root;
+        this.restricted = restricted;
+    }
+
+    /**
+     * Build the rules for these routes.
+     *
+     * @param routes the routes, in the route locator order
+     * @param authorizedMicroservicesEndpoints the authorized endpoints by route id
+     * @return the rules
+     */
+    public static AccessControlRules build(List<Route> routes, Map<String, List<String>> authorizedMicroservicesEndpoints) {
+        NodeBuilder rootBuilder = new NodeBuilder();
+        boolean[] restricted = new boolean[routes.size()];
+        for (int index = 0; index < routes.size(); index++) {
+            Route route = routes.get(index);
+            String serviceUrl = route.getFullPath();
+            if (serviceUrl == null || serviceUrl.length() < 3) {
+                continue;
+            }
+            // We do a substring to remove the "**" at the end of the route URL
+            rootBuilder.child(serviceUrl.substring(0, serviceUrl.length() - 2)).addRoute(index);
+            List<String> authorizedEndpoints = authorizedMicroservicesEndpoints.get(route.getId());
+            if (authorizedEndpoints != null) {
+                restricted[index] = true;
+                for (String endpoint : authorizedEndpoints) {
+                    // We do a substring to remove the "**/" at the end of the route URL
+                    rootBuilder.child(serviceUrl.substring(0, serviceUrl.length() - 3) + endpoint).addEndpoint(index);
+                }
+            }
+        }
+        return new AccessControlRules(rootBuilder.build(), restricted);
+    }
+
+    /**
+     * @param requestUri the request URI
+     * @return true if the URI belongs to a route without access control policy, or matches one of the authorized
+     * endpoints of its route
+     */
+    public boolean isAuthorized(String requestUri) {
+        Node node = root;
+        int route = -1;
+        boolean authorized = false;
+        for (int i = 0; ; i++) {
+            if (node.route >= 0 && (route < 0 || node.route < route)) {
+                route = node.route;
+                // The endpoints of a route are always deeper than the route itself
+                authorized = false;
+            }
+            for (int endpointRoute : node.endpointRoutes) {
+                if (endpointRoute == route) {
+                    authorized = true;
+                }
+            }
+            if (i == requestUri.length()) {
+                break;
+            }
+            node = node.child(requestUri.charAt(i));
+            if (node == null) {
+                break;
+            }
+        }
+        if (route < 0) {
+            return false;
+        }
+        return !restricted[route] || authorized;
+    }
+
+    private static final class Node {
+
+        private final char[] keys;
+
+        private final Node[] children;
+
+        private final int route;
+
+        private final int[] endpointRoutes;
+
+        Node(char[] keys, Node[] children, int route, int[] endpointRoutes) {
+            this.keys = keys;
+            this.children = children;
+            this.route = route;
+            this.endpointRoutes = endpointRoutes;
+        }
+
+        Node child(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            return index < 0 ? null : children[index];
+        }
+    }
+
+    private static final class NodeBuilder {
+
+        private final SortedMap<Character, NodeBuilder> children = new TreeMap<>();
+
+        private int route = -1;
+
+        private final List<Integer> endpointRoutes = new ArrayList<>();
+
+        NodeBuilder child(String path) {
+            NodeBuilder node = this;
+            for (int i = 0; i < path.length(); i++) {
+                node = node.children.computeIfAbsent(path.charAt(i), key -> new NodeBuilder());
+            }
+            return node;
+        }
+
+        void addRoute(int index) {
+            if (route < 0) {
+                route = index;
+            }
+        }
+
+        void addEndpoint(int index) {
+            endpointRoutes.add(index);
+        }
+
+        Node build() {
+            char[] keys = new char[children.size()];
+            Node[] nodes = new Node[children.size()];
+            int i = 0;
+            for (Map.Entry<Character, NodeBuilder> child : children.entrySet()) {
+                keys[i] = child.getKey();
+                nodes[i] = child.getValue().build();
+                i++;
+            }
+            int[] endpoints = endpointRoutes.isEmpty() ?
+                NO_ROUTES : endpointRoutes.stream().mapToInt(Integer::intValue).toArray();
+            return new Node(keys, nodes, route, endpoints);
+        }
+    }
+}
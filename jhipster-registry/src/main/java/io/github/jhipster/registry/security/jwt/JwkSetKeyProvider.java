@@ -0,0 +1,185 @@
+package io.github.jhipster.registry.security.jwt;
+
+import io.github.jhipster.registry.config.ApplicationProperties;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PreDestroy;
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.*;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Public keys used to verify the tokens signed by the gateway with an asymmetric algorithm (RS256, ES256...).
+ * <p>
+ * The JSON Web Key Set published by the gateway is fetched once the application is ready, retried until it succeeds,
+ * and kept in memory, so that tokens are verified locally. When a token refers to an unknown key id, for example after
+ * a key rotation, the key set is fetched again in the background, at most once per refresh interval after the last
+ * successful fetch.
+ */
+@Component
+public class JwkSetKeyProvider {
+
+    private final Logger log = LoggerFactory.getLogger(JwkSetKeyProvider.class);
+
+    private final ApplicationProperties.Jwt jwtProperties;
+
+    private final RestTemplate restTemplate;
+
+    private static final long MAX_RETRY_DELAY_IN_SECONDS = 60;
+
+    private final ScheduledExecutorService refreshExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "jwk-set-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private volatile long lastRefreshTime;
+
+    private volatile Map<String, PublicKey> keys = Collections.emptyMap();
+
+    public JwkSetKeyProvider(ApplicationProperties applicationProperties) {
+        this.jwtProperties = applicationProperties.getJwt();
+        // Without timeouts, a gateway which never answers would block the refresh thread, and every later refresh
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(jwtProperties.getJwkSetConnectTimeoutInMillis());
+        requestFactory.setReadTimeout(jwtProperties.getJwkSetReadTimeoutInMillis());
+        this.restTemplate = new RestTemplate(requestFactory);
+    }
+
+    /**
+     * Fetch the key set once the application is ready, the gateway may not be started yet.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        if (!jwtProperties.getAlgorithm().isHmac()) {
+            refreshExecutor.execute(() -> loadKeys(1));
+        }
+    }
+
+    private void loadKeys(int attempt) {
+        if (refresh() || refreshExecutor.isShutdown()) {
+            return;
+        }
+        long delay = Math.min(1L << Math.min(attempt, 6), MAX_RETRY_DELAY_IN_SECONDS);
+        log.info("Retrying to fetch JWT verification keys in {} seconds", delay);
+        refreshExecutor.schedule(() -> loadKeys(attempt + 1), delay, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * Return the public key with this key id, and schedule a refresh of the key set if it is unknown.
+     *
+     * @param keyId the "kid" header of the token
+     * @return the public key, or null if it is unknown
+     */
+    public PublicKey getKey(String keyId) {
+        PublicKey key = keyId == null ? null : keys.get(keyId);
+        if (key == null) {
+            requestRefresh();
+        }
+        return key;
+    }
+
+    private void requestRefresh() {
+        long now = System.currentTimeMillis();
+        if (now - lastRefreshTime < TimeUnit.SECONDS.toMillis(jwtProperties.getJwkSetMinRefreshIntervalInSeconds())) {
+            return;
+        }
+        if (refreshing.compareAndSet(false, true)) {
+            refreshExecutor.execute(() -> {
+                try {
+                    refresh();
+                } finally {
+                    refreshing.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * @return true if the key set was fetched
+     */
+    private boolean refresh() {
+        log.debug("Fetching JWT verification keys from {}", jwtProperties.getJwkSetUri());
+        try {
+            Map<?, ?> jwkSet = restTemplate.getForObject(jwtProperties.getJwkSetUri(), Map.class);
+            Map<String, PublicKey> fetchedKeys = new HashMap<>();
+            Object jwks = jwkSet == null ? null : jwkSet.get("keys");
+            if (jwks instanceof List) {
+                for (Object jwk : (List<?>) jwks) {
+                    if (jwk instanceof Map) {
+                        Map<?, ?> jwkMap = (Map<?, ?>) jwk;
+                        fetchedKeys.put(String.valueOf(jwkMap.get("kid")), toPublicKey(jwkMap));
+                    }
+                }
+            }
+            keys = Collections.unmodifiableMap(fetchedKeys);
+            lastRefreshTime = System.currentTimeMillis();
+            log.debug("Fetched {} JWT verification keys", fetchedKeys.size());
+            return true;
+        } catch (RestClientException | GeneralSecurityException | IllegalArgumentException e) {
+            log.warn("Could not fetch JWT verification keys from {}: {}", jwtProperties.getJwkSetUri(), e.getMessage());
+            return false;
+        }
+    }
+
+    private static PublicKey toPublicKey(Map<?, ?> jwk) throws GeneralSecurityException {
+        Object keyType = jwk.get("kty");
+        if ("RSA".equals(keyType)) {
+            RSAPublicKeySpec keySpec = new RSAPublicKeySpec(decode(jwk.get("n")), decode(jwk.get("e")));
+            return KeyFactory.getInstance("RSA").generatePublic(keySpec);
+        }
+        if ("EC".equals(keyType)) {
+            AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+            parameters.init(new ECGenParameterSpec(curveName(jwk.get("crv"))));
+            ECPoint point = new ECPoint(decode(jwk.get("x")), decode(jwk.get("y")));
+            ECPublicKeySpec keySpec = new ECPublicKeySpec(point, parameters.getParameterSpec(ECParameterSpec.class));
+            return KeyFactory.getInstance("EC").generatePublic(keySpec);
+        }
+        throw new IllegalArgumentException("Unsupported JSON Web Key type " + keyType);
+    }
+
+    private static BigInteger decode(Object value) {
+        return new BigInteger(1, Base64.getUrlDecoder().decode(String.valueOf(value)));
+    }
+
+    private static String curveName(Object curve) {
+        if ("P-256".equals(curve)) {
+            return "secp256r1";
+        }
+        if ("P-384".equals(curve)) {
+            return "secp384r1";
+        }
+        if ("P-521".equals(curve)) {
+            return "secp521r1";
+        }
+        throw new IllegalArgumentException("Unsupported JSON Web Key curve " + curve);
+    }
+
+    public SignatureAlgorithm getAlgorithm() {
+        return jwtProperties.getAlgorithm();
+    }
+}
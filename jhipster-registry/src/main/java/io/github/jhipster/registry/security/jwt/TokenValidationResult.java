@@ -0,0 +1,61 @@
+package io.github.jhipster.registry.security.jwt;
+
+import org.springframework.security.core.Authentication;
+
+/**
+ * Outcome of a JWT token validation: either the authentication built from the token, or the reason it was rejected.
+ */
+public final class TokenValidationResult {
+
+    /**
+     * Reasons for which a token can be rejected.
+     */
+    public enum Reason {
+        VALID,
+        EMPTY,
+        MALFORMED,
+        INVALID_SIGNATURE,
+        EXPIRED,
+        UNSUPPORTED
+    }
+
+    private final Reason reason;
+
+    private final Authentication authentication;
+
+    private TokenValidationResult(Reason reason, Authentication authentication) {
+        this.reason = reason;
+        this.authentication = authentication;
+    }
+
+    public static TokenValidationResult valid(Authentication authentication) {
+        return new TokenValidationResult(Reason.VALID, authentication);
+    }
+
+    public static TokenValidationResult invalid(Reason reason) {
+        return new TokenValidationResult(reason, null);
+    }
+
+    public boolean isValid() {
+        return reason == Reason.VALID;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * @return the authentication built from the token, or null if the token is not valid
+     */
+    public Authentication getAuthentication() {
+        return authentication;
+    }
+
+    @Override
+    public String toString() {
+        return "TokenValidationResult{" +
+            "reason=" + reason +
+            ", authentication=" + authentication +
+            "}";
+    }
+}